@@ -0,0 +1,135 @@
+package com.cat.itacademy.s05.blackjack.benchmarks;
+
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
+import com.cat.itacademy.s05.blackjack.metrics.HouseMetrics;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Deck;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import com.cat.itacademy.s05.blackjack.repositories.inmemory.InMemoryPlayerStatsRepository;
+import com.cat.itacademy.s05.blackjack.services.DeckService;
+import com.cat.itacademy.s05.blackjack.services.PlayerService;
+import com.cat.itacademy.s05.blackjack.services.PlayerStatsService;
+import com.cat.itacademy.s05.blackjack.utils.BlackjackHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Services wired by hand, without Spring or Mongo, so that the benchmarks only measure the game engine.
+ */
+final class BenchmarkFixtures {
+
+    static final String PLAYER_ID = "673f22257b21b20c20d0d290";
+
+    private BenchmarkFixtures() {
+    }
+
+    static BlackjackHelper blackjackHelper() {
+        BlackjackHelper helper = new BlackjackHelper();
+        ReflectionTestUtils.setField(helper, "blackjackPayout", "THREE_TO_TWO");
+        return helper;
+    }
+
+    static GameMetrics gameMetrics() {
+        return new GameMetrics(new SimpleMeterRegistry());
+    }
+
+    static HouseMetrics houseMetrics() {
+        return new HouseMetrics(new SimpleMeterRegistry());
+    }
+
+    static DeckService deckService(GameMetrics gameMetrics) {
+        DeckService deckService = new DeckService(gameMetrics);
+        ReflectionTestUtils.setField(deckService, "numberOfDecks", 1);
+        return deckService;
+    }
+
+    static PlayerService playerService() {
+        return new InMemoryPlayerService();
+    }
+
+    static PlayerStatsService playerStatsService() {
+        return new PlayerStatsService(new InMemoryPlayerStatsRepository());
+    }
+
+    static Game gameWithPlayer(DeckService deckService, PlayerStatus status, List<Card> cards) {
+        Game game = new Game();
+        game.setId("673b4e77d181ca65a6f436b9");
+        game.setDeck(deckService.generateDeck(new Deck()));
+        PlayerInGame player = new PlayerInGame(PLAYER_ID, "John Doe");
+        player.setStatus(status);
+        player.setBet(status == PlayerStatus.PENDING_BET ? 0 : 20);
+        player.getCards().addAll(cards);
+        game.getPlayers().add(player);
+        return game;
+    }
+
+    //Answers every call with the same player, as an already warmed cache would
+    private static class InMemoryPlayerService implements PlayerService {
+
+        private final Player player;
+
+        InMemoryPlayerService() {
+            player = new Player("John Doe");
+            player.setId(PLAYER_ID);
+        }
+
+        @Override
+        public Mono<Player> getPlayer(String playerName) {
+            return Mono.just(player);
+        }
+
+        @Override
+        public Mono<Player> getPlayerById(String playerId) {
+            return Mono.just(player);
+        }
+
+        @Override
+        public Mono<Player> savePlayer(Player player) {
+            return Mono.just(player);
+        }
+
+        @Override
+        public Mono<Player> createPlayer(String playerName) {
+            return Mono.just(player);
+        }
+
+        @Override
+        public Mono<String> getOrCreatePlayerId(String playerName) {
+            return Mono.just(PLAYER_ID);
+        }
+
+        @Override
+        public Mono<Player> addMoney(String playerId, int money) {
+            return Mono.just(player);
+        }
+
+        @Override
+        public Mono<Void> chargeStake(String playerId, Play play, int stake) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Boolean> creditPayout(String playerId, String payoutId, int winnings) {
+            return Mono.just(true);
+        }
+
+        @Override
+        public Mono<List<Player>> getRanking() {
+            return Mono.just(List.of(player));
+        }
+
+        @Override
+        public Mono<Player> updatePlayerName(String playerId, String playerName) {
+            return Mono.just(player);
+        }
+
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.cat.itacademy.s05.blackjack.benchmarks;
+
+import com.cat.itacademy.s05.blackjack.enums.Rank;
+import com.cat.itacademy.s05.blackjack.enums.Suit;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.utils.BlackjackHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlackjackHelperBenchmark {
+
+    @Param({"BLACKJACK", "SOFT_17", "FIVE_CARDS"})
+    public String handType;
+
+    private BlackjackHelper helper;
+    private List<Card> hand;
+
+    @Setup
+    public void setUp() {
+        helper = BenchmarkFixtures.blackjackHelper();
+        hand = switch (handType) {
+            case "BLACKJACK" -> List.of(new Card(Suit.CLUBS, Rank.ACE), new Card(Suit.CLUBS, Rank.KING));
+            case "SOFT_17" -> List.of(new Card(Suit.HEARTS, Rank.ACE), new Card(Suit.HEARTS, Rank.THREE),
+                    new Card(Suit.CLUBS, Rank.THREE));
+            default -> List.of(new Card(Suit.HEARTS, Rank.ACE), new Card(Suit.HEARTS, Rank.TWO),
+                    new Card(Suit.CLUBS, Rank.THREE), new Card(Suit.SPADES, Rank.ACE), new Card(Suit.CLUBS, Rank.FOUR));
+        };
+    }
+
+    @Benchmark
+    public int getHandValue() {
+        return helper.getHandValue(hand);
+    }
+
+    @Benchmark
+    public boolean isSoft17() {
+        return helper.isSoft17(hand);
+    }
+
+    @Benchmark
+    public boolean isBlackjack() {
+        return helper.isBlackjack(hand);
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.cat.itacademy.s05.blackjack.benchmarks;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.enums.Rank;
+import com.cat.itacademy.s05.blackjack.enums.Suit;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import com.cat.itacademy.s05.blackjack.services.CleanUpService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CleanUpServiceBenchmark {
+
+    @Param({"WIN", "TIE", "BLACKJACK", "LOOSE"})
+    public PlayerStatus expectedStatus;
+
+    private CleanUpService cleanUpService;
+    private PlayerInGame player;
+    private int croupierScore;
+
+    @Setup
+    public void setUp() {
+        cleanUpService = new CleanUpService(BenchmarkFixtures.blackjackHelper(), BenchmarkFixtures.playerService(),
+                BenchmarkFixtures.playerStatsService(), BenchmarkFixtures.houseMetrics());
+        player = new PlayerInGame(BenchmarkFixtures.PLAYER_ID, "John Doe");
+        player.getCards().addAll(expectedStatus == PlayerStatus.BLACKJACK
+                ? List.of(new Card(Suit.CLUBS, Rank.ACE), new Card(Suit.CLUBS, Rank.KING))
+                : List.of(new Card(Suit.CLUBS, Rank.TEN), new Card(Suit.HEARTS, Rank.NINE)));
+        croupierScore = switch (expectedStatus) {
+            case WIN, BLACKJACK -> 18;
+            case TIE -> 19;
+            default -> 20;
+        };
+    }
+
+    @Benchmark
+    public PlayerInGame determinePlayerFinalStatus() {
+        player.setStatus(PlayerStatus.STAND);
+        return cleanUpService.determinePlayerFinalStatus(player, false, croupierScore).block();
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.cat.itacademy.s05.blackjack.benchmarks;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.enums.Rank;
+import com.cat.itacademy.s05.blackjack.enums.Suit;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.services.CroupierService;
+import com.cat.itacademy.s05.blackjack.services.DeckService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CroupierServiceBenchmark {
+
+    @Param({"false", "true"})
+    public boolean soft17ForcedDraw;
+
+    private DeckService deckService;
+    private CroupierService croupierService;
+
+    @Setup
+    public void setUp() {
+        deckService = BenchmarkFixtures.deckService(BenchmarkFixtures.gameMetrics());
+        croupierService = new CroupierService(deckService, BenchmarkFixtures.blackjackHelper());
+        ReflectionTestUtils.setField(croupierService, "soft17ForcedDraw", soft17ForcedDraw);
+    }
+
+    //The croupier starts every invocation with a low hand, so that it always has to draw
+    @State(Scope.Thread)
+    public static class ConcludedGame {
+
+        private Game game;
+
+        @Setup(Level.Invocation)
+        public void setUp(CroupierServiceBenchmark benchmark) {
+            game = BenchmarkFixtures.gameWithPlayer(benchmark.deckService, PlayerStatus.STAND,
+                    List.of(new Card(Suit.CLUBS, Rank.TEN), new Card(Suit.HEARTS, Rank.NINE)));
+            game.getCroupier().getCards().addAll(List.of(new Card(Suit.SPADES, Rank.TWO),
+                    new Card(Suit.DIAMONDS, Rank.THREE)));
+            game.setConcluded(true);
+        }
+
+    }
+
+    @Benchmark
+    public Game resolveCroupierHand(ConcludedGame state) {
+        return croupierService.resolveCroupierHand(state.game).block();
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.cat.itacademy.s05.blackjack.benchmarks;
+
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Deck;
+import com.cat.itacademy.s05.blackjack.services.DeckService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckServiceBenchmark {
+
+    private DeckService deckService;
+
+    @Setup
+    public void setUp() {
+        deckService = BenchmarkFixtures.deckService(BenchmarkFixtures.gameMetrics());
+    }
+
+    //A full deck for every deal, so that dealCard always removes from a 52 card deck
+    @State(Scope.Thread)
+    public static class FullDeck {
+
+        private Deck deck;
+        private List<Card> hand;
+
+        @Setup(Level.Invocation)
+        public void setUp(DeckServiceBenchmark benchmark) {
+            deck = benchmark.deckService.generateDeck(new Deck());
+            hand = new ArrayList<>();
+        }
+
+    }
+
+    @Benchmark
+    public Deck generateDeck() {
+        return deckService.generateDeck(new Deck());
+    }
+
+    @Benchmark
+    public List<Card> dealCard(FullDeck fullDeck) {
+        deckService.dealCard(fullDeck.deck, fullDeck.hand);
+        return fullDeck.hand;
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.cat.itacademy.s05.blackjack.benchmarks;
+
+import com.cat.itacademy.s05.blackjack.dto.gamedto.GameDTOFactory;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.enums.Rank;
+import com.cat.itacademy.s05.blackjack.enums.Suit;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameDTOSerializationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean concluded;
+
+    @Param({"1", "5"})
+    public int players;
+
+    private GameDTOFactory gameDTOFactory;
+    private ObjectMapper objectMapper;
+    private Game game;
+
+    @Setup
+    public void setUp() {
+        gameDTOFactory = new GameDTOFactory();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        game = BenchmarkFixtures.gameWithPlayer(BenchmarkFixtures.deckService(BenchmarkFixtures.gameMetrics()),
+                PlayerStatus.PLAYING, List.of(new Card(Suit.CLUBS, Rank.TEN), new Card(Suit.HEARTS, Rank.NINE)));
+        for (int i = 1; i < players; i++) {
+            PlayerInGame player = new PlayerInGame("player" + i, "Player " + i);
+            player.setStatus(PlayerStatus.PLAYING);
+            player.getCards().addAll(List.of(new Card(Suit.SPADES, Rank.ACE), new Card(Suit.HEARTS, Rank.FIVE)));
+            game.getPlayers().add(player);
+        }
+        game.getCroupier().getCards().addAll(List.of(new Card(Suit.SPADES, Rank.KING),
+                new Card(Suit.DIAMONDS, Rank.SEVEN)));
+        game.setConcluded(concluded);
+    }
+
+    @Benchmark
+    public byte[] toJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(gameDTOFactory.getGameDTO(game));
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.cat.itacademy.s05.blackjack.benchmarks;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.enums.Rank;
+import com.cat.itacademy.s05.blackjack.enums.Suit;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.repositories.journal.Journal;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+
+    private Path directory;
+    private Journal journal;
+    private JournalRecord gameSaved;
+    private JournalRecord walletChanged;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = new Journal(directory.toString(), 64 << 20, 10, 4);
+        Game game = BenchmarkFixtures.gameWithPlayer(BenchmarkFixtures.deckService(BenchmarkFixtures.gameMetrics()),
+                PlayerStatus.PLAYING, List.of(new Card(Suit.CLUBS, Rank.TEN), new Card(Suit.HEARTS, Rank.NINE)));
+        gameSaved = new JournalRecord.GameSaved(game);
+        walletChanged = new JournalRecord.WalletChanged(BenchmarkFixtures.PLAYER_ID, -10, 1);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendGameSaved() {
+        journal.append(gameSaved);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendWalletChanged() {
+        journal.append(walletChanged);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.cat.itacademy.s05.blackjack.benchmarks;
+
+import com.cat.itacademy.s05.blackjack.config.Properties;
+import com.cat.itacademy.s05.blackjack.dto.PlayDTO;
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.enums.Rank;
+import com.cat.itacademy.s05.blackjack.enums.Suit;
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.services.DeckService;
+import com.cat.itacademy.s05.blackjack.services.LobbyService;
+import com.cat.itacademy.s05.blackjack.services.PlayService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayServiceBenchmark {
+
+    @Param({"INITIAL_BET", "HIT", "STAND", "DOUBLE", "SPLIT", "SURRENDER"})
+    public Play play;
+
+    private DeckService deckService;
+    private PlayService playService;
+    private GameMetrics gameMetrics;
+    private PlayDTO playDTO;
+
+    @Setup
+    public void setUp() {
+        gameMetrics = BenchmarkFixtures.gameMetrics();
+        deckService = BenchmarkFixtures.deckService(gameMetrics);
+        playService = new PlayService(BenchmarkFixtures.playerService(), deckService,
+                BenchmarkFixtures.blackjackHelper(), new LobbyService(new Properties()),
+                BenchmarkFixtures.houseMetrics());
+        playDTO = new PlayDTO(BenchmarkFixtures.PLAYER_ID, play, 20);
+    }
+
+    //Plays change the game, so every invocation starts from a game where the play is valid. The allocations of this
+    //setup (mostly the deck) are included in gc.alloc.rate.norm.
+    @State(Scope.Thread)
+    public static class GameBeforePlay {
+
+        private Game game;
+
+        @Setup(Level.Invocation)
+        public void setUp(PlayServiceBenchmark benchmark) {
+            game = switch (benchmark.play) {
+                case INITIAL_BET -> BenchmarkFixtures.gameWithPlayer(benchmark.deckService, PlayerStatus.PENDING_BET,
+                        List.of());
+                case SPLIT -> BenchmarkFixtures.gameWithPlayer(benchmark.deckService, PlayerStatus.PLAYING,
+                        List.of(new Card(Suit.CLUBS, Rank.EIGHT), new Card(Suit.HEARTS, Rank.EIGHT)));
+                default -> BenchmarkFixtures.gameWithPlayer(benchmark.deckService, PlayerStatus.PLAYING,
+                        List.of(new Card(Suit.CLUBS, Rank.TWO), new Card(Suit.HEARTS, Rank.THREE)));
+            };
+        }
+
+    }
+
+    @Benchmark
+    public Game executePlay(GameBeforePlay state) {
+        return playService.executePlay(state.game, playDTO).block();
+    }
+
+    //Same play wrapped in the stage timer used by GameServiceImpl, to keep the instrumentation overhead in check
+    @Benchmark
+    public Game executePlayTimed(GameBeforePlay state) {
+        return gameMetrics.timed(GameMetrics.Stage.EXECUTE_PLAY, () -> playService.executePlay(state.game, playDTO))
+                .block();
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.cat.itacademy.s05.blackjack.benchmarks;
+
+import com.cat.itacademy.s05.blackjack.cache.TokenBuckets;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBucketsBenchmark {
+
+    @Param({"100", "100000"})
+    public int clients;
+
+    private TokenBuckets buckets;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        buckets = new TokenBuckets(100_000, Duration.ofSeconds(2));
+        keys = new String[clients];
+        for (int i = 0; i < clients; i++) keys[i] = "PLAY|ip|10.0." + (i >> 8) + "." + (i & 255);
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        String key = keys[ThreadLocalRandom.current().nextInt(clients)];
+        return buckets.tryAcquire(key, 500, 1000, System.nanoTime());
+    }
+
+}
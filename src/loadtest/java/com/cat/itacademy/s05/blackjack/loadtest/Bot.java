@@ -0,0 +1,117 @@
+package com.cat.itacademy.s05.blackjack.loadtest;
+
+import com.cat.itacademy.s05.blackjack.dto.PlayDTO;
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.Rank;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Simulated player that plays its games one after another through the REST API. A bot owns every seat of the
+ * games it creates, the extra seats being joined with numbered names.
+ */
+public class Bot {
+
+    private final String name;
+    private final WebClient client;
+    private final LoadTestOptions options;
+    private final EndpointStats stats;
+
+    public Bot(String name, WebClient client, LoadTestOptions options, EndpointStats stats) {
+        this.name = name;
+        this.client = client;
+        this.options = options;
+        this.stats = stats;
+    }
+
+    public Mono<Void> run() {
+        return Flux.range(1, options.gamesPerBot())
+                .concatMap(this::playGame)
+                .then();
+    }
+
+    private Mono<Void> playGame(int gameNumber) {
+        return createGame()
+                .flatMap(gameId -> Flux.range(2, options.seatsPerGame() - 1)
+                        .concatMap(seat -> joinGame(gameId, name + "#" + seat))
+                        .then(getGame(gameId))
+                        .expand(game -> isConcluded(game) ? Mono.empty() : play(gameId, game))
+                        .then())
+                .then(gameNumber % options.rankingEvery() == 0 ? getRanking() : Mono.empty())
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    private Mono<String> createGame() {
+        return timed("POST /game/new", client.post().uri("/game/new")
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue(name)
+                .retrieve()
+                .bodyToMono(String.class))
+                .map(body -> body.substring(body.lastIndexOf(' ') + 1));
+    }
+
+    private Mono<String> joinGame(String gameId, String seatName) {
+        return timed("POST /game/{id}/join", client.post().uri("/game/{id}/join", gameId)
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue(seatName)
+                .retrieve()
+                .bodyToMono(String.class));
+    }
+
+    private Mono<JsonNode> getGame(String gameId) {
+        return timed("GET /game/{id}", client.get().uri("/game/{id}", gameId)
+                .retrieve()
+                .bodyToMono(JsonNode.class));
+    }
+
+    private Mono<Void> getRanking() {
+        return timed("GET /ranking", client.get().uri("/ranking")
+                .retrieve()
+                .bodyToMono(JsonNode.class))
+                .then();
+    }
+
+    private Mono<JsonNode> play(String gameId, JsonNode game) {
+        JsonNode seat = game.get("players").get(game.get("activePlayerIndex").asInt());
+        Play play = switch (seat.get("status").asText()) {
+            case "PENDING_BET" -> Play.INITIAL_BET;
+            case "PLAYING" -> options.strategy().choose(hand(seat.get("cards")), options.playMix());
+            default -> null;
+        };
+        if (play == null) return Mono.empty();
+        return timed("POST /game/{id}/play", client.post().uri("/game/{id}/play", gameId)
+                .bodyValue(new PlayDTO(seat.get("id").asText(), play, options.bet()))
+                .retrieve()
+                .bodyToMono(JsonNode.class));
+    }
+
+    private boolean isConcluded(JsonNode game) {
+        return !game.has("activePlayerIndex");
+    }
+
+    private Strategy.Hand hand(JsonNode cards) {
+        int value = 0;
+        int aces = 0;
+        for (JsonNode card : cards) {
+            Rank rank = Rank.valueOf(card.get("rank").asText());
+            value += rank.getValue();
+            if (rank == Rank.ACE) aces++;
+        }
+        while (value > 21 && aces-- > 0) value -= 10;
+        boolean pair = cards.size() == 2 && cards.get(0).get("rank").equals(cards.get(1).get("rank"));
+        return new Strategy.Hand(value, cards.size(), pair);
+    }
+
+    private <T> Mono<T> timed(String endpoint, Mono<T> request) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request
+                    .doOnSuccess(unused -> stats.record(endpoint, System.nanoTime() - start))
+                    .doOnError(unused -> stats.error(endpoint));
+        });
+    }
+
+}
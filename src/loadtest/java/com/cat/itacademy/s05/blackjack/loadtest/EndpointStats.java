@@ -0,0 +1,48 @@
+package com.cat.itacademy.s05.blackjack.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and error counts of every endpoint, recorded in microseconds.
+ */
+public class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long elapsedNanos) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), HIGHEST_TRACKABLE_MICROS);
+        latencies.computeIfAbsent(endpoint, k -> new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3))
+                .recordValue(micros);
+    }
+
+    public void error(String endpoint) {
+        errors.computeIfAbsent(endpoint, k -> new LongAdder()).increment();
+    }
+
+    public Map<String, LoadTestResult.EndpointResult> toResults(double durationSeconds) {
+        Map<String, LoadTestResult.EndpointResult> results = new TreeMap<>();
+        latencies.forEach((endpoint, histogram) -> results.put(endpoint, new LoadTestResult.EndpointResult(
+                histogram.getTotalCount(),
+                errors.getOrDefault(endpoint, new LongAdder()).sum(),
+                histogram.getTotalCount() / durationSeconds,
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMaxValue())));
+        errors.forEach((endpoint, count) -> results.putIfAbsent(endpoint,
+                new LoadTestResult.EndpointResult(0, count.sum(), 0, 0, 0, 0, 0, 0)));
+        return results;
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.cat.itacademy.s05.blackjack.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Runs concurrent bots against a running application and reports throughput and latency percentiles per endpoint.
+ * <p>
+ * ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="--bots=2000 --games=5 --strategy=MIX"
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws IOException {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(options.bots())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        WebClient client = WebClient.builder()
+                .baseUrl(options.baseUrl())
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+        EndpointStats stats = new EndpointStats();
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        Flux.range(1, options.bots())
+                .flatMap(i -> new Bot("bot-" + runId + "-" + i, client, options, stats).run(), options.bots())
+                .blockLast();
+        double durationSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        connections.dispose();
+
+        LoadTestResult result = new LoadTestResult(startedAt.toString(), durationSeconds, options,
+                stats.toResults(durationSeconds));
+        System.out.printf("%d bots, %d games each, %.1f s%n%n", options.bots(), options.gamesPerBot(), durationSeconds);
+        System.out.println(result.toTable());
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        File resultFile = new File(options.resultFile());
+        if (resultFile.getParentFile() != null) resultFile.getParentFile().mkdirs();
+        objectMapper.writeValue(resultFile, result);
+        System.out.println("Result saved to " + resultFile.getPath());
+
+        if (options.baselineFile() != null) {
+            LoadTestResult baseline = objectMapper.readValue(new File(options.baselineFile()), LoadTestResult.class);
+            System.out.println();
+            System.out.println("Compared to " + options.baselineFile() + " (" + baseline.startedAt() + ")");
+            System.out.println(result.compareTo(baseline));
+        }
+    }
+
+}
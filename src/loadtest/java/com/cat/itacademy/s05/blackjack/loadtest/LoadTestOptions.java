@@ -0,0 +1,58 @@
+package com.cat.itacademy.s05.blackjack.loadtest;
+
+import com.cat.itacademy.s05.blackjack.enums.Play;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options of a load test run, given as --name=value arguments.
+ */
+public record LoadTestOptions(
+        String baseUrl,
+        int bots,
+        int gamesPerBot,
+        int seatsPerGame,
+        int bet,
+        int rankingEvery,
+        Strategy strategy,
+        Map<Play, Integer> playMix,
+        String resultFile,
+        String baselineFile
+) {
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Arguments must be given as --name=value: " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return new LoadTestOptions(
+                values.getOrDefault("baseUrl", "http://localhost:8080"),
+                Integer.parseInt(values.getOrDefault("bots", "1000")),
+                Integer.parseInt(values.getOrDefault("games", "10")),
+                Integer.parseInt(values.getOrDefault("seats", "1")),
+                Integer.parseInt(values.getOrDefault("bet", "10")),
+                Integer.parseInt(values.getOrDefault("rankingEvery", "5")),
+                Strategy.valueOf(values.getOrDefault("strategy", "BASIC")),
+                parsePlayMix(values.getOrDefault("mix", "HIT:45,STAND:40,DOUBLE:8,SPLIT:2,SURRENDER:5")),
+                values.getOrDefault("result", "target/loadtest-result.json"),
+                values.get("baseline"));
+    }
+
+    //Weights of the plays used by the MIX strategy, f.e. HIT:50,STAND:50
+    private static Map<Play, Integer> parsePlayMix(String mix) {
+        Map<Play, Integer> weights = new EnumMap<>(Play.class);
+        for (String entry : mix.split(",")) {
+            String[] playAndWeight = entry.split(":");
+            Play play = Play.valueOf(playAndWeight[0].trim());
+            if (play == Play.INITIAL_BET) throw new IllegalArgumentException("INITIAL_BET is not part of the play mix");
+            weights.put(play, Integer.parseInt(playAndWeight[1].trim()));
+        }
+        return weights;
+    }
+
+}
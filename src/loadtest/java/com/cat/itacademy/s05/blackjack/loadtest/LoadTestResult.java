@@ -0,0 +1,53 @@
+package com.cat.itacademy.s05.blackjack.loadtest;
+
+import java.util.Map;
+
+/**
+ * Result file of a run. Later runs are compared against it with --baseline=file.
+ */
+public record LoadTestResult(
+        String startedAt,
+        double durationSeconds,
+        LoadTestOptions options,
+        Map<String, EndpointResult> endpoints
+) {
+
+    public record EndpointResult(
+            long requests,
+            long errors,
+            double throughput,
+            long p50Micros,
+            long p90Micros,
+            long p99Micros,
+            long p999Micros,
+            long maxMicros
+    ) {}
+
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format("%-24s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50(us)", "p90(us)", "p99(us)", "p999(us)", "max(us)"));
+        endpoints.forEach((endpoint, result) -> table.append(String.format(
+                "%-24s %9d %7d %10.1f %9d %9d %9d %9d %9d%n", endpoint, result.requests(), result.errors(),
+                result.throughput(), result.p50Micros(), result.p90Micros(), result.p99Micros(), result.p999Micros(),
+                result.maxMicros())));
+        return table.toString();
+    }
+
+    public String compareTo(LoadTestResult baseline) {
+        StringBuilder table = new StringBuilder(String.format("%-24s %14s %14s%n", "endpoint", "req/s change",
+                "p99 change"));
+        endpoints.forEach((endpoint, result) -> {
+            EndpointResult before = baseline.endpoints().get(endpoint);
+            if (before == null) return;
+            table.append(String.format("%-24s %13.1f%% %13.1f%%%n", endpoint,
+                    change(before.throughput(), result.throughput()),
+                    change(before.p99Micros(), result.p99Micros())));
+        });
+        return table.toString();
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) * 100 / before;
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.cat.itacademy.s05.blackjack.loadtest;
+
+import com.cat.itacademy.s05.blackjack.enums.Play;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How a bot chooses its play once the cards are dealt.
+ */
+public enum Strategy {
+
+    //Hits below 17 and doubles on 10 or 11, like a casual player following the croupier's rule
+    BASIC {
+        @Override
+        Play choose(Hand hand, Map<Play, Integer> playMix) {
+            if (hand.cards() == 2 && hand.pair()) return Play.SPLIT;
+            if (hand.cards() == 2 && (hand.value() == 10 || hand.value() == 11)) return Play.DOUBLE;
+            return hand.value() < 17 ? Play.HIT : Play.STAND;
+        }
+    },
+
+    //Never risks busting
+    CAUTIOUS {
+        @Override
+        Play choose(Hand hand, Map<Play, Integer> playMix) {
+            return hand.value() < 12 ? Play.HIT : Play.STAND;
+        }
+    },
+
+    //Draws the play from the configured weights; plays only valid on the first two cards are skipped afterwards
+    MIX {
+        @Override
+        Play choose(Hand hand, Map<Play, Integer> playMix) {
+            int total = playMix.entrySet().stream()
+                    .filter(entry -> isAllowed(entry.getKey(), hand))
+                    .mapToInt(Map.Entry::getValue)
+                    .sum();
+            if (total <= 0) return Play.STAND;
+            int draw = ThreadLocalRandom.current().nextInt(total);
+            for (Map.Entry<Play, Integer> entry : playMix.entrySet()) {
+                if (!isAllowed(entry.getKey(), hand)) continue;
+                draw -= entry.getValue();
+                if (draw < 0) return entry.getKey();
+            }
+            return Play.STAND;
+        }
+
+        private boolean isAllowed(Play play, Hand hand) {
+            return switch (play) {
+                case DOUBLE, SURRENDER -> hand.cards() == 2;
+                case SPLIT -> hand.cards() == 2 && hand.pair();
+                default -> true;
+            };
+        }
+    };
+
+    abstract Play choose(Hand hand, Map<Play, Integer> playMix);
+
+    record Hand(int value, int cards, boolean pair) {
+    }
+
+}
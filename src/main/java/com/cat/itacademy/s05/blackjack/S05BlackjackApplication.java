@@ -5,8 +5,10 @@ import com.cat.itacademy.s05.blackjack.utils.BlackjackHelper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class S05BlackjackApplication {
 
 
@@ -0,0 +1,74 @@
+package com.cat.itacademy.s05.blackjack.cache;
+
+import com.cat.itacademy.s05.blackjack.model.IdempotentResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the responses given to requests with an Idempotency-Key. A key is reserved by the first request
+ * and holds its response once completed, for idempotencyKeyTtlSeconds since it was reserved. The oldest key is
+ * evicted once the size limit is reached.
+ */
+@Component
+public class IdempotencyCache {
+
+    //The response is null while the first request is in progress
+    public record Entry(String fingerprint, IdempotentResponse response, long expiresAtNanos) {
+    }
+
+    private final Map<String, Entry> entries;
+    private final Duration ttl;
+
+    public IdempotencyCache(@Value("${idempotencyCacheSize:10000}") int maxSize,
+                            @Value("${idempotencyKeyTtlSeconds:3600}") long ttlSeconds) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    //The entry of the key, or null when the key is reserved for the caller, who must then complete or release it
+    public synchronized Entry reserve(String key, String fingerprint) {
+        long now = System.nanoTime();
+        evictExpired(now);
+        Entry entry = entries.get(key);
+        if (entry != null) return entry;
+        entries.put(key, new Entry(fingerprint, null, now + ttl.toNanos()));
+        return null;
+    }
+
+    public synchronized void complete(String key, IdempotentResponse response) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.response() != null || !entry.fingerprint().equals(response.getFingerprint())) return;
+        entries.put(key, new Entry(entry.fingerprint(), response, entry.expiresAtNanos()));
+    }
+
+    //Frees a key reserved by a request that failed, so that its retry runs again
+    public synchronized void release(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.response() == null) entries.remove(key);
+    }
+
+    //Keys are kept in the order they were reserved, so the expired ones are at the head
+    private void evictExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAtNanos() - now > 0) return;
+            iterator.remove();
+        }
+    }
+
+}
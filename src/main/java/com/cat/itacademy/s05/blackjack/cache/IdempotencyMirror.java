@@ -0,0 +1,17 @@
+package com.cat.itacademy.s05.blackjack.cache;
+
+import com.cat.itacademy.s05.blackjack.model.IdempotentResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Shared copy of the responses of the {@link IdempotencyCache}, read when a key is not in the cache of this instance,
+ * so that a retry reaching another instance or one restarted meanwhile is replayed too.
+ */
+public interface IdempotencyMirror {
+
+    //Empty when the key is unknown or expired
+    Mono<IdempotentResponse> find(String key);
+
+    Mono<Void> save(IdempotentResponse response);
+
+}
@@ -0,0 +1,31 @@
+package com.cat.itacademy.s05.blackjack.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Invalidation bus of a single instance: only the changes published by this instance are seen. Enough for the
+ * inmemory and journal profiles and for tests; the version is a counter of the published changes.
+ */
+@Component
+@ConditionalOnProperty(name = "invalidationBus", havingValue = "local", matchIfMissing = true)
+public class InProcessInvalidationBus implements InvalidationBus {
+
+    private final Sinks.Many<Invalidation> sink = Sinks.many().multicast().directBestEffort();
+    private long version;
+
+    //Synchronized so that the invalidations are emitted in the order of their versions. Without subscribers they are
+    //dropped
+    @Override
+    public synchronized void publish(Invalidation.Type type, String id) {
+        sink.tryEmitNext(new Invalidation(type, id, ++version));
+    }
+
+    @Override
+    public Flux<Invalidation> invalidations() {
+        return sink.asFlux();
+    }
+
+}
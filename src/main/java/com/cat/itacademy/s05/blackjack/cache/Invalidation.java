@@ -0,0 +1,14 @@
+package com.cat.itacademy.s05.blackjack.cache;
+
+/**
+ * A game or player changed and any copy of it held in memory must be dropped. The version grows with every change
+ * seen by the bus, so a cache that loaded an entry at a later version than the invalidation can keep it.
+ */
+public record Invalidation(Type type, String id, long version) {
+
+    public enum Type {
+        GAME,
+        PLAYER
+    }
+
+}
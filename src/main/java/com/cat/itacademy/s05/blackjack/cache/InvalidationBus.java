@@ -0,0 +1,17 @@
+package com.cat.itacademy.s05.blackjack.cache;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Carries the invalidations of games and players between the instances of the service, so that each instance can
+ * cache them and still see the changes made by the others. Selected with invalidationBus.
+ */
+public interface InvalidationBus {
+
+    //Announces a change written by this instance. Buses that observe the database may ignore it
+    void publish(Invalidation.Type type, String id);
+
+    //Hot stream of the changes made by every instance, this one included, from the moment of subscription
+    Flux<Invalidation> invalidations();
+
+}
@@ -0,0 +1,36 @@
+package com.cat.itacademy.s05.blackjack.cache;
+
+import com.cat.itacademy.s05.blackjack.model.IdempotentResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Idempotency mirror in MongoDB. Its TTL index drops the expired responses about once a minute, so the expiration is
+ * checked on read too.
+ */
+@Component
+@ConditionalOnProperty(name = "idempotencyMirror", havingValue = "mongo")
+public class MongoIdempotencyMirror implements IdempotencyMirror {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public MongoIdempotencyMirror(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<IdempotentResponse> find(String key) {
+        return mongoTemplate.findById(key, IdempotentResponse.class)
+                .filter(response -> response.getExpiresAt().isAfter(Instant.now()));
+    }
+
+    @Override
+    public Mono<Void> save(IdempotentResponse response) {
+        return mongoTemplate.save(response).then();
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.cat.itacademy.s05.blackjack.cache;
+
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.Player;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveChangeStreamOperation.ChangeStreamWithFilterAndProjection;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Invalidation bus on MongoDB change streams: every update, replace or delete of a game or player, whoever wrote it,
+ * is seen by every instance, so there is nothing to publish. The version is the cluster time of the change. Change
+ * streams need a replica set; a single-node one is enough.
+ * <p>
+ * One cursor per collection is shared by all the subscribers. When it fails it is reopened after the last change
+ * seen, waiting up to invalidationRetryMaxMillis between attempts.
+ */
+@Component
+@ConditionalOnProperty(name = "invalidationBus", havingValue = "mongo")
+public class MongoInvalidationBus implements InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoInvalidationBus.class);
+
+    private final Flux<Invalidation> invalidations;
+
+    public MongoInvalidationBus(ReactiveMongoTemplate mongoTemplate,
+                                @Value("${invalidationRetryMaxMillis:30000}") long retryMaxMillis) {
+        Duration maxBackoff = Duration.ofMillis(Math.max(100, retryMaxMillis));
+        this.invalidations = Flux.merge(
+                        watch(mongoTemplate, mongoTemplate.getCollectionName(Game.class), Invalidation.Type.GAME, maxBackoff),
+                        watch(mongoTemplate, mongoTemplate.getCollectionName(Player.class), Invalidation.Type.PLAYER, maxBackoff))
+                .share();
+    }
+
+    @Override
+    public void publish(Invalidation.Type type, String id) {
+    }
+
+    @Override
+    public Flux<Invalidation> invalidations() {
+        return invalidations;
+    }
+
+    private static Flux<Invalidation> watch(ReactiveMongoTemplate mongoTemplate, String collection,
+                                            Invalidation.Type type, Duration maxBackoff) {
+        AtomicReference<BsonValue> resumeToken = new AtomicReference<>();
+        return Flux.defer(() -> {
+                    ChangeStreamWithFilterAndProjection<Document> changes = mongoTemplate.changeStream(Document.class)
+                            .watchCollection(collection)
+                            .filter(where("operationType").in("update", "replace", "delete"));
+                    BsonValue lastSeen = resumeToken.get();
+                    return lastSeen == null ? changes.listen() : changes.resumeAfter(lastSeen).listen();
+                })
+                .doOnNext(event -> resumeToken.set(event.getResumeToken()))
+                .mapNotNull(event -> toInvalidation(type, event))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(100))
+                        .maxBackoff(maxBackoff)
+                        .doBeforeRetry(signal -> log.warn("Change stream of {} failed, reopening it",
+                                collection, signal.failure())));
+    }
+
+    private static Invalidation toInvalidation(Invalidation.Type type, ChangeStreamEvent<Document> event) {
+        if (event.getRaw() == null || event.getBsonTimestamp() == null) return null;
+        BsonDocument key = event.getRaw().getDocumentKey();
+        BsonValue id = key == null ? null : key.get("_id");
+        if (id == null) return null;
+        String stringId = id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+        return new Invalidation(type, stringId, event.getBsonTimestamp().getValue());
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.cat.itacademy.s05.blackjack.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded name to id cache of players. The least recently used entry is evicted once the size limit is reached.
+ * <p>
+ * A player changed by any instance is dropped when its invalidation arrives, so a name given to another player after
+ * a rename elsewhere isn't resolved to the old id. Each entry keeps the version of the invalidations seen when its
+ * player was read, so an id read before an invalidation and put after it is ignored instead of kept stale.
+ */
+@Component
+public class PlayerNameCache {
+
+    private record Entry(String playerId, long version) {
+    }
+
+    private final Map<String, Entry> idsByName;
+    private final Map<String, String> namesById = new HashMap<>();
+    private final Disposable invalidations;
+    private long version;
+
+    public PlayerNameCache(@Value("${playerNameCacheSize:10000}") int maxSize, InvalidationBus invalidationBus) {
+        this.idsByName = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= maxSize) return false;
+                namesById.remove(eldest.getValue().playerId());
+                return true;
+            }
+        };
+        this.invalidations = invalidationBus.invalidations()
+                .filter(invalidation -> invalidation.type() == Invalidation.Type.PLAYER)
+                .subscribe(invalidation -> invalidateId(invalidation.id(), invalidation.version()));
+    }
+
+    //Version of the last invalidation seen, to be taken before reading the id to put
+    public synchronized long version() {
+        return version;
+    }
+
+    public synchronized String getId(String playerName) {
+        Entry entry = idsByName.get(playerName);
+        return entry == null ? null : entry.playerId();
+    }
+
+    //Ignored when a player was invalidated after the given version, as the id may have been read before that change
+    public synchronized void put(String playerName, String playerId, long readAt) {
+        if (readAt < version) return;
+        String previousName = namesById.put(playerId, playerName);
+        if (previousName != null && !previousName.equals(playerName)) idsByName.remove(previousName);
+        Entry previous = idsByName.put(playerName, new Entry(playerId, readAt));
+        if (previous != null && !previous.playerId().equals(playerId)) namesById.remove(previous.playerId());
+    }
+
+    public synchronized void invalidate(String playerName) {
+        Entry entry = idsByName.remove(playerName);
+        if (entry != null) namesById.remove(entry.playerId());
+    }
+
+    //An entry read at the version of the invalidation or later already has the change
+    synchronized void invalidateId(String playerId, long invalidationVersion) {
+        version = Math.max(version, invalidationVersion);
+        String playerName = namesById.get(playerId);
+        if (playerName == null || idsByName.get(playerName).version() >= invalidationVersion) return;
+        namesById.remove(playerId);
+        idsByName.remove(playerName);
+    }
+
+    @PreDestroy
+    void stop() {
+        invalidations.dispose();
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.cat.itacademy.s05.blackjack.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token buckets by key, split in stripes locked on their own so that requests of different keys rarely wait for each
+ * other. Each stripe keeps its buckets from the least to the most recently used, evicting the least recently used
+ * once full and those idle for longer than the idle timeout.
+ * <p>
+ * A bucket idle for longer than it takes to refill is full, so it can be forgotten and created again full.
+ */
+public class TokenBuckets {
+
+    private static final int STRIPES = 64;
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long idleNanos;
+
+    public TokenBuckets(int maxSize, Duration idleTimeout) {
+        int stripeSize = Math.max(1, (maxSize + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe(stripeSize);
+        this.idleNanos = idleTimeout.toNanos();
+    }
+
+    //0 when a token was taken, otherwise the nanoseconds until the next token
+    public long tryAcquire(String key, double perSecond, double burst, long now) {
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+        synchronized (stripe) {
+            stripe.evictIdle(now, idleNanos);
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(burst, now);
+                stripe.put(key, bucket);
+            }
+            return bucket.tryAcquire(perSecond, burst, now);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private static class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        long tryAcquire(double perSecond, double burst, long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * perSecond / NANOS_PER_SECOND);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) * NANOS_PER_SECOND / perSecond);
+        }
+
+    }
+
+    private static class Stripe extends LinkedHashMap<String, Bucket> {
+
+        private final int maxSize;
+
+        Stripe(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxSize;
+        }
+
+        //Buckets are kept in the order they were used, so the idle ones are at the head
+        void evictIdle(long now, long idleNanos) {
+            var iterator = values().iterator();
+            while (iterator.hasNext()) {
+                if (now - iterator.next().refilledAt < idleNanos) return;
+                iterator.remove();
+            }
+        }
+
+    }
+
+}
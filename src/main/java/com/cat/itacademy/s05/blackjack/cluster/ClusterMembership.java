@@ -0,0 +1,106 @@
+package com.cat.itacademy.s05.blackjack.cluster;
+
+import com.cat.itacademy.s05.blackjack.dto.lobby.LobbyTableDTO;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.InvalidClusterMembersException;
+import com.cat.itacademy.s05.blackjack.services.LobbyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Which node of the cluster owns each game. Members are the base URLs of the nodes, given by clusterMembers, and this
+ * node is clusterSelf. With clusterEnabled=false every game is owned by this node.
+ * <p>
+ * Members can only be chosen among clusterAllowedMembers, or the initial members if it is not set, as requests and
+ * their bodies are proxied to them.
+ * <p>
+ * Every node must be given the same member list. When it changes, the new ring takes effect at once, so requests for
+ * the games that moved are sent to their new owner from then on, and this node stops offering in the lobby the tables
+ * it no longer owns. A node leaves the cluster by being removed from the list of every member, itself included; it
+ * keeps forwarding whatever it still receives.
+ */
+@Component
+public class ClusterMembership {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterMembership.class);
+
+    private final boolean enabled;
+    private final String self;
+    private final int virtualNodes;
+    private final Set<String> allowedMembers;
+    private final LobbyService lobbyService;
+    private volatile HashRing ring;
+
+    public ClusterMembership(@Value("${clusterEnabled:false}") boolean enabled,
+                             @Value("${clusterSelf:}") String self,
+                             @Value("${clusterMembers:}") String members,
+                             @Value("${clusterAllowedMembers:}") String allowedMembers,
+                             @Value("${clusterVirtualNodes:128}") int virtualNodes,
+                             LobbyService lobbyService) {
+        this.enabled = enabled;
+        this.self = normalize(self);
+        this.virtualNodes = virtualNodes;
+        this.lobbyService = lobbyService;
+        this.ring = new HashRing(parse(members), virtualNodes);
+        this.allowedMembers = new HashSet<>(parse(allowedMembers.isBlank() ? members : allowedMembers));
+        if (enabled && this.self.isEmpty()) {
+            throw new IllegalStateException("clusterSelf is required when clusterEnabled=true");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public List<String> getMembers() {
+        return ring.getMembers();
+    }
+
+    //Null when the game is owned by this node
+    public String remoteOwnerOf(String gameId) {
+        if (!enabled) return null;
+        String owner = ring.ownerOf(gameId);
+        return owner == null || owner.equals(self) ? null : owner;
+    }
+
+    public boolean isOwner(String gameId) {
+        return remoteOwnerOf(gameId) == null;
+    }
+
+    public synchronized void changeMembers(List<String> members) {
+        List<String> normalized = members.stream().map(ClusterMembership::normalize).toList();
+        List<String> unknown = normalized.stream().filter(member -> !allowedMembers.contains(member)).toList();
+        if (!unknown.isEmpty()) {
+            throw new InvalidClusterMembersException("Not allowed as cluster members: " + unknown);
+        }
+        ring = new HashRing(normalized, virtualNodes);
+        log.info("Cluster members changed to {}", ring.getMembers());
+        if (!enabled) return;
+        for (LobbyTableDTO table : lobbyService.getOpenTables()) {
+            if (!isOwner(table.gameId())) lobbyService.remove(table.gameId());
+        }
+    }
+
+    private static List<String> parse(String members) {
+        return Arrays.stream(members.split(","))
+                .map(ClusterMembership::normalize)
+                .filter(member -> !member.isEmpty())
+                .toList();
+    }
+
+    private static String normalize(String member) {
+        String trimmed = member.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+}
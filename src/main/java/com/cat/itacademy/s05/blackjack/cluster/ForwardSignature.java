@@ -0,0 +1,117 @@
+package com.cat.itacademy.s05.blackjack.cluster;
+
+import com.cat.itacademy.s05.blackjack.web.CachedBodyRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Marks the requests one member forwards to another with an HMAC of the request line, a digest of the body, the
+ * forwarding node and the time, keyed with clusterSecret, so that a client can't pass its own request off as already
+ * forwarded, nor replay a forward with another body. A forward is only accepted for a short while after it was signed,
+ * so the clocks of the members must be kept in sync.
+ * <p>
+ * Signed requests are checked ahead of the other filters, which only read the outcome, as the body must be read for
+ * it. Without a secret nothing is ever signed or accepted.
+ */
+@Component
+@Order(-2)
+public class ForwardSignature implements WebFilter {
+
+    public static final String FORWARDED_BY_HEADER = "X-Blackjack-Forwarded-By";
+    public static final String FORWARDED_AT_HEADER = "X-Blackjack-Forwarded-At";
+    public static final String SIGNATURE_HEADER = "X-Blackjack-Forward-Signature";
+
+    private static final String AUTHENTIC_ATTRIBUTE = ForwardSignature.class.getName() + ".authentic";
+    private static final long MAX_AGE_MILLIS = Duration.ofSeconds(30).toMillis();
+
+    private final SecretKeySpec key;
+
+    public ForwardSignature(@Value("${clusterSecret:}") String secret) {
+        this.key = secret.isEmpty() ? null : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    public boolean hasSecret() {
+        return key != null;
+    }
+
+    public void sign(HttpHeaders headers, HttpMethod method, URI uri, String forwardedBy, byte[] body) {
+        String forwardedAt = Long.toString(System.currentTimeMillis());
+        headers.set(FORWARDED_BY_HEADER, forwardedBy);
+        headers.set(FORWARDED_AT_HEADER, forwardedAt);
+        headers.set(SIGNATURE_HEADER, signature(method, uri, body, forwardedBy, forwardedAt));
+    }
+
+    //Checked once per exchange, before the rate limiter and the ownership filter ask
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (key == null || !exchange.getRequest().getHeaders().containsKey(SIGNATURE_HEADER)) {
+            return chain.filter(exchange);
+        }
+        return CachedBodyRequest.cache(exchange.getRequest())
+                .flatMap(cached -> {
+                    exchange.getAttributes().put(AUTHENTIC_ATTRIBUTE, verify(cached, cached.getCachedBody()));
+                    return chain.filter(exchange.mutate().request(cached).build());
+                });
+    }
+
+    public boolean isAuthentic(ServerWebExchange exchange) {
+        return Boolean.TRUE.equals(exchange.getAttribute(AUTHENTIC_ATTRIBUTE));
+    }
+
+    private boolean verify(ServerHttpRequest request, byte[] body) {
+        HttpHeaders headers = request.getHeaders();
+        String forwardedBy = headers.getFirst(FORWARDED_BY_HEADER);
+        String forwardedAt = headers.getFirst(FORWARDED_AT_HEADER);
+        String signature = headers.getFirst(SIGNATURE_HEADER);
+        if (key == null || forwardedBy == null || forwardedAt == null || signature == null) return false;
+        try {
+            if (Math.abs(System.currentTimeMillis() - Long.parseLong(forwardedAt)) > MAX_AGE_MILLIS) return false;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        String expected = signature(request.getMethod(), request.getURI(), body, forwardedBy, forwardedAt);
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String signature(HttpMethod method, URI uri, byte[] body, String forwardedBy, String forwardedAt) {
+        if (key == null) throw new IllegalStateException("clusterSecret is required to forward requests");
+        String query = uri.getRawQuery();
+        String signed = method.name() + '\n' + uri.getRawPath() + (query == null ? "" : "?" + query) + '\n' +
+                digest(body) + '\n' + forwardedBy + '\n' + forwardedAt;
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return HexFormat.of().formatHex(mac.doFinal(signed.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String digest(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
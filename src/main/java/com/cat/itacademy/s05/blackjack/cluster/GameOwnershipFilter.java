@@ -0,0 +1,126 @@
+package com.cat.itacademy.s05.blackjack.cluster;
+
+import com.cat.itacademy.s05.blackjack.web.CachedBodyRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends the requests for a game that this node doesn't own to the owner. With clusterForwarding=true the request is
+ * proxied and the client sees the answer of the owner; otherwise the client gets a 307 to the same path on the owner.
+ * <p>
+ * A forwarded request is always handled where it arrives, so nodes that briefly disagree on the members can't send
+ * a request back and forth. Forwards are told apart by their {@link ForwardSignature}; the forward headers of any
+ * other request are dropped.
+ */
+@Component
+@ConditionalOnProperty(name = "clusterEnabled", havingValue = "true")
+public class GameOwnershipFilter implements WebFilter {
+
+    public static final String OWNER_HEADER = "X-Blackjack-Owner";
+
+    private static final Logger log = LoggerFactory.getLogger(GameOwnershipFilter.class);
+    private static final Pattern GAME_PATH = Pattern.compile("^/game/([^/]+)(/(join|play|delete))?$");
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(HttpHeaders.CONNECTION,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.HOST);
+    private static final List<String> FORWARD_HEADERS = List.of(ForwardSignature.FORWARDED_BY_HEADER,
+            ForwardSignature.FORWARDED_AT_HEADER, ForwardSignature.SIGNATURE_HEADER);
+
+    private final ClusterMembership clusterMembership;
+    private final ForwardSignature forwardSignature;
+    private final WebClient webClient;
+    private final boolean forwarding;
+
+    public GameOwnershipFilter(ClusterMembership clusterMembership, ForwardSignature forwardSignature,
+                               WebClient.Builder webClientBuilder,
+                               @Value("${clusterForwarding:true}") boolean forwarding) {
+        if (!forwardSignature.hasSecret()) {
+            throw new IllegalStateException("clusterSecret is required when clusterEnabled=true");
+        }
+        this.clusterMembership = clusterMembership;
+        this.forwardSignature = forwardSignature;
+        this.webClient = webClientBuilder.build();
+        this.forwarding = forwarding;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (forwardSignature.isAuthentic(exchange)) return chain.filter(exchange);
+        if (FORWARD_HEADERS.stream().anyMatch(exchange.getRequest().getHeaders()::containsKey)) {
+            exchange = exchange.mutate()
+                    .request(request -> request.headers(headers -> FORWARD_HEADERS.forEach(headers::remove)))
+                    .build();
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        Matcher matcher = GAME_PATH.matcher(request.getPath().value());
+        if (!matcher.matches() || matcher.group(1).equals("new")) return chain.filter(exchange);
+        String owner = clusterMembership.remoteOwnerOf(matcher.group(1));
+        if (owner == null) return chain.filter(exchange);
+        URI ownerUri = ownerUri(owner, request.getURI());
+        return forwarding ? forward(exchange, owner, ownerUri) : redirect(exchange.getResponse(), owner, ownerUri);
+    }
+
+    //The body is read whole, as its digest is signed
+    private Mono<Void> forward(ServerWebExchange exchange, String owner, URI ownerUri) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        return CachedBodyRequest.cache(request).flatMap(cached -> forward(request, response, owner, ownerUri,
+                cached.getCachedBody()));
+    }
+
+    private Mono<Void> forward(ServerHttpRequest request, ServerHttpResponse response, String owner, URI ownerUri,
+                               byte[] body) {
+        WebClient.RequestBodySpec forwarded = webClient.method(request.getMethod())
+                .uri(ownerUri)
+                .headers(headers -> {
+                    headers.addAll(request.getHeaders());
+                    HOP_BY_HOP_HEADERS.forEach(headers::remove);
+                    forwardSignature.sign(headers, request.getMethod(), ownerUri, clusterMembership.getSelf(), body);
+                });
+        if (body.length > 0) forwarded.bodyValue(body);
+        return forwarded.exchangeToMono(ownerResponse -> {
+                    response.setStatusCode(ownerResponse.statusCode());
+                    response.getHeaders().addAll(ownerResponse.headers().asHttpHeaders());
+                    HOP_BY_HOP_HEADERS.forEach(response.getHeaders()::remove);
+                    response.getHeaders().set(OWNER_HEADER, owner);
+                    return response.writeWith(ownerResponse.bodyToFlux(DataBuffer.class));
+                })
+                .onErrorResume(WebClientRequestException.class, e -> {
+                    log.warn("Could not forward {} to {}", request.getPath(), owner, e);
+                    response.setStatusCode(HttpStatus.BAD_GATEWAY);
+                    response.getHeaders().set(OWNER_HEADER, owner);
+                    return response.setComplete();
+                });
+    }
+
+    private Mono<Void> redirect(ServerHttpResponse response, String owner, URI ownerUri) {
+        response.setStatusCode(HttpStatus.TEMPORARY_REDIRECT);
+        response.getHeaders().setLocation(ownerUri);
+        response.getHeaders().set(OWNER_HEADER, owner);
+        return response.setComplete();
+    }
+
+    private static URI ownerUri(String owner, URI requestUri) {
+        String query = requestUri.getRawQuery();
+        return URI.create(owner + requestUri.getRawPath() + (query == null ? "" : "?" + query));
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.cat.itacademy.s05.blackjack.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring of the cluster members. Each member is placed at virtualNodes points of a 64-bit ring and a key
+ * belongs to the member of the first point at or after the hash of the key, wrapping around. Adding or removing a
+ * member only moves the keys of the arcs that end at its points, about 1/n of them.
+ * <p>
+ * Members are sorted before being placed, so every node builds the same ring from the same list in any order.
+ */
+public final class HashRing {
+
+    private final List<String> members;
+    private final long[] points;
+    private final String[] owners;
+
+    public HashRing(List<String> members, int virtualNodes) {
+        this.members = members.stream().distinct().sorted().toList();
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String member : this.members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.putIfAbsent(hash(member + "#" + i), member);
+            }
+        }
+        points = new long[ring.size()];
+        owners = new String[ring.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> point : ring.entrySet()) {
+            points[i] = point.getKey();
+            owners[i++] = point.getValue();
+        }
+    }
+
+    //Null when the ring has no members
+    public String ownerOf(String key) {
+        if (points.length == 0) return null;
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) index = -index - 1;
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public List<String> getMembers() {
+        return members;
+    }
+
+    //FNV-1a spread with the murmur3 finalizer, so that ids differing in the last characters land far apart
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
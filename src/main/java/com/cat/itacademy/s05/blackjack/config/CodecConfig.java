@@ -0,0 +1,81 @@
+package com.cat.itacademy.s05.blackjack.config;
+
+import com.cat.itacademy.s05.blackjack.dto.CompactCardModule;
+import com.cat.itacademy.s05.blackjack.dto.gamedto.GameDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * Extra representations of the API for clients that care more about size than readability: CBOR for every body, and
+ * a compact JSON for games where each card is a two-character code.
+ * <p>
+ * The compact type ends in +json, which the default JSON encoder already accepts, so instead of a codec of its own
+ * the compact mapper is registered in that encoder for the game DTOs.
+ */
+@Configuration
+public class CodecConfig {
+
+    public static final String COMPACT_JSON_VALUE = "application/vnd.blackjack.compact+json";
+    public static final MediaType COMPACT_JSON = MediaType.parseMediaType(COMPACT_JSON_VALUE);
+
+    //After the customizer of Spring Boot, which sets the default JSON encoder
+    @Bean
+    @Order(1)
+    public CodecCustomizer compactAndBinaryCodecCustomizer(ObjectMapper objectMapper,
+                                                          Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper compactMapper = objectMapper.copy().registerModule(new CompactCardModule());
+        ObjectMapper cborMapper = builder.factory(new CBORFactory()).build();
+        return configurer -> {
+            Jackson2JsonEncoder jsonEncoder = new Jackson2JsonEncoder(objectMapper);
+            jsonEncoder.registerObjectMappersForType(GameDTO.class, mappers -> {
+                //Concrete types first, as a client that accepts anything gets the first one, but application/*+json
+                //after the compact type, as the mapper is the one of the first type matching the requested one
+                for (MimeType mimeType : jsonEncoder.getEncodableMimeTypes()) {
+                    if (!mimeType.isWildcardSubtype()) mappers.put(mimeType, objectMapper);
+                }
+                mappers.put(COMPACT_JSON, compactMapper);
+                for (MimeType mimeType : jsonEncoder.getEncodableMimeTypes()) mappers.putIfAbsent(mimeType, objectMapper);
+            });
+            configurer.defaultCodecs().jackson2JsonEncoder(jsonEncoder);
+            //Custom writers come before the default ones, so the JSON encoder is registered again ahead of CBOR
+            //for clients that accept anything
+            configurer.customCodecs().register(jsonEncoder);
+            configurer.customCodecs().register(new CborValueEncoder(cborMapper));
+            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+        };
+    }
+
+    //The CBOR encoder of Spring rejects any publisher, even the Mono of a single body; each value is encoded on its own
+    private static class CborValueEncoder extends Jackson2CborEncoder {
+
+        CborValueEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            return Flux.from(inputStream)
+                    .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints));
+        }
+
+    }
+
+}
@@ -12,6 +12,12 @@ public class Properties {
     @Value("${simultaneousBetsAllowed:3}")
     private int simultaneousBetsAllowed;
 
+    @Value("${turnTimeoutSeconds:0}")
+    private int turnTimeoutSeconds;
+
+    @Value("${betTimeoutSeconds:0}")
+    private int betTimeoutSeconds;
+
     public int getPlayingPositions() {
         if (playingPositions >= 1 && playingPositions <= 9) return playingPositions;
         return 1;
@@ -22,4 +28,12 @@ public class Properties {
         return 3;
     }
 
+    public long getTurnTimeoutMillis() {
+        return Math.max(turnTimeoutSeconds, 0) * 1000L;
+    }
+
+    public long getBetTimeoutMillis() {
+        return Math.max(betTimeoutSeconds, 0) * 1000L;
+    }
+
 }
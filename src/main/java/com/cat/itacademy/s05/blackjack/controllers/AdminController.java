@@ -0,0 +1,103 @@
+package com.cat.itacademy.s05.blackjack.controllers;
+
+import com.cat.itacademy.s05.blackjack.cluster.ClusterMembership;
+import com.cat.itacademy.s05.blackjack.dto.ClusterDTO;
+import com.cat.itacademy.s05.blackjack.dto.HouseSnapshotDTO;
+import com.cat.itacademy.s05.blackjack.metrics.HouseMetrics;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Tag(name = "Admin", description = "Endpoints for operating the casino, which require the adminToken as a bearer token")
+@RestController
+public class AdminController {
+
+    private final HouseMetrics houseMetrics;
+    private final ClusterMembership clusterMembership;
+
+    public AdminController(HouseMetrics houseMetrics, ClusterMembership clusterMembership) {
+        this.houseMetrics = houseMetrics;
+        this.clusterMembership = clusterMembership;
+    }
+
+    @Operation(
+            summary = "Get the house money flow",
+            description = "Get the result of the house, the money wagered and paid, and the money not settled yet on " +
+                    "each table, as counted by this instance since it started.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Snapshot of the house", content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = HouseSnapshotDTO.class)
+                    ))
+            }
+    )
+    @GetMapping("/admin/house")
+    public Mono<ResponseEntity<HouseSnapshotDTO>> getHouseSnapshot(){
+        return Mono.fromCallable(houseMetrics::snapshot)
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(
+            summary = "Get the cluster members",
+            description = "Get the nodes among which this node distributes the games.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Members of the cluster", content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ClusterDTO.class)
+                    ))
+            }
+    )
+    @GetMapping("/admin/cluster")
+    public Mono<ResponseEntity<ClusterDTO>> getCluster(){
+        return Mono.fromCallable(this::clusterDTO)
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(
+            summary = "Change the cluster members",
+            description = "Replace the nodes among which this node distributes the games. Every member must be given " +
+                    "the same list; games whose owner changes are served by the new owner from then on.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Members changed", content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ClusterDTO.class)
+                    ))
+            }
+    )
+    @PutMapping("/admin/cluster/members")
+    public Mono<ResponseEntity<ClusterDTO>> changeClusterMembers(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Base URLs of the members",
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = String.class)),
+                            examples = @ExampleObject(
+                                    name = "Two members",
+                                    value = "[\"http://10.0.0.1:8080\", \"http://10.0.0.2:8080\"]"
+                            )))
+            @RequestBody List<String> members){
+        return Mono.fromCallable(() -> {
+                    clusterMembership.changeMembers(members);
+                    return clusterDTO();
+                })
+                .map(ResponseEntity::ok);
+    }
+
+    private ClusterDTO clusterDTO() {
+        return new ClusterDTO(clusterMembership.isEnabled(), clusterMembership.getSelf(), clusterMembership.getMembers());
+    }
+
+}
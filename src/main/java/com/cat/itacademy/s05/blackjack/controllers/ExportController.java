@@ -0,0 +1,70 @@
+package com.cat.itacademy.s05.blackjack.controllers;
+
+import com.cat.itacademy.s05.blackjack.dto.export.HandDTO;
+import com.cat.itacademy.s05.blackjack.services.HandExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+@Tag(name = "Export", description = "Endpoints for exporting game results")
+@RestController
+public class ExportController {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final HandExportService handExportService;
+
+    public ExportController(HandExportService handExportService) {
+        this.handExportService = handExportService;
+    }
+
+    @Operation(
+            summary = "Export hand history",
+            description = "Stream one line per seat of every game concluded between 'from' (included) and 'to' " +
+                    "(excluded), in the order the games were concluded.\n" +
+                    "Lines are newline-delimited JSON, or CSV with a header row when the request accepts text/csv.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Hands exported", content = {
+                            @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = HandDTO.class)),
+                            @Content(mediaType = "text/csv", examples = @ExampleObject(
+                                    name = "CSV export",
+                                    value = HandDTO.CSV_HEADER + "673b4e77d181ca65a6f436b9,2024-11-18T10:15:30Z," +
+                                            "673f22257b21b20c20d0d290,\"John Doe\",20,WIN,TEN:HEARTS NINE:CLUBS," +
+                                            "SEVEN:SPADES KING:DIAMONDS"
+                            ))}),
+                    @ApiResponse(responseCode = "400", description = "Invalid time range", content = @Content(
+                            mediaType = "text/plain",
+                            examples = @ExampleObject(
+                                    name = "Invalid time range",
+                                    value = "'from' must be before 'to'"
+                            )))
+            }
+    )
+    @GetMapping(value = "/export/hands", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<HandDTO> exportHands(
+            @Parameter(description = "Start of the period, the beginning of time if not given", example = "2024-11-01T00:00:00Z")
+            @RequestParam(required = false) Instant from,
+            @Parameter(description = "End of the period, now if not given", example = "2024-12-01T00:00:00Z")
+            @RequestParam(required = false) Instant to){
+        return handExportService.exportHands(from, to);
+    }
+
+    @Operation(hidden = true)
+    @GetMapping(value = "/export/hands", produces = TEXT_CSV_VALUE)
+    public Flux<String> exportHandsAsCsv(@RequestParam(required = false) Instant from,
+                                         @RequestParam(required = false) Instant to){
+        return handExportService.exportHandsAsCsv(from, to);
+    }
+
+}
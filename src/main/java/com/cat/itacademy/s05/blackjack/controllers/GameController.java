@@ -1,9 +1,12 @@
 package com.cat.itacademy.s05.blackjack.controllers;
 
+import com.cat.itacademy.s05.blackjack.config.CodecConfig;
 import com.cat.itacademy.s05.blackjack.dto.gamedto.GameCompletedDTO;
 import com.cat.itacademy.s05.blackjack.dto.gamedto.GameDTO;
 import com.cat.itacademy.s05.blackjack.dto.PlayDTO;
 import com.cat.itacademy.s05.blackjack.dto.gamedto.GameInProgressDTO;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.repositories.GameSearch;
 import com.cat.itacademy.s05.blackjack.services.GameService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,8 +16,10 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Tag(name = "Game Management", description = "Endpoints for managing games")
@@ -113,12 +118,22 @@ public class GameController {
 
     @Operation(
             summary = "Get details of a game",
-            description = "Get the details of a blackjack game.",
+            description = "Get the details of a blackjack game.\n" +
+                    "Besides JSON, the game can be requested as CBOR, or as compact JSON where each card is a " +
+                    "two-character code of rank and suit (KS, TH, 2C) and the croupier's hidden card is XX.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Game found", content = @Content(
-                            mediaType = "application/json",
-                            schema = @Schema(oneOf = {GameCompletedDTO.class, GameInProgressDTO.class})
-                    )),
+                    @ApiResponse(responseCode = "200", description = "Game found", content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(oneOf = {GameCompletedDTO.class, GameInProgressDTO.class})),
+                            @Content(mediaType = "application/cbor",
+                                    schema = @Schema(oneOf = {GameCompletedDTO.class, GameInProgressDTO.class})),
+                            @Content(mediaType = CodecConfig.COMPACT_JSON_VALUE, examples = @ExampleObject(
+                                    name = "Compact game",
+                                    value = "{\"gameId\":\"673b4e77d181ca65a6f436b9\",\"croupier\":{\"cards\":[\"KS\",\"XX\"]}," +
+                                            "\"players\":[{\"id\":\"673f22257b21b20c20d0d290\",\"name\":\"John Doe\"," +
+                                            "\"bet\":20,\"cards\":[\"TC\",\"7D\"],\"status\":\"PLAYING\"}]," +
+                                            "\"activePlayerIndex\":0}"
+                            ))}),
                     @ApiResponse(responseCode = "404", description = "Game not found", content = @Content(
                             mediaType = "text/plain",
                             examples =
@@ -136,6 +151,39 @@ public class GameController {
                 .map(ResponseEntity::ok);
     }
 
+    @Operation(
+            summary = "Search games",
+            description = "Search games by player, seat status and whether they are concluded, oldest first.\n" +
+                    "Games are streamed as newline-delimited JSON. For the next page, repeat the search with 'after' " +
+                    "set to the id of the last game received.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Games found", content = @Content(
+                            mediaType = "application/x-ndjson",
+                            schema = @Schema(oneOf = {GameCompletedDTO.class, GameInProgressDTO.class})
+                    )),
+                    @ApiResponse(responseCode = "400", description = "Invalid page cursor", content = @Content(
+                            mediaType = "text/plain",
+                            examples = @ExampleObject(
+                                    name = "Invalid cursor",
+                                    value = "Not a game id: 42"
+                            )))
+            }
+    )
+    @GetMapping(value = "/games", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<GameDTO> searchGames(
+            @Parameter(description = "Only games where this player is seated", example = "673f22257b21b20c20d0d290")
+            @RequestParam(required = false) String playerId,
+            @Parameter(description = "Only games with a seat in this status, the seat of playerId if given", example = "PLAYING")
+            @RequestParam(required = false) PlayerStatus status,
+            @Parameter(description = "Only concluded or only unconcluded games", example = "false")
+            @RequestParam(required = false) Boolean concluded,
+            @Parameter(description = "Id of the last game of the previous page", example = "673b4d48e52179685109a141")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Maximum number of games, up to 500", example = "50")
+            @RequestParam(defaultValue = "50") int limit){
+        return gameService.searchGames(new GameSearch(playerId, status, concluded, after, limit));
+    }
+
     @Operation(
             summary = "Make a play",
             description = "Make a play in an existing blackjack game.",
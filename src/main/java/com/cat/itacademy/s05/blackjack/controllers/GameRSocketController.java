@@ -0,0 +1,47 @@
+package com.cat.itacademy.s05.blackjack.controllers;
+
+import com.cat.itacademy.s05.blackjack.cluster.ClusterMembership;
+import com.cat.itacademy.s05.blackjack.dto.PlayDTO;
+import com.cat.itacademy.s05.blackjack.dto.PlayUpdateDTO;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.GameNotFoundException;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.GameNotOwnedException;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.InvalidPlayException;
+import com.cat.itacademy.s05.blackjack.services.GameService;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * RSocket counterpart of the plays of {@link GameController}, for clients that play many hands per second. A client
+ * opens one request-channel per game and keeps it open: plays go in, and the state of the game after each play comes
+ * back, with the demand of each side propagated to the other by the channel.
+ * <p>
+ * Plays are executed one at a time in the order they arrive. A rejected play is answered with its reason and the
+ * channel stays open; any other error closes it. In a cluster, a channel opened on a node that doesn't own the game is
+ * refused with the URL of the owner.
+ */
+@Controller
+public class GameRSocketController {
+
+    private final GameService gameService;
+    private final ClusterMembership clusterMembership;
+
+    public GameRSocketController(GameService gameService, ClusterMembership clusterMembership) {
+        this.gameService = gameService;
+        this.clusterMembership = clusterMembership;
+    }
+
+    @MessageMapping("game.{gameId}.plays")
+    public Flux<PlayUpdateDTO> play(@DestinationVariable String gameId, Flux<PlayDTO> plays) {
+        String owner = clusterMembership.remoteOwnerOf(gameId);
+        if (owner != null) return Flux.error(new GameNotOwnedException("Game " + gameId + " is owned by " + owner));
+        return plays.concatMap(play -> gameService.executePlay(gameId, play)
+                .then(gameService.getGameDTO(gameId))
+                .map(PlayUpdateDTO::executed)
+                .onErrorResume(e -> e instanceof InvalidPlayException || e instanceof GameNotFoundException,
+                        e -> Mono.just(PlayUpdateDTO.rejected(e.getMessage()))));
+    }
+
+}
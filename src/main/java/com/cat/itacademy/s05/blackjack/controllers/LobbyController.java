@@ -0,0 +1,88 @@
+package com.cat.itacademy.s05.blackjack.controllers;
+
+import com.cat.itacademy.s05.blackjack.dto.lobby.LobbyEventDTO;
+import com.cat.itacademy.s05.blackjack.dto.lobby.LobbyTableDTO;
+import com.cat.itacademy.s05.blackjack.services.GameService;
+import com.cat.itacademy.s05.blackjack.services.LobbyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Tag(name = "Lobby", description = "Endpoints for finding games to join")
+@RestController
+public class LobbyController {
+
+    private final LobbyService lobbyService;
+    private final GameService gameService;
+
+    public LobbyController(LobbyService lobbyService, GameService gameService) {
+        this.lobbyService = lobbyService;
+        this.gameService = gameService;
+    }
+
+    @Operation(
+            summary = "Get open games",
+            description = "Get the list of games that can still be joined, starting with the ones with fewer free seats.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "List of open games", content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = LobbyTableDTO.class))
+                    ))
+            }
+    )
+    @GetMapping("/lobby")
+    public Mono<ResponseEntity<List<LobbyTableDTO>>> getOpenTables(){
+        return Mono.fromCallable(lobbyService::getOpenTables)
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(
+            summary = "Join any open game",
+            description = "Adds the player specified in the request body to the open game with fewer free seats.\n" +
+                    "If no open game accepts the player, a new game is created.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Player added", content = @Content(
+                            mediaType = "text/plain",
+                            examples = @ExampleObject(
+                                    name = "example response",
+                                    value = "Player joined game with id: 673b4e77d181ca65a6f436b9"
+                            )))
+            }
+    )
+    @PostMapping("/lobby/quick-join")
+    public Mono<ResponseEntity<String>> quickJoin(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Name of the player to include in the game",
+                    required = true,
+                    content = @Content(
+                            mediaType = "text/plain",
+                            examples = @ExampleObject(
+                                    name = "Player name",
+                                    value = "John Doe"
+                            )))
+            @RequestBody String playerName){
+        return gameService.quickJoinGame(playerName)
+                .map(gameId -> ResponseEntity.ok("Player joined game with id: " + gameId));
+    }
+
+    @Operation(
+            summary = "Follow lobby changes",
+            description = "Server-sent events stream with every game that opens, changes its free seats or closes."
+    )
+    @GetMapping(value = "/lobby/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<LobbyEventDTO> getLobbyEvents(){
+        return lobbyService.getEvents();
+    }
+
+}
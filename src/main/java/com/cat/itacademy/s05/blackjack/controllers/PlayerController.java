@@ -1,8 +1,11 @@
 package com.cat.itacademy.s05.blackjack.controllers;
 
+import com.cat.itacademy.s05.blackjack.exceptions.custom.PlayerNotFoundException;
 import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.PlayerStats;
 import com.cat.itacademy.s05.blackjack.services.GameService;
 import com.cat.itacademy.s05.blackjack.services.PlayerService;
+import com.cat.itacademy.s05.blackjack.services.PlayerStatsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -23,10 +26,13 @@ public class PlayerController {
 
     private final PlayerService playerService;
     private final GameService gameService;
+    private final PlayerStatsService playerStatsService;
 
-    public PlayerController(PlayerService playerService, GameService gameService) {
+    public PlayerController(PlayerService playerService, GameService gameService,
+                            PlayerStatsService playerStatsService) {
         this.playerService = playerService;
         this.gameService = gameService;
+        this.playerStatsService = playerStatsService;
     }
 
     @Operation(
@@ -58,6 +64,12 @@ public class PlayerController {
                             examples = @ExampleObject(
                                     name = "Player not found",
                                     value = "No player found with id: 674487950b80db2bc72ea574"
+                            ))),
+                    @ApiResponse(responseCode = "409", description = "Name taken", content = @Content(
+                            mediaType = "text/plain",
+                            examples = @ExampleObject(
+                                    name = "Name taken",
+                                    value = "The name John Doe is already in use by another player."
                             )))
             }
     )
@@ -80,4 +92,30 @@ public class PlayerController {
                 .map(ResponseEntity::ok);
     }
 
+    @Operation(
+            summary = "Get a player's stats",
+            description = "Get the hands, results and net winnings of a player over all the games played.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Stats of the player", content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = PlayerStats.class)
+                    )),
+                    @ApiResponse(responseCode = "404", description = "Player not found", content = @Content(
+                            mediaType = "text/plain",
+                            examples = @ExampleObject(
+                                    name = "Player not found",
+                                    value = "No player found with id: 674487950b80db2bc72ea574"
+                            )))
+            }
+    )
+    @GetMapping("/player/{playerId}/stats")
+    public Mono<ResponseEntity<PlayerStats>> getPlayerStats(
+            @Parameter(description = "Id of the player", example = "673f22257b21b20c20d0d290")
+            @PathVariable String playerId){
+        return playerService.getPlayerById(playerId)
+                .switchIfEmpty(Mono.error(new PlayerNotFoundException("No player found with id: " + playerId)))
+                .then(playerStatsService.getStats(playerId))
+                .map(ResponseEntity::ok);
+    }
+
 }
@@ -0,0 +1,18 @@
+package com.cat.itacademy.s05.blackjack.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "Cluster", description = "Data object representing the members of the cluster as seen by a node")
+public record ClusterDTO(
+        @Schema(description = "Whether games are distributed among the members", example = "true")
+        boolean enabled,
+
+        @Schema(description = "Base URL of the node answering", example = "http://10.0.0.1:8080")
+        String self,
+
+        @ArraySchema(schema = @Schema(description = "Base URLs of the members", example = "http://10.0.0.1:8080"))
+        List<String> members
+) {}
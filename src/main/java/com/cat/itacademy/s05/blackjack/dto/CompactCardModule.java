@@ -0,0 +1,43 @@
+package com.cat.itacademy.s05.blackjack.dto;
+
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes cards as their two-character code (KS, TH, 2C...) instead of a suit and rank object, and the croupier's
+ * hidden card as XX.
+ */
+public class CompactCardModule extends SimpleModule {
+
+    public static final String HIDDEN_CARD_CODE = "XX";
+
+    public CompactCardModule() {
+        super("CompactCardModule");
+        addSerializer(new StdSerializer<>(Card.class) {
+            @Override
+            public void serialize(Card card, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                generator.writeString(card.toCode());
+            }
+        });
+        addSerializer(new StdSerializer<>(VisibleCardDTO.class) {
+            @Override
+            public void serialize(VisibleCardDTO card, JsonGenerator generator, SerializerProvider provider)
+                    throws IOException {
+                generator.writeString(new Card(card.suit(), card.rank()).toCode());
+            }
+        });
+        addSerializer(new StdSerializer<>(HiddenCardDTO.class) {
+            @Override
+            public void serialize(HiddenCardDTO card, JsonGenerator generator, SerializerProvider provider)
+                    throws IOException {
+                generator.writeString(HIDDEN_CARD_CODE);
+            }
+        });
+    }
+
+}
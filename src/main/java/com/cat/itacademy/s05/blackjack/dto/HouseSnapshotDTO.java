@@ -0,0 +1,23 @@
+package com.cat.itacademy.s05.blackjack.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+@Schema(name = "HouseSnapshot", description = "Data object representing the money flow of the house at a point in time")
+public record HouseSnapshotDTO(
+        @Schema(description = "Money won by the house minus the money paid to players", example = "1250")
+        long result,
+
+        @Schema(description = "Money taken from players by bets, doubles and splits", example = "48000")
+        long wagered,
+
+        @Schema(description = "Money returned to players by settlement", example = "46150")
+        long paidOut,
+
+        @Schema(description = "Money bet on tables not settled yet", example = "600")
+        long outstandingBets,
+
+        @Schema(description = "Money not settled yet by id of the game", example = "{\"673b4e77d181ca65a6f436b9\": 60}")
+        Map<String, Long> tableExposure
+) {}
@@ -0,0 +1,24 @@
+package com.cat.itacademy.s05.blackjack.dto;
+
+import com.cat.itacademy.s05.blackjack.dto.gamedto.GameDTO;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "PlayUpdate", description = "Data object representing the outcome of a play sent over RSocket")
+public record PlayUpdateDTO(
+        @Schema(description = "State of the game after the play, null when the play is rejected")
+        GameDTO game,
+
+        @Schema(description = "Reason the play was rejected, null when it was executed",
+                example = "It's the turn of the player with id: 673f22257b21b20c20d0d290")
+        String error
+) {
+
+    public static PlayUpdateDTO executed(GameDTO game) {
+        return new PlayUpdateDTO(game, null);
+    }
+
+    public static PlayUpdateDTO rejected(String error) {
+        return new PlayUpdateDTO(null, error);
+    }
+
+}
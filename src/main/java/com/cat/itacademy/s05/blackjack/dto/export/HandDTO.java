@@ -0,0 +1,83 @@
+package com.cat.itacademy.s05.blackjack.dto.export;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(name = "Hand", description = "Data object representing the result of one seat of a concluded game")
+public record HandDTO(
+        @Schema(description = "Id of the game", example = "673b4e77d181ca65a6f436b9")
+        String gameId,
+
+        @Schema(description = "Time the game was concluded", example = "2024-11-18T10:15:30Z")
+        Instant concludedAt,
+
+        @Schema(description = "Id of the player", example = "673f22257b21b20c20d0d290")
+        String playerId,
+
+        @Schema(description = "Name of the player", example = "John Doe")
+        String playerName,
+
+        @Schema(description = "Amount bet by the player", example = "20")
+        int bet,
+
+        @Schema(description = "Final status of the player", examples = {"SURRENDER", "BLACKJACK", "BUST", "TIE", "WIN", "LOOSE"})
+        PlayerStatus status,
+
+        @ArraySchema(schema = @Schema(description = "Cards of the player", implementation = Card.class))
+        List<Card> cards,
+
+        @ArraySchema(schema = @Schema(description = "Cards of the croupier", implementation = Card.class))
+        List<Card> croupierCards
+) {
+
+    public static final String CSV_HEADER = "gameId,concludedAt,playerId,playerName,bet,status,cards,croupierCards\n";
+
+    public static List<HandDTO> fromGame(Game game) {
+        List<HandDTO> hands = new ArrayList<>(game.getPlayers().size());
+        for (PlayerInGame player : game.getPlayers()) {
+            hands.add(new HandDTO(game.getId(), game.getLastModified(), player.getId(), player.getName(),
+                    player.getBet(), player.getStatus(), player.getCards(), game.getCroupier().getCards()));
+        }
+        return hands;
+    }
+
+    //Cards as RANK:SUIT separated by spaces, f.e. "ACE:SPADES TEN:HEARTS"
+    public String toCsvLine() {
+        StringBuilder line = new StringBuilder(160)
+                .append(gameId).append(',')
+                .append(concludedAt == null ? "" : concludedAt.toString()).append(',')
+                .append(playerId).append(',');
+        appendQuoted(line, playerName);
+        line.append(',').append(bet).append(',').append(status).append(',');
+        appendCards(line, cards);
+        line.append(',');
+        appendCards(line, croupierCards);
+        return line.append('\n').toString();
+    }
+
+    private static void appendQuoted(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static void appendCards(StringBuilder line, List<Card> cards) {
+        for (int i = 0; i < cards.size(); i++) {
+            if (i > 0) line.append(' ');
+            line.append(cards.get(i).rank()).append(':').append(cards.get(i).suit());
+        }
+    }
+
+}
@@ -1,4 +1,11 @@
 package com.cat.itacademy.s05.blackjack.dto.gamedto;
 
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+
+import java.util.List;
+
 public interface GameDTO {
+
+    List<PlayerInGame> getPlayers();
+
 }
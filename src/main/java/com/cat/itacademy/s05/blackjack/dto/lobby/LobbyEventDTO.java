@@ -0,0 +1,21 @@
+package com.cat.itacademy.s05.blackjack.dto.lobby;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "LobbyEvent", description = "Data object representing a change in the lobby")
+public record LobbyEventDTO(
+        @Schema(description = "Type of change", examples = {"OPENED", "UPDATED", "CLOSED"})
+        Type type,
+
+        @Schema(description = "Id of the game", example = "673b4e77d181ca65a6f436b9")
+        String gameId,
+
+        @Schema(description = "Number of free playing positions, 0 when the game is closed", example = "3")
+        int freeSeats
+) {
+
+    public enum Type {
+        OPENED, UPDATED, CLOSED
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.cat.itacademy.s05.blackjack.dto.lobby;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "LobbyTable", description = "Data object representing a game that can still be joined")
+public record LobbyTableDTO(
+        @Schema(description = "Id of the game", example = "673b4e77d181ca65a6f436b9")
+        String gameId,
+
+        @Schema(description = "Number of players already seated", example = "2")
+        int seatedPlayers,
+
+        @Schema(description = "Number of free playing positions", example = "3")
+        int freeSeats
+) {}
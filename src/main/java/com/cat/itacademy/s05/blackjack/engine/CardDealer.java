@@ -0,0 +1,16 @@
+package com.cat.itacademy.s05.blackjack.engine;
+
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Deck;
+
+import java.util.List;
+
+/**
+ * Moves a card from the deck to a hand.
+ */
+@FunctionalInterface
+public interface CardDealer {
+
+    void dealCard(Deck deck, List<Card> cards);
+
+}
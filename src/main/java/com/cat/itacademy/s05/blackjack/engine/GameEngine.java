@@ -0,0 +1,193 @@
+package com.cat.itacademy.s05.blackjack.engine;
+
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+
+import java.util.List;
+
+/**
+ * Rules of a blackjack table as plain synchronous code: which plays each seat status accepts, what they do to the
+ * game, dealing and the croupier's hand. It doesn't touch money or storage; invalid plays are reported as a
+ * {@link PlayResult} instead of thrown, and leave the game as it was.
+ */
+public class GameEngine {
+
+    //Result of each play for each status of the active seat, null when the play is accepted
+    private static final PlayResult[][] TRANSITIONS = new PlayResult[PlayerStatus.values().length][Play.values().length];
+
+    static {
+        for (PlayerStatus status : PlayerStatus.values()) {
+            for (Play play : Play.values()) {
+                TRANSITIONS[status.ordinal()][play.ordinal()] = switch (status) {
+                    case PENDING_BET -> play == Play.INITIAL_BET ? null : PlayResult.BET_REQUIRED;
+                    case WAITING_FOR_DEAL -> play == Play.INITIAL_BET ? PlayResult.ALREADY_BET : PlayResult.WAITING_FOR_DEAL;
+                    case PLAYING -> play == Play.INITIAL_BET ? PlayResult.ALREADY_BET : null;
+                    default -> play == Play.INITIAL_BET ? PlayResult.ALREADY_BET : PlayResult.HAND_OVER;
+                };
+            }
+        }
+    }
+
+    private final HandRules rules;
+    private final CardDealer dealer;
+
+    public GameEngine(HandRules rules, CardDealer dealer) {
+        this.rules = rules;
+        this.dealer = dealer;
+    }
+
+    public PlayResult play(Game game, String playerId, Play play, int bet) {
+        PlayResult result = validate(game, playerId, play, bet);
+        if (result != PlayResult.OK) return result;
+        switch (play) {
+            case INITIAL_BET -> playInitialBet(game, bet);
+            case HIT -> playHit(game);
+            case DOUBLE -> playDouble(game);
+            case SPLIT -> playSplit(game);
+            case STAND -> game.getActivePlayer().setStatus(PlayerStatus.STAND);
+            case SURRENDER -> game.getActivePlayer().setStatus(PlayerStatus.SURRENDER);
+        }
+        if (allPassed(game)) {
+            game.setConcluded(true);
+        } else {
+            switchToNextActivePlayer(game);
+        }
+        return PlayResult.OK;
+    }
+
+    //Money the player puts on the table with a play, given the bet of the seat before it
+    public static int getStake(Play play, int bet, int seatBet) {
+        return switch (play) {
+            case INITIAL_BET -> bet;
+            case DOUBLE, SPLIT -> seatBet;
+            default -> 0;
+        };
+    }
+
+    public PlayResult removeActivePlayer(Game game) {
+        if (game.getActivePlayer().getStatus() != PlayerStatus.PENDING_BET) return PlayResult.NOT_PENDING_BET;
+        game.getPlayers().remove(game.getActivePlayerIndex());
+        if (game.getPlayers().isEmpty()) {
+            game.setActivePlayerIndex(0);
+            game.setConcluded(true);
+            return PlayResult.OK;
+        }
+        if (game.getActivePlayerIndex() >= game.getPlayers().size()) game.setActivePlayerIndex(0);
+        if (allWaitingForDeal(game)) {
+            game.setActivePlayerIndex(0);
+            dealCards(game);
+        }
+        return PlayResult.OK;
+    }
+
+    public void resolveCroupierHand(Game game, boolean soft17ForcedDraw) {
+        List<Card> croupiersHand = game.getCroupier().getCards();
+        while (rules.getHandValue(croupiersHand) < 17 || (soft17ForcedDraw && rules.isSoft17(croupiersHand))) {
+            dealer.dealCard(game.getDeck(), croupiersHand);
+        }
+    }
+
+    private PlayResult validate(Game game, String playerId, Play play, int bet) {
+        if (game.isConcluded()) return PlayResult.GAME_OVER;
+        PlayerInGame activePlayer = game.getActivePlayer();
+        if (!activePlayer.getId().equals(playerId)) return PlayResult.NOT_YOUR_TURN;
+        PlayResult transition = TRANSITIONS[activePlayer.getStatus().ordinal()][play.ordinal()];
+        if (transition == PlayResult.BET_REQUIRED) return transition;
+        if (play == Play.INITIAL_BET && bet <= 0) return PlayResult.INVALID_BET;
+        if (transition != null) return transition;
+        List<Card> cards = activePlayer.getCards();
+        return switch (play) {
+            case DOUBLE -> cards.size() > 2 ? PlayResult.DOUBLE_NOT_ALLOWED : PlayResult.OK;
+            case SPLIT -> {
+                if (cards.size() > 2) yield PlayResult.SPLIT_NOT_ALLOWED;
+                yield cards.get(0).rank() != cards.get(1).rank() ? PlayResult.SPLIT_DIFFERENT_RANK : PlayResult.OK;
+            }
+            case SURRENDER -> cards.size() > 2 ? PlayResult.SURRENDER_NOT_ALLOWED : PlayResult.OK;
+            default -> PlayResult.OK;
+        };
+    }
+
+    //TODO limit bets to specific amounts?
+    private void playInitialBet(Game game, int bet) {
+        PlayerInGame player = game.getActivePlayer();
+        player.setBet(bet);
+        player.setStatus(PlayerStatus.WAITING_FOR_DEAL);
+        if (allWaitingForDeal(game)) dealCards(game);
+    }
+
+    private void playHit(Game game) {
+        PlayerInGame player = game.getActivePlayer();
+        dealer.dealCard(game.getDeck(), player.getCards());
+        if (rules.isBust(player.getCards())) {
+            player.setStatus(PlayerStatus.BUST);
+        } if (rules.getHandValue(player.getCards()) == 21) {
+            player.setStatus(PlayerStatus.STAND);
+        }
+    }
+
+    private void playDouble(Game game) {
+        PlayerInGame player = game.getActivePlayer();
+        player.setBet(player.getBet() * 2);
+        dealer.dealCard(game.getDeck(), player.getCards());
+        player.setStatus(rules.isBust(player.getCards()) ? PlayerStatus.BUST : PlayerStatus.STAND);
+    }
+
+    //TODO cards with the same value (f.e. King, Queen) should allow split?
+    private void playSplit(Game game) {
+        PlayerInGame player = game.getActivePlayer();
+        PlayerInGame splitPlayer = new PlayerInGame(player.getId(), player.getName());
+        game.getPlayers().add(game.getActivePlayerIndex() + 1, splitPlayer);
+        splitPlayer.setBet(player.getBet());
+        splitPlayer.setStatus(PlayerStatus.PLAYING);
+        splitPlayer.getCards().add(player.getCards().removeLast());
+        dealer.dealCard(game.getDeck(), player.getCards());
+        dealer.dealCard(game.getDeck(), splitPlayer.getCards());
+        switchToNextActivePlayer(game);
+    }
+
+    private void dealCards(Game game) {
+        dealer.dealCard(game.getDeck(), game.getCroupier().getCards());
+        dealer.dealCard(game.getDeck(), game.getCroupier().getCards());
+        List<PlayerInGame> players = game.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            PlayerInGame player = players.get(i);
+            dealer.dealCard(game.getDeck(), player.getCards());
+            dealer.dealCard(game.getDeck(), player.getCards());
+            player.setStatus(PlayerStatus.PLAYING);
+        }
+    }
+
+    private static boolean allPassed(Game game) {
+        List<PlayerInGame> players = game.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            if (isInPlay(players.get(i).getStatus())) return false;
+        }
+        return true;
+    }
+
+    private static boolean allWaitingForDeal(Game game) {
+        List<PlayerInGame> players = game.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i).getStatus() != PlayerStatus.WAITING_FOR_DEAL) return false;
+        }
+        return true;
+    }
+
+    private static void switchToNextActivePlayer(Game game) {
+        int size = game.getPlayers().size();
+        int index = game.getActivePlayerIndex();
+        do {
+            index = index + 1 >= size ? 0 : index + 1;
+        } while (!isInPlay(game.getPlayers().get(index).getStatus()));
+        game.setActivePlayerIndex(index);
+    }
+
+    private static boolean isInPlay(PlayerStatus status) {
+        return status == PlayerStatus.PENDING_BET || status == PlayerStatus.WAITING_FOR_DEAL
+                || status == PlayerStatus.PLAYING;
+    }
+
+}
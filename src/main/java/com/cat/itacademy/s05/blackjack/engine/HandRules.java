@@ -0,0 +1,28 @@
+package com.cat.itacademy.s05.blackjack.engine;
+
+import com.cat.itacademy.s05.blackjack.model.Card;
+
+import java.util.List;
+
+/**
+ * Hand evaluation and payouts the engine plays by.
+ */
+public interface HandRules {
+
+    int getHandValue(List<Card> cards);
+
+    boolean isBlackjack(List<Card> cards);
+
+    boolean isBust(List<Card> cards);
+
+    boolean isSoft17(List<Card> cards);
+
+    int getSurrenderPayout(int bet);
+
+    int getBlackjackPayout(int bet);
+
+    int getTiePayout(int bet);
+
+    int getWinPayout(int bet);
+
+}
@@ -0,0 +1,31 @@
+package com.cat.itacademy.s05.blackjack.engine;
+
+import lombok.Getter;
+
+/**
+ * Outcome of a play. Anything but OK leaves the game untouched; the message may hold a %s for the id of the active
+ * player.
+ */
+@Getter
+public enum PlayResult {
+    OK(""),
+    GAME_OVER("Game is over, no more plays accepted."),
+    NOT_YOUR_TURN("It's the turn of the player with id: %s"),
+    BET_REQUIRED("Player has no bet. First play must be 'INITIAL_BET'."),
+    INVALID_BET("Initial bet play must have a valid bet."),
+    ALREADY_BET("'INITIAL_BET' is an invalid play: player already has a bet."),
+    WAITING_FOR_DEAL("Player is waiting for the cards to be dealt."),
+    HAND_OVER("Player's hand is over, no more plays accepted."),
+    DOUBLE_NOT_ALLOWED("Double is only allowed immediately after the initial deal."),
+    SPLIT_NOT_ALLOWED("Split is only allowed immediately after the initial deal."),
+    SPLIT_DIFFERENT_RANK("Split is only allowed if the two cards have the same rank."),
+    SURRENDER_NOT_ALLOWED("Surrender is only allowed immediately after the initial deal."),
+    NOT_PENDING_BET("Only players without a bet can be removed from the game.");
+
+    private final String message;
+
+    PlayResult(String message) {
+        this.message = message;
+    }
+
+}
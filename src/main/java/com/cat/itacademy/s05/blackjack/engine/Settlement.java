@@ -0,0 +1,42 @@
+package com.cat.itacademy.s05.blackjack.engine;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+
+/**
+ * Outcome and payout of each seat once the croupier's hand is resolved.
+ */
+public class Settlement {
+
+    private final HandRules rules;
+
+    public Settlement(HandRules rules) {
+        this.rules = rules;
+    }
+
+    //Null when the hand doesn't fit any outcome, which a consistent game never produces
+    public PlayerStatus getFinalStatus(PlayerInGame player, boolean croupierHasBlackjack, int croupierScore) {
+        if (player.getStatus() == PlayerStatus.SURRENDER) return PlayerStatus.SURRENDER;
+        boolean playerHasBlackjack = rules.isBlackjack(player.getCards());
+        if (playerHasBlackjack && !croupierHasBlackjack) return PlayerStatus.BLACKJACK;
+        if (player.getStatus() == PlayerStatus.BUST || rules.isBust(player.getCards())) return PlayerStatus.LOOSE;
+        int playerScore = rules.getHandValue(player.getCards());
+        if (croupierScore > 21 || playerScore > croupierScore) return PlayerStatus.WIN;
+        if ((croupierHasBlackjack && !playerHasBlackjack) || croupierScore > playerScore) return PlayerStatus.LOOSE;
+        if (playerScore == croupierScore) return PlayerStatus.TIE;
+        return null;
+    }
+
+    //Money returned to the player for a settled seat, -1 when the seat is not settled
+    public int getWinnings(PlayerInGame player) {
+        return switch (player.getStatus()) {
+            case SURRENDER -> rules.getSurrenderPayout(player.getBet());
+            case BLACKJACK -> rules.getBlackjackPayout(player.getBet());
+            case TIE -> rules.getTiePayout(player.getBet());
+            case WIN -> rules.getWinPayout(player.getBet());
+            case LOOSE -> 0;
+            default -> -1;
+        };
+    }
+
+}
@@ -4,24 +4,26 @@ import lombok.Getter;
 
 @Getter
 public enum Rank {
-    TWO(2),
-    THREE(3),
-    FOUR(4),
-    FIVE(5),
-    SIX(6),
-    SEVEN(7),
-    EIGHT(8),
-    NINE(9),
-    TEN(10),
-    JACK(10),
-    QUEEN(10),
-    KING(10),
-    ACE(11);
+    TWO(2, '2'),
+    THREE(3, '3'),
+    FOUR(4, '4'),
+    FIVE(5, '5'),
+    SIX(6, '6'),
+    SEVEN(7, '7'),
+    EIGHT(8, '8'),
+    NINE(9, '9'),
+    TEN(10, 'T'),
+    JACK(10, 'J'),
+    QUEEN(10, 'Q'),
+    KING(10, 'K'),
+    ACE(11, 'A');
 
     private final int value;
+    private final char code;
 
-    Rank(int value) {
+    Rank(int value, char code) {
         this.value = value;
+        this.code = code;
     }
 
 }
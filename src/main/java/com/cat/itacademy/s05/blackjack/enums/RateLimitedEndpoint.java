@@ -0,0 +1,7 @@
+package com.cat.itacademy.s05.blackjack.enums;
+
+public enum RateLimitedEndpoint {
+
+    NEW_GAME, JOIN, PLAY;
+
+}
@@ -1,5 +1,15 @@
 package com.cat.itacademy.s05.blackjack.enums;
 
+import lombok.Getter;
+
+@Getter
 public enum Suit {
-    CLUBS, DIAMONDS, SPADES, HEARTS;
+    CLUBS('C'), DIAMONDS('D'), SPADES('S'), HEARTS('H');
+
+    private final char code;
+
+    Suit(char code) {
+        this.code = code;
+    }
+
 }
@@ -0,0 +1,7 @@
+package com.cat.itacademy.s05.blackjack.enums;
+
+public enum WalletEntryType {
+
+    BET, DOUBLE, SPLIT, PAYOUT, ADJUSTMENT;
+
+}
@@ -32,6 +32,21 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage()));
     }
 
+    @ExceptionHandler(InvalidSearchException.class)
+    public Mono<ResponseEntity<String>> handleInvalidSearch(InvalidSearchException ex){
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidClusterMembersException.class)
+    public Mono<ResponseEntity<String>> handleInvalidClusterMembers(InvalidClusterMembersException ex){
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage()));
+    }
+
+    @ExceptionHandler(PlayerNameTakenException.class)
+    public Mono<ResponseEntity<String>> handlePlayerNameTaken(PlayerNameTakenException ex){
+        return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage()));
+    }
+
     @ExceptionHandler({IllegalPlayerStatusException.class, IllegalGameStateException.class,
             IllegalArgumentException.class})
     public Mono<ResponseEntity<String>> handleUnexpectedExceptions(RuntimeException ex){
@@ -0,0 +1,7 @@
+package com.cat.itacademy.s05.blackjack.exceptions.custom;
+
+public class GameNotOwnedException extends RuntimeException{
+    public GameNotOwnedException(String message) {
+        super(message);
+    }
+}
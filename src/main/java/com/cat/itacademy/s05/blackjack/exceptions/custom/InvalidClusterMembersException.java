@@ -0,0 +1,7 @@
+package com.cat.itacademy.s05.blackjack.exceptions.custom;
+
+public class InvalidClusterMembersException extends RuntimeException{
+    public InvalidClusterMembersException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,8 @@
 package com.cat.itacademy.s05.blackjack.exceptions.custom;
 
+//Thrown for every rejected play, which is ordinary client input, so it skips the stack trace
 public class InvalidPlayException extends RuntimeException{
     public InvalidPlayException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
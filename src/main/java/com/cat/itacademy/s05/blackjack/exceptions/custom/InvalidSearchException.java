@@ -0,0 +1,7 @@
+package com.cat.itacademy.s05.blackjack.exceptions.custom;
+
+public class InvalidSearchException extends RuntimeException{
+    public InvalidSearchException(String message) {
+        super(message);
+    }
+}
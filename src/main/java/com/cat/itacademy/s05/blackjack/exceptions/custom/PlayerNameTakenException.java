@@ -0,0 +1,7 @@
+package com.cat.itacademy.s05.blackjack.exceptions.custom;
+
+public class PlayerNameTakenException extends RuntimeException{
+    public PlayerNameTakenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package com.cat.itacademy.s05.blackjack.metrics;
+
+import com.cat.itacademy.s05.blackjack.repositories.GameRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ActiveGamesRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveGamesRefresher.class);
+
+    private final GameRepository gameRepository;
+    private final GameMetrics gameMetrics;
+
+    public ActiveGamesRefresher(GameRepository gameRepository, GameMetrics gameMetrics) {
+        this.gameRepository = gameRepository;
+        this.gameMetrics = gameMetrics;
+    }
+
+    @Scheduled(initialDelayString = "${activeGamesRefreshMillis:30000}", fixedDelayString = "${activeGamesRefreshMillis:30000}")
+    public void refresh() {
+        gameRepository.countByConcludedFalse()
+                .subscribe(gameMetrics::setActiveGames, e -> log.debug("Could not count active games", e));
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.cat.itacademy.s05.blackjack.metrics;
+
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.enums.RateLimitedEndpoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the game pipeline. Every meter is registered up front so that recording never looks up the registry.
+ * Repository calls are timed by Spring Boot as spring.data.repository.invocations.
+ */
+@Component
+public class GameMetrics {
+
+    public enum Stage {
+        EXECUTE_PLAY, RESOLVE_CROUPIER_HAND, RESOLVE_BET, DEAL_CARD
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Play, Counter> playCounters = new EnumMap<>(Play.class);
+    private final Map<PlayerStatus, Counter> finalStatusCounters = new EnumMap<>(PlayerStatus.class);
+    private final Map<RateLimitedEndpoint, Counter> playerThrottledCounters = new EnumMap<>(RateLimitedEndpoint.class);
+    private final Map<RateLimitedEndpoint, Counter> ipThrottledCounters = new EnumMap<>(RateLimitedEndpoint.class);
+    private final AtomicLong activeGames = new AtomicLong();
+    private final AtomicLong settlementLagMillis = new AtomicLong();
+    private final DistributionSummary writeBatchSize;
+    private final Timer writeBatchFlush;
+    private final Counter collapsedWrites;
+    private final Counter archivedGames;
+    private final Counter purgedGames;
+    private final Counter settledGames;
+    private final Counter compactedWallets;
+
+    public GameMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("blackjack.stage")
+                    .description("Time spent in each stage of the game pipeline")
+                    .tag("stage", stage.name().toLowerCase())
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (Play play : Play.values()) {
+            playCounters.put(play, Counter.builder("blackjack.plays")
+                    .description("Plays executed")
+                    .tag("play", play.name())
+                    .register(registry));
+        }
+        for (PlayerStatus status : PlayerStatus.values()) {
+            finalStatusCounters.put(status, Counter.builder("blackjack.hands")
+                    .description("Hands settled by final player status")
+                    .tag("status", status.name())
+                    .register(registry));
+        }
+        for (RateLimitedEndpoint endpoint : RateLimitedEndpoint.values()) {
+            playerThrottledCounters.put(endpoint, throttledCounter(endpoint, "player"));
+            ipThrottledCounters.put(endpoint, throttledCounter(endpoint, "ip"));
+        }
+        Gauge.builder("blackjack.games.active", activeGames, AtomicLong::get)
+                .description("Games not concluded yet")
+                .register(registry);
+        writeBatchSize = DistributionSummary.builder("blackjack.game.writes.batch.size")
+                .description("Games written by each coalesced bulk write")
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+        writeBatchFlush = Timer.builder("blackjack.game.writes.flush")
+                .description("Time from the first buffered game save to the acknowledgement of its bulk write")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(registry);
+        collapsedWrites = Counter.builder("blackjack.game.writes.collapsed")
+                .description("Game saves folded into a later save of the same game in the same batch")
+                .register(registry);
+        archivedGames = Counter.builder("blackjack.games.archived")
+                .description("Concluded games moved to the archive")
+                .register(registry);
+        purgedGames = Counter.builder("blackjack.games.purged")
+                .description("Abandoned games deleted before being concluded")
+                .register(registry);
+        Gauge.builder("blackjack.settlement.lag", settlementLagMillis, AtomicLong::get)
+                .description("Milliseconds since the oldest game still to be settled was concluded, at the last run")
+                .baseUnit("milliseconds")
+                .register(registry);
+        settledGames = Counter.builder("blackjack.settlement.games")
+                .description("Concluded games whose payouts were credited")
+                .register(registry);
+        compactedWallets = Counter.builder("blackjack.wallets.compacted")
+                .description("Players whose old wallet entries were moved into their money snapshot")
+                .register(registry);
+    }
+
+    private Counter throttledCounter(RateLimitedEndpoint endpoint, String limit) {
+        return Counter.builder("blackjack.requests.throttled")
+                .description("Requests answered with a 429 by the rate limiter")
+                .tag("endpoint", endpoint.name())
+                .tag("limit", limit)
+                .register(registry);
+    }
+
+    public <T> Mono<T> timed(Stage stage, Supplier<Mono<T>> mono) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return mono.get().doFinally(signal -> sample.stop(stageTimers.get(stage)));
+        });
+    }
+
+    public void timed(Stage stage, Runnable runnable) {
+        stageTimers.get(stage).record(runnable);
+    }
+
+    public void countPlay(Play play) {
+        playCounters.get(play).increment();
+    }
+
+    public void countFinalStatus(PlayerStatus status) {
+        finalStatusCounters.get(status).increment();
+    }
+
+    public void setActiveGames(long count) {
+        activeGames.set(count);
+    }
+
+    public void recordWriteBatch(int games, int collapsed, long flushNanos) {
+        writeBatchSize.record(games);
+        collapsedWrites.increment(collapsed);
+        writeBatchFlush.record(flushNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void countArchivedGames(long count) {
+        archivedGames.increment(count);
+    }
+
+    public void countPurgedGames(long count) {
+        purgedGames.increment(count);
+    }
+
+    public void setSettlementLag(long millis) {
+        settlementLagMillis.set(millis);
+    }
+
+    public void countSettledGame() {
+        settledGames.increment();
+    }
+
+    public void countCompactedWallets(long count) {
+        compactedWallets.increment(count);
+    }
+
+    public void countThrottled(RateLimitedEndpoint endpoint, boolean byPlayer) {
+        (byPlayer ? playerThrottledCounters : ipThrottledCounters).get(endpoint).increment();
+    }
+
+}
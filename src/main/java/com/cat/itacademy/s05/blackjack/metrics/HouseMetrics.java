@@ -0,0 +1,87 @@
+package com.cat.itacademy.s05.blackjack.metrics;
+
+import com.cat.itacademy.s05.blackjack.dto.HouseSnapshotDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Live money flow of the house. Every counter is a {@link LongAdder}, which spreads concurrent updates over striped
+ * cells, so recording a play never contends with other plays; the cells are only summed when the gauges are scraped or
+ * a snapshot is taken.
+ * <p>
+ * The exposure of a table is the money bet on it and not settled yet. A table is closed once its bets are settled, or
+ * when it is deleted before that, in which case its bets are kept by the house.
+ */
+@Component
+public class HouseMetrics {
+
+    private final LongAdder wagered = new LongAdder();
+    private final LongAdder settledBets = new LongAdder();
+    private final LongAdder paidOut = new LongAdder();
+    private final LongAdder forfeitedBets = new LongAdder();
+    private final Map<String, LongAdder> tableExposure = new ConcurrentHashMap<>();
+
+    public HouseMetrics(MeterRegistry registry) {
+        Gauge.builder("blackjack.house.result", this, HouseMetrics::getResult)
+                .description("Money won by the house on settled and forfeited bets minus the money paid to players")
+                .register(registry);
+        Gauge.builder("blackjack.house.wagered", wagered, LongAdder::sum)
+                .description("Money taken from players by bets, doubles and splits")
+                .register(registry);
+        Gauge.builder("blackjack.house.paid", paidOut, LongAdder::sum)
+                .description("Money returned to players by settlement")
+                .register(registry);
+        Gauge.builder("blackjack.house.bets.outstanding", this, HouseMetrics::getOutstandingBets)
+                .description("Money bet on tables not settled yet")
+                .register(registry);
+        Gauge.builder("blackjack.house.exposure.max", this, HouseMetrics::getMaxTableExposure)
+                .description("Largest amount of unsettled money bet on a single table")
+                .register(registry);
+    }
+
+    public void recordStake(String tableId, int amount) {
+        wagered.add(amount);
+        tableExposure.computeIfAbsent(tableId, id -> new LongAdder()).add(amount);
+    }
+
+    public void recordSettlement(String tableId, int bet, int payout) {
+        settledBets.add(bet);
+        paidOut.add(payout);
+        LongAdder exposure = tableExposure.get(tableId);
+        if (exposure != null) exposure.add(-bet);
+    }
+
+    //Called once no more money can be bet on the table; what is still unsettled is kept by the house
+    public void closeTable(String tableId) {
+        LongAdder exposure = tableExposure.remove(tableId);
+        if (exposure != null) forfeitedBets.add(exposure.sum());
+    }
+
+    public long getResult() {
+        return settledBets.sum() + forfeitedBets.sum() - paidOut.sum();
+    }
+
+    public long getOutstandingBets() {
+        return wagered.sum() - settledBets.sum() - forfeitedBets.sum();
+    }
+
+    public long getMaxTableExposure() {
+        long max = 0;
+        for (LongAdder exposure : tableExposure.values()) max = Math.max(max, exposure.sum());
+        return max;
+    }
+
+    public HouseSnapshotDTO snapshot() {
+        Map<String, Long> exposure = tableExposure.entrySet().stream()
+                .filter(entry -> entry.getValue().sum() != 0)
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+        return new HouseSnapshotDTO(getResult(), wagered.sum(), paidOut.sum(), getOutstandingBets(), exposure);
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.cat.itacademy.s05.blackjack.model;
+
+import lombok.Getter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Concluded game in cold storage: the game without its deck, encoded and deflated into a single binary field.
+ */
+@Getter
+@Document(collection = "archivedGames")
+public class ArchivedGame {
+
+    private @Id String id;
+
+    @Indexed
+    private Instant lastModified;
+
+    private byte[] data;
+
+    public ArchivedGame(String id, Instant lastModified, byte[] data) {
+        this.id = id;
+        this.lastModified = lastModified;
+        this.data = data;
+    }
+
+}
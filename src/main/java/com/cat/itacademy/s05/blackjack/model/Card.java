@@ -12,4 +12,11 @@ public record Card (
         @Schema(description = "Rank of the card", examples = {"TWO", "THREE", "FOUR", "FIVE", "SIX", "SEVEN", "EIGHT",
                 "NINE", "TEN", "JACK", "QUEEN", "KING", "ACE"})
         Rank rank
-) {}
+) {
+
+    //Rank and suit as two characters, f.e. KS for the king of spades
+    public String toCode() {
+        return new String(new char[]{rank.getCode(), suit.getCode()});
+    }
+
+}
@@ -4,14 +4,20 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 @Getter
 @Setter
 @Document(collection = "games")
+@CompoundIndex(name = "concluded_lastModified", def = "{'concluded': 1, 'lastModified': 1}")
+@CompoundIndex(name = "players_id", def = "{'players._id': 1, '_id': 1}")
+@CompoundIndex(name = "concluded_id", def = "{'concluded': 1, '_id': 1}")
+@CompoundIndex(name = "settlementPending_lastModified", def = "{'settlementPending': 1, 'lastModified': 1}")
 public class Game {
 
     private @Id String id;
@@ -24,14 +30,26 @@ public class Game {
 
     private int activePlayerIndex;
 
+    @JsonIgnore
+    private Instant lastModified;
+
     @JsonIgnore
     private Deck deck;
 
+    //Outbox of the settlement: written with the concluded game and emptied once credited to the players
+    @JsonIgnore
+    private List<Payout> pendingPayouts;
+
+    @JsonIgnore
+    private boolean settlementPending;
+
     {
         concluded = false;
         croupier = new Croupier();
         players = new ArrayList<>();
         activePlayerIndex = 0;
+        pendingPayouts = new ArrayList<>();
+        settlementPending = false;
     }
 
     @JsonIgnore
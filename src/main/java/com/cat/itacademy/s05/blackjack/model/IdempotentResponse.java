@@ -0,0 +1,41 @@
+package com.cat.itacademy.s05.blackjack.model;
+
+import lombok.Getter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Response given to the first request with an Idempotency-Key, replayed byte for byte to its retries. The fingerprint
+ * identifies the request, so the same key can't be reused for another one. MongoDB drops it once expired.
+ */
+@Getter
+@Document(collection = "idempotentResponses")
+public class IdempotentResponse {
+
+    private @Id String key;
+
+    private String fingerprint;
+
+    private int status;
+
+    private String contentType;
+
+    private byte[] body;
+
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+
+    public IdempotentResponse(String key, String fingerprint, int status, String contentType, byte[] body,
+                              Instant expiresAt) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+        this.expiresAt = expiresAt;
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.cat.itacademy.s05.blackjack.model;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+
+/**
+ * What a hand of a concluded game pays to its player, the bet included, or 0 when lost. The id is the game id and the
+ * position of the hand, so crediting it twice can be told apart from crediting another hand of the same player.
+ */
+public record Payout(String id, String playerId, PlayerStatus status, int bet, int winnings) {
+
+    public static String id(String gameId, int position) {
+        return gameId + "#" + position;
+    }
+
+}
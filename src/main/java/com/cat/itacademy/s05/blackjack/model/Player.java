@@ -1,12 +1,19 @@
 package com.cat.itacademy.s05.blackjack.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
 
 @Getter
 @Setter
@@ -18,6 +25,7 @@ public class Player {
     private @Id String id;
 
     @Schema(description = "Name of the player", example = "John Doe")
+    @Indexed(unique = true)
     private String name;
 
     @Schema(description = "Money of the player", example = "100")
@@ -26,6 +34,19 @@ public class Player {
     @Schema(description = "Games player by the player", example = "6")
     private int gamesPlayed;
 
+    //Creation time of the last wallet entry in money and gamesPlayed; in MongoDB the entries after it are still to be
+    //added, see PlayerRepositoryCustom#compactWallets
+    @JsonIgnore
+    @Schema(hidden = true)
+    private Instant walletSnapshotAt;
+
+    //Last payouts credited by the in-memory repositories, so that a payout credited again after a restart of the
+    //settlement is ignored; MongoDB tells them apart by the id of their wallet entry instead
+    @JsonIgnore
+    @Schema(hidden = true)
+    @Transient
+    private List<String> creditedPayouts = new ArrayList<>();
+
     public Player(String name) {
         this.name = name;
         this.money = 100;
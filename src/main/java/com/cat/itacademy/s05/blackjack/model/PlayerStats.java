@@ -0,0 +1,90 @@
+package com.cat.itacademy.s05.blackjack.model;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Running totals of the hands settled by a player. Also used as the delta of the hands settled since the last flush.
+ */
+@Getter
+@Setter
+@Document(collection = "player_stats")
+@Schema(name = "PlayerStats", description = "Data object representing the statistics of a player")
+public class PlayerStats {
+
+    @Schema(description = "Identifier of the player", example = "673f22257b21b20c20d0d290")
+    private @Id String id;
+
+    @Schema(description = "Hands settled", example = "40")
+    private long hands;
+
+    @Schema(description = "Hands won, blackjacks not included", example = "16")
+    private long wins;
+
+    @Schema(description = "Hands won with a blackjack", example = "2")
+    private long blackjacks;
+
+    @Schema(description = "Hands tied with the croupier", example = "4")
+    private long ties;
+
+    @Schema(description = "Hands lost", example = "16")
+    private long losses;
+
+    @Schema(description = "Hands surrendered", example = "2")
+    private long surrenders;
+
+    @Schema(description = "Total amount bet", example = "800")
+    private long totalBet;
+
+    @Schema(description = "Money won minus money bet", example = "-30")
+    private long netResult;
+
+    public PlayerStats(String id) {
+        this.id = id;
+    }
+
+    public synchronized void addHand(PlayerStatus status, int bet, int winnings) {
+        hands++;
+        switch (status) {
+            case WIN -> wins++;
+            case BLACKJACK -> blackjacks++;
+            case TIE -> ties++;
+            case LOOSE -> losses++;
+            case SURRENDER -> surrenders++;
+            default -> { }
+        }
+        totalBet += bet;
+        netResult += winnings - bet;
+    }
+
+    public synchronized void add(PlayerStats delta) {
+        hands += delta.hands;
+        wins += delta.wins;
+        blackjacks += delta.blackjacks;
+        ties += delta.ties;
+        losses += delta.losses;
+        surrenders += delta.surrenders;
+        totalBet += delta.totalBet;
+        netResult += delta.netResult;
+    }
+
+    @Schema(description = "Share of hands won, blackjacks included", example = "0.45")
+    public double getWinRate() {
+        return hands == 0 ? 0 : (double) (wins + blackjacks) / hands;
+    }
+
+    @Schema(description = "Share of hands won with a blackjack", example = "0.05")
+    public double getBlackjackRate() {
+        return hands == 0 ? 0 : (double) blackjacks / hands;
+    }
+
+    @Schema(description = "Average bet per hand", example = "20")
+    public double getAverageBet() {
+        return hands == 0 ? 0 : (double) totalBet / hands;
+    }
+
+}
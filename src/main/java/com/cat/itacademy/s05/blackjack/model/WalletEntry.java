@@ -0,0 +1,65 @@
+package com.cat.itacademy.s05.blackjack.model;
+
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.WalletEntryType;
+import lombok.Getter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Change of the money of a player, inserted and never updated. The money of a player is the snapshot kept in the
+ * player plus the entries created after it; see {@link Player#getWalletSnapshotAt()}.
+ * <p>
+ * Payouts take the id of the payout, so the same payout can't be recorded twice; the other entries get a new id.
+ */
+@Getter
+@Document(collection = "walletEntries")
+@CompoundIndex(name = "playerId_createdAt", def = "{'playerId': 1, 'createdAt': 1}")
+public class WalletEntry {
+
+    private @Id String id;
+
+    private String playerId;
+
+    private WalletEntryType type;
+
+    private int amount;
+
+    private int gamesPlayed;
+
+    private Instant createdAt;
+
+    public WalletEntry(String id, String playerId, WalletEntryType type, int amount, int gamesPlayed,
+                       Instant createdAt) {
+        this.id = id;
+        this.playerId = playerId;
+        this.type = type;
+        this.amount = amount;
+        this.gamesPlayed = gamesPlayed;
+        this.createdAt = createdAt;
+    }
+
+    //The money a play puts on the table, taken from the player
+    public static WalletEntry stake(String playerId, Play play, int stake) {
+        WalletEntryType type = switch (play) {
+            case INITIAL_BET -> WalletEntryType.BET;
+            case DOUBLE -> WalletEntryType.DOUBLE;
+            case SPLIT -> WalletEntryType.SPLIT;
+            default -> throw new IllegalArgumentException("Play without stake: " + play);
+        };
+        return new WalletEntry(null, playerId, type, -stake, 0, Instant.now());
+    }
+
+    //What a hand pays to its player, which also counts as a game played
+    public static WalletEntry payout(String playerId, String payoutId, int winnings) {
+        return new WalletEntry(payoutId, playerId, WalletEntryType.PAYOUT, winnings, 1, Instant.now());
+    }
+
+    public static WalletEntry adjustment(String playerId, int money) {
+        return new WalletEntry(null, playerId, WalletEntryType.ADJUSTMENT, money, 0, Instant.now());
+    }
+
+}
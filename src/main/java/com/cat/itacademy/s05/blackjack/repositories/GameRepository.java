@@ -2,6 +2,10 @@ package com.cat.itacademy.s05.blackjack.repositories;
 
 import com.cat.itacademy.s05.blackjack.model.Game;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface GameRepository extends ReactiveMongoRepository<Game, String>, GameRepositoryCustom {
+
+    Mono<Long> countByConcludedFalse();
 
-public interface GameRepository extends ReactiveMongoRepository<Game, String> {
 }
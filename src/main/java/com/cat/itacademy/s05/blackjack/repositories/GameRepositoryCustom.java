@@ -0,0 +1,25 @@
+package com.cat.itacademy.s05.blackjack.repositories;
+
+import com.cat.itacademy.s05.blackjack.model.Game;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+public interface GameRepositoryCustom {
+
+    //Games are returned without their deck
+    Flux<Game> search(GameSearch search);
+
+    Mono<Long> renamePlayer(String playerId, String playerName);
+
+    //Concluded games last changed in [from, to), by time of that change and then id, and without their deck
+    Flux<Game> findConcluded(Instant from, Instant to, int batchSize);
+
+    //Concluded games with payouts not credited yet, oldest first and without their deck
+    Flux<Game> findPendingSettlement(int limit);
+
+    //False when the payouts of the game were already cleared
+    Mono<Boolean> clearPendingPayouts(String gameId);
+
+}
@@ -0,0 +1,83 @@
+package com.cat.itacademy.s05.blackjack.repositories;
+
+import com.cat.itacademy.s05.blackjack.model.Game;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+public class GameRepositoryCustomImpl implements GameRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public GameRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<Game> search(GameSearch search) {
+        Query query = new Query();
+        if (search.playerId() != null && search.status() != null) {
+            query.addCriteria(Criteria.where("players").elemMatch(
+                    Criteria.where("id").is(search.playerId()).and("status").is(search.status())));
+        } else if (search.playerId() != null) {
+            query.addCriteria(Criteria.where("players.id").is(search.playerId()));
+        } else if (search.status() != null) {
+            query.addCriteria(Criteria.where("players.status").is(search.status()));
+        }
+        if (search.concluded() != null) query.addCriteria(Criteria.where("concluded").is(search.concluded()));
+        //Keyset pagination: ids grow with creation time, so the next page starts after the last id returned
+        if (search.after() != null) query.addCriteria(Criteria.where("_id").gt(new ObjectId(search.after())));
+        query.with(Sort.by("_id")).limit(search.limit());
+        query.fields().exclude("deck");
+        return mongoTemplate.find(query, Game.class);
+    }
+
+    @Override
+    public Mono<Long> renamePlayer(String playerId, String playerName) {
+        Query query = Query.query(Criteria.where("players.id").is(playerId));
+        //Array filters are not mapped, so the id goes as stored: an ObjectId when it is one
+        Object storedId = ObjectId.isValid(playerId) ? new ObjectId(playerId) : playerId;
+        Update update = new Update()
+                .set("players.$[player].name", playerName)
+                .filterArray(Criteria.where("player._id").is(storedId));
+        return mongoTemplate.updateMulti(query, update, Game.class)
+                .map(result -> result.getModifiedCount());
+    }
+
+    @Override
+    public Flux<Game> findConcluded(Instant from, Instant to, int batchSize) {
+        Query query = Query.query(Criteria.where("concluded").is(true).and("lastModified").gte(from).lt(to))
+                .with(Sort.by("lastModified", "id"))
+                .cursorBatchSize(batchSize);
+        query.fields().exclude("deck");
+        return mongoTemplate.find(query, Game.class);
+    }
+
+    @Override
+    public Flux<Game> findPendingSettlement(int limit) {
+        Query query = Query.query(Criteria.where("settlementPending").is(true))
+                .with(Sort.by("lastModified"))
+                .limit(limit);
+        query.fields().exclude("deck");
+        return mongoTemplate.find(query, Game.class);
+    }
+
+    @Override
+    public Mono<Boolean> clearPendingPayouts(String gameId) {
+        Query query = Query.query(Criteria.where("_id").is(gameId).and("settlementPending").is(true));
+        Update update = new Update()
+                .set("pendingPayouts", List.of())
+                .set("settlementPending", false);
+        return mongoTemplate.updateFirst(query, update, Game.class)
+                .map(result -> result.getModifiedCount() == 1);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.cat.itacademy.s05.blackjack.repositories;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.InvalidSearchException;
+import org.bson.types.ObjectId;
+
+/**
+ * Filters of a game search. Null filters match every game. Games come in id order, which is creation order, starting
+ * after the game with id {@code after}.
+ */
+public record GameSearch(String playerId, PlayerStatus status, Boolean concluded, String after, int limit) {
+
+    public static final int MAX_LIMIT = 500;
+
+    public GameSearch {
+        if (after != null && !ObjectId.isValid(after)) throw new InvalidSearchException("Not a game id: " + after);
+        limit = Math.clamp(limit, 1, MAX_LIMIT);
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.cat.itacademy.s05.blackjack.repositories;
+
+import com.cat.itacademy.s05.blackjack.cache.Invalidation;
+import com.cat.itacademy.s05.blackjack.cache.InvalidationBus;
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit of game writes. Saves and deletes are buffered for gameWriteCoalescingMillis, or until
+ * gameWriteBatchSize games are waiting. Only the last write of each game is kept, and the buffer is sent as a single
+ * unordered bulk write. Callers complete when the bulk write holding their change is acknowledged.
+ * <p>
+ * There is never more than one bulk write in flight, so two writes of the same game are always applied in order.
+ * Saves are upserts, which lets new games get their id here instead of from the insert. Without MongoDB (inmemory
+ * and journal profiles) or with coalescing disabled, writes go straight to the repository.
+ */
+@Component
+public class GameWriteCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(GameWriteCoalescer.class);
+
+    private final GameRepository gameRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final GameMetrics gameMetrics;
+    private final InvalidationBus invalidationBus;
+    private final boolean enabled;
+    private final long delayMillis;
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+    private Map<String, PendingWrite> buffer = new LinkedHashMap<>();
+    private long bufferedSince;
+    private int bufferedWrites;
+    private boolean flushScheduled;
+    private boolean writing;
+
+    public GameWriteCoalescer(GameRepository gameRepository, ObjectProvider<ReactiveMongoTemplate> mongoTemplate,
+                              GameMetrics gameMetrics, InvalidationBus invalidationBus,
+                              @Value("${gameWriteCoalescingEnabled:false}") boolean enabled,
+                              @Value("${gameWriteCoalescingMillis:5}") long delayMillis,
+                              @Value("${gameWriteBatchSize:500}") int maxBatchSize) {
+        this.gameRepository = gameRepository;
+        this.mongoTemplate = mongoTemplate.getIfAvailable();
+        this.gameMetrics = gameMetrics;
+        this.invalidationBus = invalidationBus;
+        this.enabled = enabled && this.mongoTemplate != null;
+        this.delayMillis = Math.max(1, delayMillis);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        if (enabled && !this.enabled) {
+            log.warn("Game write coalescing needs MongoDB, game writes go straight to the repository");
+        }
+    }
+
+    public Mono<Game> save(Game game) {
+        Mono<Game> saved = !enabled ? gameRepository.save(game) : Mono.create(sink -> {
+            if (game.getId() == null) game.setId(ObjectId.get().toHexString());
+            enqueue(game.getId(), game, game, sink);
+        });
+        return saved.doOnNext(written -> invalidationBus.publish(Invalidation.Type.GAME, written.getId()));
+    }
+
+    public Mono<Void> delete(Game game) {
+        Mono<Void> deleted = !enabled ? gameRepository.delete(game)
+                : Mono.<Game>create(sink -> enqueue(game.getId(), null, game, sink)).then();
+        return deleted.doOnSuccess(unused -> invalidationBus.publish(Invalidation.Type.GAME, game.getId()));
+    }
+
+    //Game is null for a delete, caller is what the caller gets back once written
+    private void enqueue(String gameId, Game game, Game caller, MonoSink<Game> sink) {
+        boolean flushNow = false;
+        boolean scheduleFlush = false;
+        synchronized (lock) {
+            if (buffer.isEmpty()) bufferedSince = System.nanoTime();
+            buffer.computeIfAbsent(gameId, id -> new PendingWrite()).add(game, caller, sink);
+            bufferedWrites++;
+            if (!writing) {
+                if (buffer.size() >= maxBatchSize) {
+                    flushNow = true;
+                } else if (!flushScheduled) {
+                    flushScheduled = true;
+                    scheduleFlush = true;
+                }
+            }
+        }
+        if (flushNow) flush();
+        else if (scheduleFlush) Schedulers.parallel().schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        Map<String, PendingWrite> batch;
+        long since;
+        int writes;
+        synchronized (lock) {
+            flushScheduled = false;
+            if (writing || buffer.isEmpty()) return;
+            writing = true;
+            batch = buffer;
+            since = bufferedSince;
+            writes = bufferedWrites;
+            buffer = new LinkedHashMap<>();
+            bufferedWrites = 0;
+        }
+        Map<String, Game> games = new LinkedHashMap<>();
+        batch.forEach((gameId, pending) -> games.put(gameId, pending.game));
+        Mono.defer(() -> writeBatch(games))
+                .subscribe(failures -> {
+                    gameMetrics.recordWriteBatch(batch.size(), writes - batch.size(), System.nanoTime() - since);
+                    batch.forEach((gameId, pending) -> pending.complete(failures.get(gameId)));
+                    afterWrite();
+                }, error -> {
+                    batch.values().forEach(pending -> pending.complete(error));
+                    afterWrite();
+                });
+    }
+
+    //Writes buffered while the last bulk write was in flight go next, as soon as they are due
+    private void afterWrite() {
+        boolean flushNow = false;
+        boolean scheduleFlush = false;
+        synchronized (lock) {
+            writing = false;
+            if (buffer.isEmpty()) return;
+            long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - bufferedSince);
+            if (buffer.size() >= maxBatchSize || waitedMillis >= delayMillis) {
+                flushNow = true;
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                scheduleFlush = true;
+            }
+        }
+        if (flushNow) flush();
+        else if (scheduleFlush) Schedulers.parallel().schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    //Errors of the games that could not be written, by game id
+    protected Mono<Map<String, Throwable>> writeBatch(Map<String, Game> games) {
+        List<String> gameIds = new ArrayList<>(games.keySet());
+        List<WriteModel<Document>> writes = new ArrayList<>(games.size());
+        games.forEach((gameId, game) -> {
+            if (game == null) {
+                writes.add(new DeleteOneModel<>(Filters.eq("_id", mongoTemplate.getConverter().convertId(gameId, ObjectId.class))));
+                return;
+            }
+            Document document = new Document();
+            mongoTemplate.getConverter().write(game, document);
+            writes.add(new ReplaceOneModel<>(Filters.eq("_id", document.get("_id")), document,
+                    new ReplaceOptions().upsert(true)));
+        });
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Game.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(writes, new BulkWriteOptions().ordered(false))))
+                .map(result -> Map.<String, Throwable>of())
+                .onErrorResume(MongoBulkWriteException.class, e -> {
+                    Map<String, Throwable> failures = new HashMap<>();
+                    for (BulkWriteError error : e.getWriteErrors()) {
+                        failures.put(gameIds.get(error.getIndex()), new DataIntegrityViolationException(error.getMessage()));
+                    }
+                    return Mono.just(failures);
+                });
+    }
+
+    private static final class PendingWrite {
+
+        private Game game;
+        private final List<Game> callers = new ArrayList<>(1);
+        private final List<MonoSink<Game>> sinks = new ArrayList<>(1);
+
+        private void add(Game game, Game caller, MonoSink<Game> sink) {
+            this.game = game;
+            callers.add(caller);
+            sinks.add(sink);
+        }
+
+        private void complete(Throwable error) {
+            for (int i = 0; i < sinks.size(); i++) {
+                if (error == null) sinks.get(i).success(callers.get(i));
+                else sinks.get(i).error(error);
+            }
+        }
+
+    }
+
+}
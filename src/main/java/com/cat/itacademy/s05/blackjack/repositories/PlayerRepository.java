@@ -5,7 +5,7 @@ import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface PlayerRepository extends ReactiveMongoRepository<Player, String> {
+public interface PlayerRepository extends ReactiveMongoRepository<Player, String>, PlayerRepositoryCustom {
 
     Mono<Player> findByName(String playerName);
 
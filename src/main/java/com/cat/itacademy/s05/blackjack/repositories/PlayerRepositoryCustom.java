@@ -0,0 +1,30 @@
+package com.cat.itacademy.s05.blackjack.repositories;
+
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.WalletEntry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+public interface PlayerRepositoryCustom {
+
+    Mono<Player> upsertByName(String playerName);
+
+    //Adds the entry to the wallet of the player, false when an entry with the same id was already added
+    Mono<Boolean> appendWalletEntry(WalletEntry entry);
+
+    //The player with the money and games played of the wallet entries not yet in its snapshot
+    Mono<Player> findBalanceById(String playerId);
+
+    Mono<Player> findBalanceByName(String playerName);
+
+    //Every player is looked up in the wallet entries and sorted by the money added up, which no index holds, so the cost
+    //grows with the players and the entries not yet compacted
+    Flux<Player> findAllBalancesByOrderByMoneyDesc();
+
+    //Moves the wallet entries created before the given instant into the snapshot of their players, returning the
+    //players whose snapshot changed
+    Mono<Long> compactWallets(Instant before);
+
+}
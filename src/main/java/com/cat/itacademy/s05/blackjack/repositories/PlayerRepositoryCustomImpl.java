@@ -0,0 +1,132 @@
+package com.cat.itacademy.s05.blackjack.repositories;
+
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.WalletEntry;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Players in MongoDB, whose wallet is an insert-only collection of entries so that bets and payouts never contend on
+ * the document of a player. The money in the document is a snapshot up to walletSnapshotAt; players are read with the
+ * entries after it added, and compactWallets moves the old entries into the snapshot. Entries are kept afterwards, so
+ * the snapshot can always be reconciled with them.
+ */
+public class PlayerRepositoryCustomImpl implements PlayerRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public PlayerRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Player> upsertByName(String playerName) {
+        Player newPlayer = new Player(playerName);
+        Query query = Query.query(Criteria.where("name").is(playerName));
+        Update update = new Update()
+                .setOnInsert("money", newPlayer.getMoney())
+                .setOnInsert("gamesPlayed", newPlayer.getGamesPlayed());
+        //Two concurrent upserts of the same name: the loser hits the unique index and reads the winner's player
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        Player.class)
+                .onErrorResume(DuplicateKeyException.class, e -> mongoTemplate.findOne(query, Player.class));
+    }
+
+    @Override
+    public Mono<Boolean> appendWalletEntry(WalletEntry entry) {
+        return mongoTemplate.insert(entry)
+                .thenReturn(true)
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false));
+    }
+
+    @Override
+    public Mono<Player> findBalanceById(String playerId) {
+        return findBalances(Aggregation.match(Criteria.where("_id").is(playerId))).next();
+    }
+
+    @Override
+    public Mono<Player> findBalanceByName(String playerName) {
+        return findBalances(Aggregation.match(Criteria.where("name").is(playerName))).next();
+    }
+
+    //No match to narrow it: the ranking lists every player. Each lookup is a range of the playerId_createdAt index,
+    //and the sort runs after them
+    @Override
+    public Flux<Player> findAllBalancesByOrderByMoneyDesc() {
+        return findBalances(null, Aggregation.sort(Sort.Direction.DESC, "money"));
+    }
+
+    @Override
+    public Mono<Long> compactWallets(Instant before) {
+        TypedAggregation<Player> aggregation = Aggregation.newAggregation(Player.class,
+                lookupWalletEntries(before),
+                context -> new Document("$match", new Document("wallet", new Document("$ne", List.of()))),
+                context -> new Document("$project", new Document("walletSnapshotAt", 1)
+                        .append("money", new Document("$sum", "$wallet.money"))
+                        .append("gamesPlayed", new Document("$sum", "$wallet.gamesPlayed"))));
+        return mongoTemplate.aggregate(aggregation, Document.class)
+                .concatMap(wallet -> {
+                    //Another instance compacting the same entries first changes the snapshot, and this update is lost
+                    Query query = Query.query(Criteria.where("_id").is(wallet.get("_id"))
+                            .and("walletSnapshotAt").is(wallet.get("walletSnapshotAt")));
+                    Update update = new Update()
+                            .inc("money", wallet.get("money", Number.class).intValue())
+                            .inc("gamesPlayed", wallet.get("gamesPlayed", Number.class).intValue())
+                            .set("walletSnapshotAt", before);
+                    return mongoTemplate.updateFirst(query, update, Player.class);
+                })
+                .filter(result -> result.getModifiedCount() == 1)
+                .count();
+    }
+
+    private Flux<Player> findBalances(AggregationOperation match, AggregationOperation... then) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        if (match != null) operations.add(match);
+        operations.add(lookupWalletEntries(null));
+        operations.add(context -> new Document("$set", new Document()
+                .append("money", new Document("$add", List.of("$money", new Document("$sum", "$wallet.money"))))
+                .append("gamesPlayed",
+                        new Document("$add", List.of("$gamesPlayed", new Document("$sum", "$wallet.gamesPlayed"))))));
+        operations.add(context -> new Document("$unset", "wallet"));
+        operations.addAll(List.of(then));
+        //The ranking sorts every player once added up, which may not fit the memory of a stage
+        return mongoTemplate.aggregate(Aggregation.newAggregation(Player.class, operations)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build()), Player.class);
+    }
+
+    //Sums into "wallet" the entries of each player after its snapshot, and before the given instant if any
+    private static AggregationOperation lookupWalletEntries(Instant before) {
+        Document createdAt = new Document("$gt", List.of("$createdAt", "$$snapshotAt"));
+        List<Document> conditions = before == null
+                ? List.of(new Document("$eq", List.of("$playerId", "$$playerId")), createdAt)
+                : List.of(new Document("$eq", List.of("$playerId", "$$playerId")), createdAt,
+                        new Document("$lte", List.of("$createdAt", Date.from(before))));
+        return context -> new Document("$lookup", new Document("from", "walletEntries")
+                .append("let", new Document("playerId", new Document("$toString", "$_id"))
+                        .append("snapshotAt", new Document("$ifNull", List.of("$walletSnapshotAt", new Date(0)))))
+                .append("pipeline", List.of(
+                        new Document("$match", new Document("$expr", new Document("$and", conditions))),
+                        new Document("$group", new Document("_id", null)
+                                .append("money", new Document("$sum", "$amount"))
+                                .append("gamesPlayed", new Document("$sum", "$gamesPlayed")))))
+                .append("as", "wallet"));
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.cat.itacademy.s05.blackjack.repositories;
+
+import com.cat.itacademy.s05.blackjack.model.PlayerStats;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface PlayerStatsRepository extends ReactiveMongoRepository<PlayerStats, String>, PlayerStatsRepositoryCustom {
+
+}
@@ -0,0 +1,15 @@
+package com.cat.itacademy.s05.blackjack.repositories;
+
+import com.cat.itacademy.s05.blackjack.model.PlayerStats;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface PlayerStatsRepositoryCustom {
+
+    //Adds each delta to the stored stats of its player, creating them if missing, and returns the players whose delta
+    //was rejected; the others were added. An error means it is unknown which deltas were added
+    Mono<Set<String>> incrementAll(Collection<PlayerStats> deltas);
+
+}
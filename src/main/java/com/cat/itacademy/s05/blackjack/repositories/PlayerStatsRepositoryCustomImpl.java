@@ -0,0 +1,66 @@
+package com.cat.itacademy.s05.blackjack.repositories;
+
+import com.cat.itacademy.s05.blackjack.model.PlayerStats;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class PlayerStatsRepositoryCustomImpl implements PlayerStatsRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public PlayerStatsRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Set<String>> incrementAll(Collection<PlayerStats> deltas) {
+        if (deltas.isEmpty()) return Mono.just(Set.of());
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, PlayerStats.class);
+        List<String> playerIds = new ArrayList<>(deltas.size());
+        for (PlayerStats delta : deltas) {
+            playerIds.add(delta.getId());
+            Update update = new Update()
+                    .inc("hands", delta.getHands())
+                    .inc("wins", delta.getWins())
+                    .inc("blackjacks", delta.getBlackjacks())
+                    .inc("ties", delta.getTies())
+                    .inc("losses", delta.getLosses())
+                    .inc("surrenders", delta.getSurrenders())
+                    .inc("totalBet", delta.getTotalBet())
+                    .inc("netResult", delta.getNetResult());
+            bulk.upsert(Query.query(Criteria.where("_id").is(delta.getId())), update);
+        }
+        //The bulk write is unordered, so the upserts without an error were applied whatever happened to the others
+        return bulk.execute()
+                .thenReturn(Set.<String>of())
+                .onErrorResume(e -> writeErrors(e) != null, e -> {
+                    Set<String> rejected = new HashSet<>();
+                    for (BulkWriteError error : writeErrors(e)) rejected.add(playerIds.get(error.getIndex()));
+                    return Mono.just(rejected);
+                });
+    }
+
+    //Errors of the single writes of a bulk write, or null if the bulk write failed as a whole
+    private static List<BulkWriteError> writeErrors(Throwable e) {
+        if (e instanceof BulkOperationException bulkOperationException) return bulkOperationException.getErrors();
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException bulkWriteException) return bulkWriteException.getWriteErrors();
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.cat.itacademy.s05.blackjack.repositories.inmemory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.query.FluentQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Fluent query over the entities matching an example. Projections only shape the result: every property is read,
+ * as the entities are already in memory.
+ */
+final class InMemoryFluentQuery<S, R> implements FluentQuery.ReactiveFluentQuery<R> {
+
+    private static final SpelAwareProxyProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    private final Flux<S> matching;
+    private final Class<S> domainType;
+    private final Sort sort;
+    private final int limit;
+    private final Function<S, R> mapper;
+
+    private InMemoryFluentQuery(Flux<S> matching, Class<S> domainType, Sort sort, int limit, Function<S, R> mapper) {
+        this.matching = matching;
+        this.domainType = domainType;
+        this.sort = sort;
+        this.limit = limit;
+        this.mapper = mapper;
+    }
+
+    static <S> InMemoryFluentQuery<S, S> of(Flux<S> matching, Class<S> domainType) {
+        return new InMemoryFluentQuery<>(matching, domainType, Sort.unsorted(), 0, Function.identity());
+    }
+
+    @Override
+    public ReactiveFluentQuery<R> sortBy(Sort sort) {
+        return new InMemoryFluentQuery<>(matching, domainType, this.sort.and(sort), limit, mapper);
+    }
+
+    @Override
+    public ReactiveFluentQuery<R> limit(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("Limit must not be negative");
+        return new InMemoryFluentQuery<>(matching, domainType, sort, limit, mapper);
+    }
+
+    @Override
+    public <N> ReactiveFluentQuery<N> as(Class<N> resultType) {
+        return new InMemoryFluentQuery<>(matching, domainType, sort, limit, entity -> project(entity, resultType));
+    }
+
+    @Override
+    public ReactiveFluentQuery<R> project(Collection<String> properties) {
+        return this;
+    }
+
+    @Override
+    public Mono<R> one() {
+        return all().take(2).collectList().flatMap(results -> results.size() > 1
+                ? Mono.error(new IncorrectResultSizeDataAccessException(1, results.size()))
+                : Mono.justOrEmpty(results.stream().findFirst()));
+    }
+
+    @Override
+    public Mono<R> first() {
+        return all().next();
+    }
+
+    @Override
+    public Flux<R> all() {
+        Flux<S> results = sorted(sort);
+        return (limit > 0 ? results.take(limit) : results).map(mapper);
+    }
+
+    @Override
+    public Mono<Page<R>> page(Pageable pageable) {
+        return sorted(pageable.getSortOr(sort)).collectList().map(results -> {
+            List<S> content = pageable.isUnpaged() ? results : results.stream()
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .toList();
+            return new PageImpl<>(content.stream().map(mapper).toList(), pageable, results.size());
+        });
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return matching.count();
+    }
+
+    @Override
+    public Mono<Boolean> exists() {
+        return matching.hasElements();
+    }
+
+    private Flux<S> sorted(Sort sort) {
+        return sort.isSorted() ? matching.sort(InMemoryQueries.comparator(sort)) : matching;
+    }
+
+    //Interfaces are proxied over the entity, records built from its fields and other classes copied as beans
+    @SuppressWarnings("unchecked")
+    private <N> N project(S entity, Class<N> resultType) {
+        if (resultType.isAssignableFrom(domainType)) return (N) entity;
+        if (resultType.isInterface()) return PROJECTIONS.createProjection(resultType, entity);
+        if (resultType.isRecord()) {
+            DirectFieldAccessor fields = new DirectFieldAccessor(entity);
+            RecordComponent[] components = resultType.getRecordComponents();
+            Object[] values = Arrays.stream(components)
+                    .map(component -> fields.getPropertyValue(component.getName()))
+                    .toArray();
+            return BeanUtils.instantiateClass(BeanUtils.getResolvableConstructor(resultType), values);
+        }
+        N result = BeanUtils.instantiateClass(resultType);
+        BeanUtils.copyProperties(entity, result);
+        return result;
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.cat.itacademy.s05.blackjack.repositories.inmemory;
+
+import com.cat.itacademy.s05.blackjack.model.Croupier;
+import com.cat.itacademy.s05.blackjack.model.Deck;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import com.cat.itacademy.s05.blackjack.repositories.GameRepository;
+import com.cat.itacademy.s05.blackjack.repositories.GameSearch;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryGameRepository extends InMemoryReactiveRepository<Game> implements GameRepository {
+
+    @Override
+    public Mono<Long> countByConcludedFalse() {
+        return Mono.fromCallable(() -> entities.values().stream().filter(game -> !game.isConcluded()).count());
+    }
+
+    @Override
+    public Flux<Game> search(GameSearch search) {
+        return Flux.defer(() -> Flux.fromStream(entities.values().stream()
+                .filter(game -> matches(game, search))
+                .sorted(Comparator.comparing(Game::getId))
+                .limit(search.limit())
+                .map(this::copyWithoutDeck)));
+    }
+
+    private boolean matches(Game game, GameSearch search) {
+        if (search.after() != null && game.getId().compareTo(search.after()) <= 0) return false;
+        if (search.concluded() != null && game.isConcluded() != search.concluded()) return false;
+        if (search.playerId() == null && search.status() == null) return true;
+        return game.getPlayers().stream().anyMatch(player ->
+                (search.playerId() == null || search.playerId().equals(player.getId()))
+                        && (search.status() == null || search.status() == player.getStatus()));
+    }
+
+    @Override
+    public Mono<Long> renamePlayer(String playerId, String playerName) {
+        return Mono.fromCallable(() -> {
+            AtomicLong renamed = new AtomicLong();
+            for (String gameId : entities.keySet()) {
+                entities.computeIfPresent(gameId, (id, game) -> {
+                    if (game.getPlayers().stream().noneMatch(player -> player.getId().equals(playerId))) return game;
+                    Game updated = copy(game);
+                    for (PlayerInGame player : updated.getPlayers()) {
+                        if (player.getId().equals(playerId)) player.setName(playerName);
+                    }
+                    onSave(game, updated);
+                    renamed.incrementAndGet();
+                    return updated;
+                });
+            }
+            return renamed.get();
+        });
+    }
+
+    @Override
+    public Flux<Game> findConcluded(Instant from, Instant to, int batchSize) {
+        return Flux.defer(() -> Flux.fromStream(entities.values().stream()
+                .filter(game -> game.isConcluded() && game.getLastModified() != null
+                        && !game.getLastModified().isBefore(from) && game.getLastModified().isBefore(to))
+                .sorted(Comparator.comparing(Game::getLastModified).thenComparing(Game::getId))
+                .map(this::copyWithoutDeck)));
+    }
+
+    @Override
+    public Flux<Game> findPendingSettlement(int limit) {
+        return Flux.defer(() -> Flux.fromStream(entities.values().stream()
+                .filter(Game::isSettlementPending)
+                .sorted(Comparator.comparing(Game::getLastModified, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .limit(limit)
+                .map(this::copyWithoutDeck)));
+    }
+
+    @Override
+    public Mono<Boolean> clearPendingPayouts(String gameId) {
+        return Mono.fromCallable(() -> {
+            AtomicBoolean cleared = new AtomicBoolean();
+            entities.computeIfPresent(gameId, (id, game) -> {
+                if (!game.isSettlementPending()) return game;
+                Game updated = copy(game);
+                updated.setPendingPayouts(new ArrayList<>());
+                updated.setSettlementPending(false);
+                onSave(game, updated);
+                cleared.set(true);
+                return updated;
+            });
+            return cleared.get();
+        });
+    }
+
+    private Game copyWithoutDeck(Game game) {
+        Game copy = copy(game);
+        copy.setDeck(null);
+        return copy;
+    }
+
+    @Override
+    protected String getId(Game game) {
+        return game.getId();
+    }
+
+    @Override
+    protected void setId(Game game, String id) {
+        game.setId(id);
+    }
+
+    @Override
+    protected Game copy(Game game) {
+        Game copy = new Game();
+        copy.setId(game.getId());
+        copy.setConcluded(game.isConcluded());
+        copy.setActivePlayerIndex(game.getActivePlayerIndex());
+        copy.setLastModified(game.getLastModified());
+        Croupier croupier = new Croupier();
+        croupier.setCards(new ArrayList<>(game.getCroupier().getCards()));
+        copy.setCroupier(croupier);
+        for (PlayerInGame player : game.getPlayers()) {
+            PlayerInGame playerCopy = new PlayerInGame(player.getId(), player.getName());
+            playerCopy.setBet(player.getBet());
+            playerCopy.setStatus(player.getStatus());
+            playerCopy.setCards(new ArrayList<>(player.getCards()));
+            copy.getPlayers().add(playerCopy);
+        }
+        if (game.getDeck() != null) {
+            Deck deck = new Deck();
+            deck.setDeck(new LinkedList<>(game.getDeck().getDeck()));
+            copy.setDeck(deck);
+        }
+        copy.setPendingPayouts(new ArrayList<>(game.getPendingPayouts()));
+        copy.setSettlementPending(game.isSettlementPending());
+        return copy;
+    }
+
+}
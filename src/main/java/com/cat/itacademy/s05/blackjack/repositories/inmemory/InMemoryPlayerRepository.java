@@ -0,0 +1,152 @@
+package com.cat.itacademy.s05.blackjack.repositories.inmemory;
+
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.WalletEntry;
+import com.cat.itacademy.s05.blackjack.repositories.PlayerRepository;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Players in memory, with a name index that enforces unique names like the Mongo index does and a ranking kept
+ * sorted by money on every save. Wallet entries are applied to the player at once, so its money is never a snapshot
+ * and there is nothing to compact.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryPlayerRepository extends InMemoryReactiveRepository<Player> implements PlayerRepository {
+
+    //Payouts are credited before their game is marked settled, so only the last few can ever be credited again
+    public static final int CREDITED_PAYOUTS_KEPT = 100;
+
+    private final Map<String, String> idsByName = new ConcurrentHashMap<>();
+    private final NavigableSet<Player> ranking = new ConcurrentSkipListSet<>(
+            Comparator.comparingInt(Player::getMoney).reversed().thenComparing(Player::getId));
+
+    @Override
+    public Mono<Player> findByName(String playerName) {
+        return Mono.defer(() -> {
+            String id = idsByName.get(playerName);
+            return id == null ? Mono.empty() : findById(id);
+        });
+    }
+
+    @Override
+    public Flux<Player> findAllByOrderByMoneyDesc() {
+        return Flux.defer(() -> Flux.fromIterable(ranking).map(this::copy));
+    }
+
+    @Override
+    public Mono<Player> upsertByName(String playerName) {
+        return Mono.defer(() -> {
+            String id = idsByName.computeIfAbsent(playerName, name -> {
+                Player player = new Player(name);
+                player.setId(ObjectId.get().toHexString());
+                entities.put(player.getId(), player);
+                ranking.add(player);
+                onCreate(player);
+                return player.getId();
+            });
+            return findById(id);
+        });
+    }
+
+    @Override
+    public Mono<Boolean> appendWalletEntry(WalletEntry entry) {
+        return Mono.fromCallable(() -> {
+            AtomicBoolean appended = new AtomicBoolean();
+            entities.computeIfPresent(entry.getPlayerId(), (id, player) -> {
+                if (entry.getId() != null && player.getCreditedPayouts().contains(entry.getId())) return player;
+                Player updated = copy(player);
+                updated.setMoney(player.getMoney() + entry.getAmount());
+                updated.setGamesPlayed(player.getGamesPlayed() + entry.getGamesPlayed());
+                if (entry.getId() != null) {
+                    List<String> creditedPayouts = updated.getCreditedPayouts();
+                    creditedPayouts.add(entry.getId());
+                    if (creditedPayouts.size() > CREDITED_PAYOUTS_KEPT) creditedPayouts.removeFirst();
+                }
+                onSave(player, updated);
+                appended.set(true);
+                return updated;
+            });
+            return appended.get();
+        });
+    }
+
+    @Override
+    public Mono<Player> findBalanceById(String playerId) {
+        return findById(playerId);
+    }
+
+    @Override
+    public Mono<Player> findBalanceByName(String playerName) {
+        return findByName(playerName);
+    }
+
+    @Override
+    public Flux<Player> findAllBalancesByOrderByMoneyDesc() {
+        return findAllByOrderByMoneyDesc();
+    }
+
+    @Override
+    public Mono<Long> compactWallets(Instant before) {
+        return Mono.just(0L);
+    }
+
+    //Called when upsertByName creates the player, which bypasses save
+    protected void onCreate(Player created) {
+    }
+
+    @Override
+    protected void onSave(Player previous, Player saved) {
+        String nameOwner = idsByName.putIfAbsent(saved.getName(), saved.getId());
+        if (nameOwner != null && !nameOwner.equals(saved.getId())) {
+            throw new DuplicateKeyException("Duplicate player name: " + saved.getName());
+        }
+        if (previous != null) {
+            ranking.remove(previous);
+            if (!previous.getName().equals(saved.getName())) idsByName.remove(previous.getName(), saved.getId());
+        }
+        ranking.add(saved);
+    }
+
+    @Override
+    protected void onDelete(Player deleted) {
+        ranking.remove(deleted);
+        idsByName.remove(deleted.getName(), deleted.getId());
+    }
+
+    @Override
+    protected String getId(Player player) {
+        return player.getId();
+    }
+
+    @Override
+    protected void setId(Player player, String id) {
+        player.setId(id);
+    }
+
+    @Override
+    protected Player copy(Player player) {
+        Player copy = new Player(player.getName());
+        copy.setId(player.getId());
+        copy.setMoney(player.getMoney());
+        copy.setGamesPlayed(player.getGamesPlayed());
+        copy.setCreditedPayouts(new ArrayList<>(player.getCreditedPayouts()));
+        return copy;
+    }
+
+}
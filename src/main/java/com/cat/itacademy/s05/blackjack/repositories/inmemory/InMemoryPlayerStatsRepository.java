@@ -0,0 +1,48 @@
+package com.cat.itacademy.s05.blackjack.repositories.inmemory;
+
+import com.cat.itacademy.s05.blackjack.model.PlayerStats;
+import com.cat.itacademy.s05.blackjack.repositories.PlayerStatsRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Set;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryPlayerStatsRepository extends InMemoryReactiveRepository<PlayerStats> implements PlayerStatsRepository {
+
+    @Override
+    public Mono<Set<String>> incrementAll(Collection<PlayerStats> deltas) {
+        return Mono.fromCallable(() -> {
+            for (PlayerStats delta : deltas) {
+                entities.compute(delta.getId(), (id, previous) -> {
+                    PlayerStats updated = previous == null ? new PlayerStats(id) : copy(previous);
+                    updated.add(delta);
+                    onSave(previous, updated);
+                    return updated;
+                });
+            }
+            return Set.of();
+        });
+    }
+
+    @Override
+    protected String getId(PlayerStats stats) {
+        return stats.getId();
+    }
+
+    @Override
+    protected void setId(PlayerStats stats, String id) {
+        stats.setId(id);
+    }
+
+    @Override
+    protected PlayerStats copy(PlayerStats stats) {
+        PlayerStats copy = new PlayerStats(stats.getId());
+        copy.add(stats);
+        return copy;
+    }
+
+}
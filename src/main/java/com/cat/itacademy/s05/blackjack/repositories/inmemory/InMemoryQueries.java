@@ -0,0 +1,112 @@
+package com.cat.itacademy.s05.blackjack.repositories.inmemory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.ExampleMatcherAccessor;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Sorting and query by example over the stored entities, following what MongoDB does: missing values sort first,
+ * enums by name, primitive fields of the probe are always compared and empty collections of the probe are ignored.
+ */
+final class InMemoryQueries {
+
+    private InMemoryQueries() {
+    }
+
+    static <T> Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<T> byProperty = (a, b) -> compare(property(a, order.getProperty()),
+                    property(b, order.getProperty()), order.isIgnoreCase());
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    static boolean matches(Example<?> example, Object entity) {
+        Object probe = example.getProbe();
+        if (!probe.getClass().isInstance(entity)) return false;
+        return matchesFields(probe, entity, "", example.getMatcher(), new ExampleMatcherAccessor(example.getMatcher()));
+    }
+
+    private static Object property(Object entity, String path) {
+        return new DirectFieldAccessor(entity).getPropertyValue(path);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object a, Object b, boolean ignoreCase) {
+        if (a == null || b == null) return a == null ? (b == null ? 0 : -1) : 1;
+        if (a instanceof Enum<?> enumA && b instanceof Enum<?> enumB) return enumA.name().compareTo(enumB.name());
+        if (ignoreCase && a instanceof String stringA && b instanceof String stringB) {
+            return String.CASE_INSENSITIVE_ORDER.compare(stringA, stringB);
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private static boolean matchesFields(Object probe, Object entity, String prefix, ExampleMatcher matcher,
+                                         ExampleMatcherAccessor accessor) {
+        for (Class<?> type = probe.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+                        || field.isAnnotationPresent(Transient.class)) {
+                    continue;
+                }
+                String path = prefix + field.getName();
+                if (accessor.isIgnoredPath(path)) continue;
+                ReflectionUtils.makeAccessible(field);
+                Object expected = accessor.getValueTransformerForPath(path)
+                        .apply(Optional.ofNullable(ReflectionUtils.getField(field, probe)))
+                        .orElse(null);
+                Object actual = ReflectionUtils.getField(field, entity);
+                if (!matchesValue(expected, actual, path, matcher, accessor)) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesValue(Object expected, Object actual, String path, ExampleMatcher matcher,
+                                        ExampleMatcherAccessor accessor) {
+        if (expected == null) return matcher.getNullHandler() == ExampleMatcher.NullHandler.IGNORE || actual == null;
+        if (expected instanceof Collection<?> collection && collection.isEmpty()) return true;
+        if (expected instanceof Map<?, ?> map && map.isEmpty()) return true;
+        if (expected instanceof String string) {
+            return actual instanceof String value && matchesString(string, value,
+                    accessor.getStringMatcherForPath(path), accessor.isIgnoreCaseForPath(path));
+        }
+        if (expected instanceof Collection<?> || expected instanceof Map<?, ?>
+                || BeanUtils.isSimpleValueType(expected.getClass())) {
+            return Objects.equals(expected, actual);
+        }
+        return expected.getClass().isInstance(actual) && matchesFields(expected, actual, path + ".", matcher, accessor);
+    }
+
+    private static boolean matchesString(String expected, String actual, ExampleMatcher.StringMatcher stringMatcher,
+                                         boolean ignoreCase) {
+        return switch (stringMatcher) {
+            case DEFAULT, EXACT -> ignoreCase ? actual.equalsIgnoreCase(expected) : actual.equals(expected);
+            case STARTING -> actual.regionMatches(ignoreCase, 0, expected, 0, expected.length());
+            case ENDING -> actual.regionMatches(ignoreCase, actual.length() - expected.length(), expected, 0,
+                    expected.length());
+            case CONTAINING -> ignoreCase
+                    ? actual.toLowerCase(Locale.ROOT).contains(expected.toLowerCase(Locale.ROOT))
+                    : actual.contains(expected);
+            case REGEX -> Pattern.compile(expected, ignoreCase ? Pattern.CASE_INSENSITIVE : 0).matcher(actual).find();
+        };
+    }
+
+}
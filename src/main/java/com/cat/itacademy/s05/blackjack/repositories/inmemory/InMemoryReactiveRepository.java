@@ -0,0 +1,196 @@
+package com.cat.itacademy.s05.blackjack.repositories.inmemory;
+
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Reactive repository over a concurrent map. Entities are copied in and out, so callers can mutate what they read
+ * without touching the stored state, as with Mongo. Sorting and query by example are done over the stored entities.
+ */
+public abstract class InMemoryReactiveRepository<T> implements ReactiveMongoRepository<T, String> {
+
+    protected final Map<String, T> entities = new ConcurrentHashMap<>();
+
+    protected abstract String getId(T entity);
+
+    protected abstract void setId(T entity, String id);
+
+    protected abstract T copy(T entity);
+
+    //Called inside the atomic update of the entity, to keep secondary indexes in step
+    protected void onSave(T previous, T saved) {
+    }
+
+    protected void onDelete(T deleted) {
+    }
+
+    @Override
+    public <S extends T> Mono<S> save(S entity) {
+        return Mono.fromCallable(() -> {
+            if (getId(entity) == null) setId(entity, ObjectId.get().toHexString());
+            T stored = copy(entity);
+            entities.compute(getId(entity), (id, previous) -> {
+                onSave(previous, stored);
+                return stored;
+            });
+            return entity;
+        });
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends T> Mono<S> insert(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends T> Flux<S> insert(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public <S extends T> Flux<S> insert(Publisher<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public Mono<T> findById(String id) {
+        return Mono.fromCallable(() -> {
+            T entity = entities.get(id);
+            return entity == null ? null : copy(entity);
+        });
+    }
+
+    @Override
+    public Mono<T> findById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return Mono.fromCallable(() -> entities.containsKey(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<T> findAll() {
+        return Flux.defer(() -> Flux.fromIterable(entities.values()).map(this::copy));
+    }
+
+    @Override
+    public Flux<T> findAllById(Iterable<String> ids) {
+        return Flux.fromIterable(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<T> findAllById(Publisher<String> idStream) {
+        return Flux.from(idStream).concatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromCallable(() -> (long) entities.size());
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return Mono.fromRunnable(() -> entities.computeIfPresent(id, (key, deleted) -> {
+            onDelete(deleted);
+            return null;
+        }));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<String> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(T entity) {
+        return deleteById(getId(entity));
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+        return Flux.fromIterable(ids).concatMap(this::deleteById).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends T> entities) {
+        return Flux.fromIterable(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends T> entityStream) {
+        return Flux.from(entityStream).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Flux.fromIterable(entities.keySet()).concatMap(this::deleteById).then();
+    }
+
+    @Override
+    public Flux<T> findAll(Sort sort) {
+        return findAll().sort(InMemoryQueries.comparator(sort));
+    }
+
+    @Override
+    public <S extends T> Mono<S> findOne(Example<S> example) {
+        return findBy(example, FluentQuery.ReactiveFluentQuery::one);
+    }
+
+    @Override
+    public <S extends T> Flux<S> findAll(Example<S> example) {
+        return findBy(example, FluentQuery.ReactiveFluentQuery::all);
+    }
+
+    @Override
+    public <S extends T> Flux<S> findAll(Example<S> example, Sort sort) {
+        return findBy(example, query -> query.sortBy(sort).all());
+    }
+
+    @Override
+    public <S extends T> Mono<Long> count(Example<S> example) {
+        return findBy(example, FluentQuery.ReactiveFluentQuery::count);
+    }
+
+    @Override
+    public <S extends T> Mono<Boolean> exists(Example<S> example) {
+        return findBy(example, FluentQuery.ReactiveFluentQuery::exists);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends T, R, P extends Publisher<R>> P findBy(Example<S> example,
+            Function<FluentQuery.ReactiveFluentQuery<S>, P> queryFunction) {
+        Flux<S> matching = findAll()
+                .filter(entity -> InMemoryQueries.matches(example, entity))
+                .map(entity -> (S) entity);
+        return queryFunction.apply(InMemoryFluentQuery.of(matching, example.getProbeType()));
+    }
+
+}
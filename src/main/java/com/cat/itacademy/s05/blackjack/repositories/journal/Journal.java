@@ -0,0 +1,264 @@
+package com.cat.itacademy.s05.blackjack.repositories.journal;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of the game and player changes, kept in memory-mapped segment files of a fixed size.
+ * <p>
+ * Each record is its length, a CRC32C of its content and the content. Reading a segment stops at the first record
+ * that is empty, truncated or fails its checksum, which is where a crash left it. Appends only copy the record into
+ * the mapped segment; a background task forces the segment to disk every few milliseconds, so the changes of the
+ * last flush interval can be lost on a power failure, but not on a crash of the process.
+ * <p>
+ * Once enough segments have been sealed they are compacted in the background into a snapshot holding one record
+ * per live game and player. A snapshot replaces all the segments up to its index, and startup replays the latest
+ * snapshot followed by the newer segments.
+ */
+@Component
+@Profile("journal")
+public class Journal {
+
+    private static final Logger log = LoggerFactory.getLogger(Journal.class);
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final String SEGMENT = "segment-";
+    private static final String SNAPSHOT = "snapshot-";
+    private static final String EXTENSION = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int compactSegments;
+    private final ScheduledExecutorService background;
+    private final ThreadLocal<ByteBuffer> scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(4096));
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final JournalState recoveredState;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentIndex;
+    private volatile long snapshotIndex;
+    private volatile boolean dirty;
+
+    public Journal(@Value("${journalDirectory:journal}") String directory,
+                   @Value("${journalSegmentBytes:67108864}") int segmentBytes,
+                   @Value("${journalFlushMillis:10}") long flushMillis,
+                   @Value("${journalCompactSegments:4}") int compactSegments) {
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        this.compactSegments = Math.max(1, compactSegments);
+        try {
+            Files.createDirectories(this.directory);
+            this.snapshotIndex = latestIndex(SNAPSHOT);
+            this.recoveredState = read(snapshotIndex, Long.MAX_VALUE);
+            //A segment left by a crash may end in a torn record, so writing always resumes in a new one
+            openSegment(Math.max(snapshotIndex, latestIndex(SEGMENT)) + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open the journal in " + directory, e);
+        }
+        this.background = Executors.newScheduledThreadPool(2, Thread.ofPlatform().name("journal-", 0).daemon().factory());
+        background.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public JournalState getRecoveredState() {
+        return recoveredState;
+    }
+
+    public void append(JournalRecord record) {
+        ByteBuffer content = encode(record);
+        CRC32C crc = new CRC32C();
+        crc.update(content.duplicate());
+        int length = content.remaining();
+        if (HEADER_BYTES + length > segmentBytes) {
+            throw new IllegalArgumentException("Journal record of " + length + " bytes does not fit in a segment");
+        }
+        synchronized (this) {
+            if (segment.remaining() < HEADER_BYTES + length) roll();
+            segment.putInt(length).putInt((int) crc.getValue()).put(content);
+            dirty = true;
+        }
+    }
+
+    public void flush() {
+        MappedByteBuffer current;
+        synchronized (this) {
+            if (!dirty) return;
+            dirty = false;
+            current = segment;
+        }
+        current.force();
+    }
+
+    //Compacts the sealed segments into a snapshot, unless a compaction is already running
+    public void compact() {
+        if (!compacting.compareAndSet(false, true)) return;
+        try {
+            long upTo;
+            synchronized (this) {
+                upTo = segmentIndex - 1;
+            }
+            if (upTo <= snapshotIndex) return;
+            JournalState state = read(snapshotIndex, upTo);
+            Path temporary = directory.resolve(SNAPSHOT + "tmp");
+            writeSnapshot(state, temporary);
+            Files.move(temporary, path(SNAPSHOT, upTo), StandardCopyOption.ATOMIC_MOVE);
+            snapshotIndex = upTo;
+            for (long index : indexes(SEGMENT)) {
+                if (index <= upTo) Files.deleteIfExists(path(SEGMENT, index));
+            }
+            for (long index : indexes(SNAPSHOT)) {
+                if (index < upTo) Files.deleteIfExists(path(SNAPSHOT, index));
+            }
+        } catch (IOException e) {
+            log.warn("Journal compaction failed, the segments are kept", e);
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        background.shutdownNow();
+        segment.force();
+        channel.close();
+    }
+
+    private ByteBuffer encode(JournalRecord record) {
+        ByteBuffer buffer = scratch.get();
+        while (true) {
+            try {
+                buffer.clear();
+                JournalCodec.write(record, buffer);
+                return buffer.flip();
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                scratch.set(buffer);
+            }
+        }
+    }
+
+    //The sealed segment is forced in the background, appends go on in the new one meanwhile
+    private void roll() {
+        MappedByteBuffer sealed = segment;
+        FileChannel sealedChannel = channel;
+        try {
+            openSegment(segmentIndex + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to roll the journal segment " + segmentIndex, e);
+        }
+        background.execute(() -> {
+            sealed.force();
+            try {
+                sealedChannel.close();
+            } catch (IOException e) {
+                log.warn("Unable to close a sealed journal segment", e);
+            }
+        });
+        if (segmentIndex - 1 - snapshotIndex >= compactSegments) background.execute(this::compact);
+    }
+
+    private void openSegment(long index) throws IOException {
+        channel = FileChannel.open(path(SEGMENT, index),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        segmentIndex = index;
+    }
+
+    //Replays the snapshot of the given index, if any, and the segments after it up to the given one
+    private JournalState read(long snapshot, long upToSegment) throws IOException {
+        JournalState state = new JournalState();
+        if (snapshot > 0) read(path(SNAPSHOT, snapshot), state);
+        for (long index : indexes(SEGMENT)) {
+            if (index > snapshot && index <= upToSegment) read(path(SEGMENT, index), state);
+        }
+        return state;
+    }
+
+    private void read(Path file, JournalState state) throws IOException {
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = reader.map(FileChannel.MapMode.READ_ONLY, 0, reader.size());
+            CRC32C crc = new CRC32C();
+            while (buffer.remaining() >= HEADER_BYTES) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) return;
+                ByteBuffer content = buffer.slice(buffer.position(), length);
+                crc.reset();
+                crc.update(content.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Journal file {} ends in a corrupted record at byte {}", file.getFileName(),
+                            buffer.position() - HEADER_BYTES);
+                    return;
+                }
+                state.apply(JournalCodec.read(content));
+                buffer.position(buffer.position() + length);
+            }
+        }
+    }
+
+    private void writeSnapshot(JournalState state, Path file) throws IOException {
+        try (FileChannel writer = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer out = ByteBuffer.allocateDirect(1 << 20);
+            CRC32C crc = new CRC32C();
+            for (JournalRecord record : (Iterable<JournalRecord>) state.toRecords()::iterator) {
+                ByteBuffer content = encode(record);
+                if (out.remaining() < HEADER_BYTES + content.remaining()) {
+                    writeFully(writer, out.flip());
+                    out.clear();
+                }
+                crc.reset();
+                crc.update(content.duplicate());
+                out.putInt(content.remaining()).putInt((int) crc.getValue()).put(content);
+            }
+            writeFully(writer, out.flip());
+            writer.force(true);
+        }
+    }
+
+    private static void writeFully(FileChannel writer, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) writer.write(buffer);
+    }
+
+    private Path path(String prefix, long index) {
+        return directory.resolve(prefix + String.format("%016d", index) + EXTENSION);
+    }
+
+    private List<Long> indexes(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(EXTENSION))
+                    .map(name -> Long.parseLong(name, prefix.length(), name.length() - EXTENSION.length(), 10))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private long latestIndex(String prefix) throws IOException {
+        List<Long> indexes = indexes(prefix);
+        return indexes.isEmpty() ? 0 : indexes.getLast();
+    }
+
+}
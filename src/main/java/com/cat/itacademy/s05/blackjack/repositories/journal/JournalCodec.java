@@ -0,0 +1,238 @@
+package com.cat.itacademy.s05.blackjack.repositories.journal;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.enums.Rank;
+import com.cat.itacademy.s05.blackjack.enums.Suit;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Croupier;
+import com.cat.itacademy.s05.blackjack.model.Deck;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.Payout;
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import com.cat.itacademy.s05.blackjack.model.PlayerStats;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.GameDeleted;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.GameSaved;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.PayoutCredited;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.PlayerDeleted;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.PlayerSaved;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.PlayerStatsSaved;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.WalletChanged;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Binary layout of the journal records: a type byte followed by the fields of the record. Cards take a byte each and
+ * enums are stored by ordinal, so constants must only ever be appended to Suit, Rank and PlayerStatus. The game layout
+ * is also the one of archived games.
+ * <p>
+ * Fields added later go at the end of a record and are only written when set, so older records, which end before
+ * them, are still read.
+ */
+public final class JournalCodec {
+
+    private static final byte GAME_SAVED = 1;
+    private static final byte GAME_DELETED = 2;
+    private static final byte PLAYER_SAVED = 3;
+    private static final byte PLAYER_DELETED = 4;
+    private static final byte WALLET_CHANGED = 5;
+    private static final byte PLAYER_STATS_SAVED = 6;
+    private static final byte PAYOUT_CREDITED = 7;
+
+    private static final Suit[] SUITS = Suit.values();
+    private static final Rank[] RANKS = Rank.values();
+    private static final PlayerStatus[] STATUSES = PlayerStatus.values();
+
+    private JournalCodec() {
+    }
+
+    static void write(JournalRecord record, ByteBuffer buffer) {
+        switch (record) {
+            case GameSaved(Game game) -> {
+                buffer.put(GAME_SAVED);
+                writeGame(game, buffer);
+            }
+            case GameDeleted(String gameId) -> {
+                buffer.put(GAME_DELETED);
+                writeString(gameId, buffer);
+            }
+            case PlayerSaved(Player player) -> {
+                buffer.put(PLAYER_SAVED);
+                writeString(player.getId(), buffer);
+                writeString(player.getName(), buffer);
+                buffer.putInt(player.getMoney());
+                buffer.putInt(player.getGamesPlayed());
+                if (!player.getCreditedPayouts().isEmpty()) {
+                    buffer.putShort((short) player.getCreditedPayouts().size());
+                    for (String payoutId : player.getCreditedPayouts()) writeString(payoutId, buffer);
+                }
+            }
+            case PlayerDeleted(String playerId) -> {
+                buffer.put(PLAYER_DELETED);
+                writeString(playerId, buffer);
+            }
+            case WalletChanged(String playerId, int moneyDelta, int gamesPlayedDelta) -> {
+                buffer.put(WALLET_CHANGED);
+                writeString(playerId, buffer);
+                buffer.putInt(moneyDelta);
+                buffer.putInt(gamesPlayedDelta);
+            }
+            case PayoutCredited(String playerId, String payoutId, int winnings) -> {
+                buffer.put(PAYOUT_CREDITED);
+                writeString(playerId, buffer);
+                writeString(payoutId, buffer);
+                buffer.putInt(winnings);
+            }
+            case PlayerStatsSaved(PlayerStats stats) -> {
+                buffer.put(PLAYER_STATS_SAVED);
+                writeString(stats.getId(), buffer);
+                buffer.putLong(stats.getHands());
+                buffer.putLong(stats.getWins());
+                buffer.putLong(stats.getBlackjacks());
+                buffer.putLong(stats.getTies());
+                buffer.putLong(stats.getLosses());
+                buffer.putLong(stats.getSurrenders());
+                buffer.putLong(stats.getTotalBet());
+                buffer.putLong(stats.getNetResult());
+            }
+        }
+    }
+
+    static JournalRecord read(ByteBuffer buffer) {
+        byte type = buffer.get();
+        return switch (type) {
+            case GAME_SAVED -> new GameSaved(readGame(buffer));
+            case GAME_DELETED -> new GameDeleted(readString(buffer));
+            case PLAYER_SAVED -> {
+                Player player = new Player(null);
+                player.setId(readString(buffer));
+                player.setName(readString(buffer));
+                player.setMoney(buffer.getInt());
+                player.setGamesPlayed(buffer.getInt());
+                if (buffer.hasRemaining()) {
+                    int creditedPayouts = buffer.getShort();
+                    for (int i = 0; i < creditedPayouts; i++) player.getCreditedPayouts().add(readString(buffer));
+                }
+                yield new PlayerSaved(player);
+            }
+            case PLAYER_DELETED -> new PlayerDeleted(readString(buffer));
+            case WALLET_CHANGED -> new WalletChanged(readString(buffer), buffer.getInt(), buffer.getInt());
+            case PAYOUT_CREDITED -> new PayoutCredited(readString(buffer), readString(buffer), buffer.getInt());
+            case PLAYER_STATS_SAVED -> {
+                PlayerStats stats = new PlayerStats(readString(buffer));
+                stats.setHands(buffer.getLong());
+                stats.setWins(buffer.getLong());
+                stats.setBlackjacks(buffer.getLong());
+                stats.setTies(buffer.getLong());
+                stats.setLosses(buffer.getLong());
+                stats.setSurrenders(buffer.getLong());
+                stats.setTotalBet(buffer.getLong());
+                stats.setNetResult(buffer.getLong());
+                yield new PlayerStatsSaved(stats);
+            }
+            default -> throw new IllegalStateException("Unknown journal record type: " + type);
+        };
+    }
+
+    public static void writeGame(Game game, ByteBuffer buffer) {
+        writeString(game.getId(), buffer);
+        buffer.put((byte) (game.isConcluded() ? 1 : 0));
+        buffer.putInt(game.getActivePlayerIndex());
+        buffer.putLong(game.getLastModified() == null ? -1 : game.getLastModified().toEpochMilli());
+        writeCards(game.getCroupier().getCards(), buffer);
+        buffer.putShort((short) game.getPlayers().size());
+        for (PlayerInGame player : game.getPlayers()) {
+            writeString(player.getId(), buffer);
+            writeString(player.getName(), buffer);
+            buffer.putInt(player.getBet());
+            buffer.put((byte) player.getStatus().ordinal());
+            writeCards(player.getCards(), buffer);
+        }
+        buffer.put((byte) (game.getDeck() == null ? 0 : 1));
+        if (game.getDeck() != null) writeCards(game.getDeck().getDeck(), buffer);
+        if (game.isSettlementPending()) {
+            buffer.putShort((short) game.getPendingPayouts().size());
+            for (Payout payout : game.getPendingPayouts()) {
+                writeString(payout.id(), buffer);
+                writeString(payout.playerId(), buffer);
+                buffer.put((byte) payout.status().ordinal());
+                buffer.putInt(payout.bet());
+                buffer.putInt(payout.winnings());
+            }
+        }
+    }
+
+    public static Game readGame(ByteBuffer buffer) {
+        Game game = new Game();
+        game.setId(readString(buffer));
+        game.setConcluded(buffer.get() == 1);
+        game.setActivePlayerIndex(buffer.getInt());
+        long lastModified = buffer.getLong();
+        if (lastModified >= 0) game.setLastModified(Instant.ofEpochMilli(lastModified));
+        Croupier croupier = new Croupier();
+        croupier.setCards(readCards(buffer, new ArrayList<>()));
+        game.setCroupier(croupier);
+        int players = buffer.getShort();
+        for (int i = 0; i < players; i++) {
+            PlayerInGame player = new PlayerInGame(readString(buffer), readString(buffer));
+            player.setBet(buffer.getInt());
+            player.setStatus(STATUSES[buffer.get()]);
+            player.setCards(readCards(buffer, new ArrayList<>()));
+            game.getPlayers().add(player);
+        }
+        if (buffer.get() == 1) {
+            Deck deck = new Deck();
+            deck.setDeck(readCards(buffer, new LinkedList<>()));
+            game.setDeck(deck);
+        }
+        if (buffer.hasRemaining()) {
+            int payouts = buffer.getShort();
+            for (int i = 0; i < payouts; i++) {
+                game.getPendingPayouts().add(new Payout(readString(buffer), readString(buffer), STATUSES[buffer.get()],
+                        buffer.getInt(), buffer.getInt()));
+            }
+            game.setSettlementPending(true);
+        }
+        return game;
+    }
+
+    private static void writeCards(List<Card> cards, ByteBuffer buffer) {
+        buffer.putShort((short) cards.size());
+        for (Card card : cards) {
+            buffer.put((byte) (card.suit().ordinal() << 4 | card.rank().ordinal()));
+        }
+    }
+
+    private static List<Card> readCards(ByteBuffer buffer, List<Card> cards) {
+        int size = buffer.getShort();
+        for (int i = 0; i < size; i++) {
+            byte card = buffer.get();
+            cards.add(new Card(SUITS[card >> 4], RANKS[card & 0x0F]));
+        }
+        return cards;
+    }
+
+    private static void writeString(String value, ByteBuffer buffer) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.cat.itacademy.s05.blackjack.repositories.journal;
+
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.repositories.inmemory.InMemoryGameRepository;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.GameDeleted;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.GameSaved;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Games in memory, recovered from the journal at startup and journaled on every change.
+ */
+@Repository
+@Profile("journal")
+public class JournalGameRepository extends InMemoryGameRepository {
+
+    private final Journal journal;
+
+    public JournalGameRepository(Journal journal) {
+        this.journal = journal;
+        for (Game game : journal.getRecoveredState().takeGames()) {
+            entities.put(game.getId(), game);
+        }
+    }
+
+    @Override
+    protected void onSave(Game previous, Game saved) {
+        journal.append(new GameSaved(saved));
+    }
+
+    @Override
+    protected void onDelete(Game deleted) {
+        journal.append(new GameDeleted(deleted.getId()));
+    }
+
+}
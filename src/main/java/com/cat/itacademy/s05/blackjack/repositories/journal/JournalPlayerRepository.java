@@ -0,0 +1,62 @@
+package com.cat.itacademy.s05.blackjack.repositories.journal;
+
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.repositories.inmemory.InMemoryPlayerRepository;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.PayoutCredited;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.PlayerDeleted;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.PlayerSaved;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.WalletChanged;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Players in memory, recovered from the journal at startup and journaled on every change. Saves that keep the name
+ * are journaled as a wallet delta, or as the payout credited when there is a new one.
+ */
+@Repository
+@Profile("journal")
+public class JournalPlayerRepository extends InMemoryPlayerRepository {
+
+    private final Journal journal;
+
+    public JournalPlayerRepository(Journal journal) {
+        this.journal = journal;
+        for (Player player : journal.getRecoveredState().takePlayers()) {
+            super.onSave(null, player);
+            entities.put(player.getId(), player);
+        }
+    }
+
+    @Override
+    protected void onCreate(Player created) {
+        journal.append(new PlayerSaved(created));
+    }
+
+    @Override
+    protected void onSave(Player previous, Player saved) {
+        super.onSave(previous, saved);
+        if (previous == null || !previous.getName().equals(saved.getName())) {
+            journal.append(new PlayerSaved(saved));
+            return;
+        }
+        int moneyDelta = saved.getMoney() - previous.getMoney();
+        int gamesPlayedDelta = saved.getGamesPlayed() - previous.getGamesPlayed();
+        List<String> creditedPayouts = saved.getCreditedPayouts();
+        if (!creditedPayouts.isEmpty() && !previous.getCreditedPayouts().contains(creditedPayouts.getLast())) {
+            journal.append(new PayoutCredited(saved.getId(), creditedPayouts.getLast(), moneyDelta));
+            return;
+        }
+        if (moneyDelta != 0 || gamesPlayedDelta != 0) {
+            journal.append(new WalletChanged(saved.getId(), moneyDelta, gamesPlayedDelta));
+        }
+    }
+
+    @Override
+    protected void onDelete(Player deleted) {
+        super.onDelete(deleted);
+        journal.append(new PlayerDeleted(deleted.getId()));
+    }
+
+}
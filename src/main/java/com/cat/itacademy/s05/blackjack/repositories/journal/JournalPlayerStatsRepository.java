@@ -0,0 +1,31 @@
+package com.cat.itacademy.s05.blackjack.repositories.journal;
+
+import com.cat.itacademy.s05.blackjack.model.PlayerStats;
+import com.cat.itacademy.s05.blackjack.repositories.inmemory.InMemoryPlayerStatsRepository;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.PlayerStatsSaved;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Player stats in memory, recovered from the journal at startup. Stats are journaled whole, once per flush of the
+ * player's hands.
+ */
+@Repository
+@Profile("journal")
+public class JournalPlayerStatsRepository extends InMemoryPlayerStatsRepository {
+
+    private final Journal journal;
+
+    public JournalPlayerStatsRepository(Journal journal) {
+        this.journal = journal;
+        for (PlayerStats stats : journal.getRecoveredState().takePlayerStats()) {
+            entities.put(stats.getId(), stats);
+        }
+    }
+
+    @Override
+    protected void onSave(PlayerStats previous, PlayerStats saved) {
+        journal.append(new PlayerStatsSaved(saved));
+    }
+
+}
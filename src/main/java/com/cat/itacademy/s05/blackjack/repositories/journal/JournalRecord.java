@@ -0,0 +1,28 @@
+package com.cat.itacademy.s05.blackjack.repositories.journal;
+
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.PlayerStats;
+
+/**
+ * State change written to the journal. Games and players are journaled whole; money and games played of an
+ * existing player are journaled as deltas, which keeps the records of a settled hand small.
+ */
+public sealed interface JournalRecord {
+
+    record GameSaved(Game game) implements JournalRecord {}
+
+    record GameDeleted(String gameId) implements JournalRecord {}
+
+    record PlayerSaved(Player player) implements JournalRecord {}
+
+    record PlayerDeleted(String playerId) implements JournalRecord {}
+
+    record WalletChanged(String playerId, int moneyDelta, int gamesPlayedDelta) implements JournalRecord {}
+
+    //A payout and the game played it adds, journaled with its id so that replaying it can't credit it twice
+    record PayoutCredited(String playerId, String payoutId, int winnings) implements JournalRecord {}
+
+    record PlayerStatsSaved(PlayerStats stats) implements JournalRecord {}
+
+}
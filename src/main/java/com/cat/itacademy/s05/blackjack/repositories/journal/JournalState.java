@@ -0,0 +1,86 @@
+package com.cat.itacademy.s05.blackjack.repositories.journal;
+
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.PlayerStats;
+import com.cat.itacademy.s05.blackjack.repositories.inmemory.InMemoryPlayerRepository;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.GameDeleted;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.GameSaved;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.PayoutCredited;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.PlayerDeleted;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.PlayerSaved;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.PlayerStatsSaved;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.WalletChanged;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Games, players and player stats as left by replaying journal records in order.
+ */
+public class JournalState {
+
+    private Map<String, Game> games = new LinkedHashMap<>();
+    private Map<String, Player> players = new LinkedHashMap<>();
+    private Map<String, PlayerStats> playerStats = new LinkedHashMap<>();
+
+    void apply(JournalRecord record) {
+        switch (record) {
+            case GameSaved(Game game) -> games.put(game.getId(), game);
+            case GameDeleted(String gameId) -> games.remove(gameId);
+            case PlayerSaved(Player player) -> players.put(player.getId(), player);
+            case PlayerDeleted(String playerId) -> players.remove(playerId);
+            case WalletChanged(String playerId, int moneyDelta, int gamesPlayedDelta) -> {
+                Player player = players.get(playerId);
+                if (player != null) {
+                    player.setMoney(player.getMoney() + moneyDelta);
+                    player.setGamesPlayed(player.getGamesPlayed() + gamesPlayedDelta);
+                }
+            }
+            case PayoutCredited(String playerId, String payoutId, int winnings) -> {
+                Player player = players.get(playerId);
+                if (player != null) {
+                    player.setMoney(player.getMoney() + winnings);
+                    player.setGamesPlayed(player.getGamesPlayed() + 1);
+                    List<String> creditedPayouts = player.getCreditedPayouts();
+                    creditedPayouts.add(payoutId);
+                    if (creditedPayouts.size() > InMemoryPlayerRepository.CREDITED_PAYOUTS_KEPT) {
+                        creditedPayouts.removeFirst();
+                    }
+                }
+            }
+            case PlayerStatsSaved(PlayerStats stats) -> playerStats.put(stats.getId(), stats);
+        }
+    }
+
+    //The records that rebuild this state, used to write it as a snapshot
+    Stream<JournalRecord> toRecords() {
+        return Stream.of(players.values().stream().map(PlayerSaved::new),
+                        playerStats.values().stream().map(PlayerStatsSaved::new),
+                        games.values().stream().map(GameSaved::new))
+                .flatMap(records -> records);
+    }
+
+    //Hands the recovered games over to their repository, which becomes their only owner
+    public Collection<Game> takeGames() {
+        Collection<Game> taken = games.values();
+        games = new LinkedHashMap<>();
+        return taken;
+    }
+
+    public Collection<Player> takePlayers() {
+        Collection<Player> taken = players.values();
+        players = new LinkedHashMap<>();
+        return taken;
+    }
+
+    public Collection<PlayerStats> takePlayerStats() {
+        Collection<PlayerStats> taken = playerStats.values();
+        playerStats = new LinkedHashMap<>();
+        return taken;
+    }
+
+}
@@ -1,9 +1,11 @@
 package com.cat.itacademy.s05.blackjack.services;
 
+import com.cat.itacademy.s05.blackjack.engine.Settlement;
 import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
 import com.cat.itacademy.s05.blackjack.exceptions.custom.IllegalPlayerStatusException;
 import com.cat.itacademy.s05.blackjack.exceptions.custom.IllegalGameStateException;
-import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.metrics.HouseMetrics;
+import com.cat.itacademy.s05.blackjack.model.Payout;
 import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
 import com.cat.itacademy.s05.blackjack.utils.BlackjackHelper;
 import org.springframework.stereotype.Service;
@@ -12,73 +14,47 @@ import reactor.core.publisher.Mono;
 @Service
 public class CleanUpService {
 
-    private final BlackjackHelper helper;
+    private final Settlement settlement;
     private final PlayerService playerService;
+    private final PlayerStatsService playerStatsService;
+    private final HouseMetrics houseMetrics;
 
-    public CleanUpService(BlackjackHelper helper, PlayerService playerService) {
-        this.helper = helper;
+    public CleanUpService(BlackjackHelper helper, PlayerService playerService, PlayerStatsService playerStatsService,
+                          HouseMetrics houseMetrics) {
+        this.settlement = new Settlement(helper);
         this.playerService = playerService;
+        this.playerStatsService = playerStatsService;
+        this.houseMetrics = houseMetrics;
     }
 
-    public Mono<Player> resolveBet(PlayerInGame playerInGame) {
-        return getWinnings(playerInGame)
-                .flatMap(winnings -> updatePlayer(playerInGame.getId(), winnings));
-    }
-
-    public Mono<PlayerInGame> determinePlayerFinalStatus(PlayerInGame playerInGame, boolean croupierHasBlackjack,
-                                                         int croupierScore) {
-        try {
-            playerInGame.setStatus(determinePlayerStatus(playerInGame, croupierHasBlackjack, croupierScore));
-            return Mono.just(playerInGame);
-        }catch (IllegalGameStateException e) {
-            return Mono.error(e);
+    //The payout of the hand at the given position of a concluded game, to be credited by the SettlementService
+    public Mono<Payout> resolveBet(String gameId, int position, PlayerInGame playerInGame) {
+        int winnings = settlement.getWinnings(playerInGame);
+        if (winnings < 0) {
+            return Mono.error(new IllegalPlayerStatusException("Invalid player status for player: " + playerInGame.getId()));
         }
-
+        return Mono.just(new Payout(Payout.id(gameId, position), playerInGame.getId(), playerInGame.getStatus(),
+                playerInGame.getBet(), winnings));
     }
 
-    private PlayerStatus determinePlayerStatus(PlayerInGame player, boolean croupierHasBlackjack, int croupierScore) {
-        if (player.getStatus() == PlayerStatus.SURRENDER) {
-            return PlayerStatus.SURRENDER;
-        } else if (helper.isBlackjack(player.getCards()) && !croupierHasBlackjack) {
-            return PlayerStatus.BLACKJACK;
-        } else if (player.getStatus() == PlayerStatus.BUST || helper.isBust(player.getCards())) {
-            return PlayerStatus.LOOSE;
-        } else if (croupierScore > 21 || helper.getHandValue(player.getCards()) > croupierScore) {
-            return PlayerStatus.WIN;
-        } else if ((croupierHasBlackjack && !helper.isBlackjack(player.getCards())) ||
-                croupierScore > helper.getHandValue(player.getCards())) {
-            return PlayerStatus.LOOSE;
-        } else if (helper.getHandValue(player.getCards()) == croupierScore) {
-            return PlayerStatus.TIE;
-        }
-        throw new IllegalGameStateException("Unexpected game state for player: " + player.getId());
+    //False when the payout was already credited, and then it isn't counted again either
+    public Mono<Boolean> creditPayout(String gameId, Payout payout) {
+        return playerService.creditPayout(payout.playerId(), payout.id(), payout.winnings())
+                .doOnNext(credited -> {
+                    if (!credited) return;
+                    houseMetrics.recordSettlement(gameId, payout.bet(), payout.winnings());
+                    playerStatsService.recordHand(payout.playerId(), payout.status(), payout.bet(), payout.winnings());
+                });
     }
 
-    private Mono<Integer> getWinnings(PlayerInGame player) {
-        try {
-            int winnings = switch (player.getStatus()) {
-                case SURRENDER -> helper.getSurrenderPayout(player.getBet());
-                case BLACKJACK -> helper.getBlackjackPayout(player.getBet());
-                case TIE -> helper.getTiePayout(player.getBet());
-                case PlayerStatus.WIN -> helper.getWinPayout(player.getBet());
-                case PlayerStatus.LOOSE -> 0;
-                default -> throw new IllegalPlayerStatusException("Invalid player status for player: " + player.getId());
-            };
-            return Mono.just(winnings);
-        }catch (IllegalPlayerStatusException e) {
-            return Mono.error(e);
+    public Mono<PlayerInGame> determinePlayerFinalStatus(PlayerInGame playerInGame, boolean croupierHasBlackjack,
+                                                         int croupierScore) {
+        PlayerStatus status = settlement.getFinalStatus(playerInGame, croupierHasBlackjack, croupierScore);
+        if (status == null) {
+            return Mono.error(new IllegalGameStateException("Unexpected game state for player: " + playerInGame.getId()));
         }
-
-
-    }
-
-    private Mono<Player> updatePlayer(String playerId, int winnings) {
-        return playerService.getPlayerById(playerId)
-                .flatMap(player -> {
-                    player.setGamesPlayed(player.getGamesPlayed() + 1);
-                    player.setMoney(player.getMoney() + winnings);
-                    return playerService.savePlayer(player);
-                });
+        playerInGame.setStatus(status);
+        return Mono.just(playerInGame);
     }
 
 }
@@ -1,7 +1,9 @@
 package com.cat.itacademy.s05.blackjack.services;
 
+import com.cat.itacademy.s05.blackjack.engine.CardDealer;
 import com.cat.itacademy.s05.blackjack.enums.Rank;
 import com.cat.itacademy.s05.blackjack.enums.Suit;
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
 import com.cat.itacademy.s05.blackjack.model.Card;
 import com.cat.itacademy.s05.blackjack.model.Deck;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,11 +13,17 @@ import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
 @Service
-public class DeckService {
+public class DeckService implements CardDealer {
 
     @Value("${numberOfDecks}")
     private int numberOfDecks;
 
+    private final GameMetrics gameMetrics;
+
+    public DeckService(GameMetrics gameMetrics) {
+        this.gameMetrics = gameMetrics;
+    }
+
     public Deck generateDeck(Deck deck){
         for (int i = 0; i < numberOfDecks; i++) {
             for (Suit suit : Suit.values()) {
@@ -31,8 +39,9 @@ public class DeckService {
         return deck.getDeck().remove(ThreadLocalRandom.current().nextInt(deck.getDeck().size()));
     }
 
+    @Override
     public void dealCard(Deck deck, List<Card> cards) {
-        cards.add(getCard(deck));
+        gameMetrics.timed(GameMetrics.Stage.DEAL_CARD, () -> cards.add(getCard(deck)));
     }
 
 }
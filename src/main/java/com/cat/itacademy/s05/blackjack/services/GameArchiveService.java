@@ -0,0 +1,220 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
+import com.cat.itacademy.s05.blackjack.metrics.HouseMetrics;
+import com.cat.itacademy.s05.blackjack.model.ArchivedGame;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Keeps the games collection down to the games being played. Concluded games untouched for gameArchiveAfterMinutes
+ * are moved in batches to the archivedGames collection, encoded without their deck and deflated, and read back from
+ * there when they are no longer live. Unconcluded games untouched for abandonedGameTtlMinutes are deleted.
+ * <p>
+ * Archival needs MongoDB; with the inmemory and journal profiles nothing is archived nor purged.
+ */
+@Service
+public class GameArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(GameArchiveService.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final LobbyService lobbyService;
+    private final TurnTimerService turnTimerService;
+    private final GameMetrics gameMetrics;
+    private final HouseMetrics houseMetrics;
+    private final boolean enabled;
+    private final Duration archiveAfter;
+    private final Duration abandonedAfter;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public GameArchiveService(ObjectProvider<ReactiveMongoTemplate> mongoTemplate, LobbyService lobbyService,
+                              TurnTimerService turnTimerService, GameMetrics gameMetrics, HouseMetrics houseMetrics,
+                              @Value("${gameArchiveEnabled:true}") boolean enabled,
+                              @Value("${gameArchiveAfterMinutes:1440}") long archiveAfterMinutes,
+                              @Value("${abandonedGameTtlMinutes:1440}") long abandonedAfterMinutes,
+                              @Value("${gameArchiveBatchSize:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate.getIfAvailable();
+        this.lobbyService = lobbyService;
+        this.turnTimerService = turnTimerService;
+        this.gameMetrics = gameMetrics;
+        this.houseMetrics = houseMetrics;
+        this.enabled = enabled && this.mongoTemplate != null;
+        this.archiveAfter = Duration.ofMinutes(archiveAfterMinutes);
+        this.abandonedAfter = Duration.ofMinutes(abandonedAfterMinutes);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public Mono<Game> findArchivedGame(String gameId) {
+        if (mongoTemplate == null) return Mono.empty();
+        return mongoTemplate.findById(gameId, ArchivedGame.class)
+                .map(archivedGame -> decode(archivedGame.getData()));
+    }
+
+    //Archived games last changed in [from, to), ordered by lastModified and then id, that come after the game after and
+    //not after the game upTo in that order; a null bound leaves that side open
+    public Flux<Game> findArchivedGames(Instant from, Instant to, Game after, Game upTo, int batchSize) {
+        if (mongoTemplate == null) return Flux.empty();
+        List<Criteria> bounds = new ArrayList<>();
+        bounds.add(Criteria.where("lastModified").gte(from).lt(to));
+        if (after != null) {
+            bounds.add(new Criteria().orOperator(
+                    Criteria.where("lastModified").gt(after.getLastModified()),
+                    Criteria.where("lastModified").is(after.getLastModified()).and("_id").gt(after.getId())));
+        }
+        if (upTo != null) {
+            bounds.add(new Criteria().orOperator(
+                    Criteria.where("lastModified").lt(upTo.getLastModified()),
+                    Criteria.where("lastModified").is(upTo.getLastModified()).and("_id").lte(upTo.getId())));
+        }
+        Query query = Query.query(new Criteria().andOperator(bounds))
+                .with(Sort.by("lastModified", "id"))
+                .cursorBatchSize(batchSize);
+        return mongoTemplate.find(query, ArchivedGame.class)
+                .map(archivedGame -> decode(archivedGame.getData()));
+    }
+
+    public Mono<Void> deleteArchivedGame(String gameId) {
+        if (mongoTemplate == null) return Mono.empty();
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").is(gameId)), ArchivedGame.class).then();
+    }
+
+    @Scheduled(initialDelayString = "${gameArchiveIntervalMillis:60000}", fixedDelayString = "${gameArchiveIntervalMillis:60000}")
+    public void run() {
+        if (!enabled || !running.compareAndSet(false, true)) return;
+        archiveConcludedGames()
+                .then(purgeAbandonedGames())
+                .doFinally(signal -> running.set(false))
+                .subscribe(unused -> {}, e -> log.warn("Could not archive games", e));
+    }
+
+    public Mono<Long> archiveConcludedGames() {
+        Instant cutoff = Instant.now().minus(archiveAfter);
+        return inBatches(() -> archiveBatch(cutoff));
+    }
+
+    public Mono<Long> purgeAbandonedGames() {
+        Instant cutoff = Instant.now().minus(abandonedAfter);
+        return inBatches(() -> purgeBatch(cutoff));
+    }
+
+    //Runs batches until one comes back short, adding up the games read
+    private Mono<Long> inBatches(Supplier<Mono<Integer>> batch) {
+        return Mono.defer(batch)
+                .repeat()
+                .takeUntil(games -> games < batchSize)
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Integer> archiveBatch(Instant cutoff) {
+        //Games saved before lastModified existed are archived too, games with payouts to credit aren't
+        Criteria archivable = Criteria.where("concluded").is(true).and("settlementPending").ne(true).orOperator(
+                Criteria.where("lastModified").lt(cutoff),
+                Criteria.where("lastModified").exists(false));
+        return mongoTemplate.find(Query.query(archivable).limit(batchSize), Game.class)
+                .collectList()
+                .flatMap(games -> {
+                    if (games.isEmpty()) return Mono.just(0);
+                    ReactiveBulkOperations archive = mongoTemplate.bulkOps(BulkMode.UNORDERED, ArchivedGame.class);
+                    for (Game game : games) {
+                        archive.replaceOne(Query.query(Criteria.where("_id").is(game.getId())),
+                                new ArchivedGame(game.getId(), game.getLastModified(), encode(game)),
+                                FindAndReplaceOptions.options().upsert());
+                    }
+                    List<String> gameIds = games.stream().map(Game::getId).toList();
+                    //A game changed since it was read stays live, and the live copy is the one read first
+                    Query archived = Query.query(Criteria.where("_id").in(gameIds).andOperator(archivable));
+                    return archive.execute()
+                            .then(mongoTemplate.remove(archived, Game.class))
+                            .doOnNext(result -> gameMetrics.countArchivedGames(result.getDeletedCount()))
+                            .thenReturn(games.size());
+                });
+    }
+
+    private Mono<Integer> purgeBatch(Instant cutoff) {
+        Criteria abandoned = Criteria.where("concluded").is(false).and("lastModified").lt(cutoff);
+        Query query = Query.query(abandoned).limit(batchSize);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Game.class)
+                .map(Game::getId)
+                .collectList()
+                .flatMap(gameIds -> {
+                    if (gameIds.isEmpty()) return Mono.just(0);
+                    Query purged = Query.query(Criteria.where("_id").in(gameIds).andOperator(abandoned));
+                    return mongoTemplate.remove(purged, Game.class)
+                            .doOnNext(result -> {
+                                gameMetrics.countPurgedGames(result.getDeletedCount());
+                                for (String gameId : gameIds) {
+                                    lobbyService.remove(gameId);
+                                    turnTimerService.cancel(gameId);
+                                    houseMetrics.closeTable(gameId);
+                                }
+                            })
+                            .thenReturn(gameIds.size());
+                });
+    }
+
+    static byte[] encode(Game game) {
+        game.setDeck(null);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        while (true) {
+            try {
+                JournalCodec.writeGame(game, buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(buffer.position());
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream stream = new DeflaterOutputStream(out, deflater)) {
+            stream.write(buffer.array(), 0, buffer.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    static Game decode(byte[] data) {
+        try (InflaterInputStream inflater = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            return JournalCodec.readGame(ByteBuffer.wrap(inflater.readAllBytes()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -3,6 +3,8 @@ import com.cat.itacademy.s05.blackjack.dto.PlayDTO;
 import com.cat.itacademy.s05.blackjack.dto.gamedto.GameDTO;
 import com.cat.itacademy.s05.blackjack.model.Game;
 import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.repositories.GameSearch;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface GameService {
@@ -18,7 +20,11 @@ public interface GameService {
 
     Mono<Player> updatePlayerNameInGames(Player player);
 
+    Flux<GameDTO> searchGames(GameSearch search);
+
     Mono<Void> executePlay(String game, PlayDTO play);
 
     Mono<String> joinGame(String gameId, String playerName);
+
+    Mono<String> quickJoinGame(String playerName);
 }
@@ -5,20 +5,34 @@ import com.cat.itacademy.s05.blackjack.config.Properties;
 import com.cat.itacademy.s05.blackjack.dto.PlayDTO;
 import com.cat.itacademy.s05.blackjack.dto.gamedto.GameDTO;
 import com.cat.itacademy.s05.blackjack.dto.gamedto.GameDTOFactory;
+import com.cat.itacademy.s05.blackjack.enums.Play;
 import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
 import com.cat.itacademy.s05.blackjack.exceptions.custom.GameNotFoundException;
 import com.cat.itacademy.s05.blackjack.exceptions.custom.GameNotJoinableException;
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
+import com.cat.itacademy.s05.blackjack.metrics.HouseMetrics;
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics.Stage;
 import com.cat.itacademy.s05.blackjack.model.*;
 import com.cat.itacademy.s05.blackjack.repositories.GameRepository;
+import com.cat.itacademy.s05.blackjack.repositories.GameSearch;
+import com.cat.itacademy.s05.blackjack.repositories.GameWriteCoalescer;
 import com.cat.itacademy.s05.blackjack.utils.BlackjackHelper;
+import com.cat.itacademy.s05.blackjack.web.ServerTiming;
+import com.cat.itacademy.s05.blackjack.web.ServerTiming.Metric;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+
 @Service
+@Profile("!virtual-threads")
 public class GameServiceImpl implements GameService {
 
     private final GameRepository gameRepository;
+    private final GameWriteCoalescer gameWriteCoalescer;
+    private final GameArchiveService gameArchiveService;
     private final PlayerServiceImpl playerService;
     private final PlayService playService;
     private final DeckService deckService;
@@ -27,11 +41,22 @@ public class GameServiceImpl implements GameService {
     private final CroupierService croupierService;
     private final BlackjackHelper blackjackHelper;
     private final Properties properties;
+    private final LobbyService lobbyService;
+    private final TurnTimerService turnTimerService;
+    private final GameMetrics gameMetrics;
+    private final HouseMetrics houseMetrics;
+    private final SettlementService settlementService;
 
-    public GameServiceImpl(GameRepository gameRepository, PlayerServiceImpl playerService, PlayService playService,
-                           DeckService deckService, GameDTOFactory gameDTOFactory, CleanUpService cleanUpService,
-                           CroupierService croupierService, BlackjackHelper blackjackHelper, Properties properties) {
+    public GameServiceImpl(GameRepository gameRepository, GameWriteCoalescer gameWriteCoalescer,
+                           GameArchiveService gameArchiveService, PlayerServiceImpl playerService,
+                           PlayService playService, DeckService deckService, GameDTOFactory gameDTOFactory,
+                           CleanUpService cleanUpService, CroupierService croupierService,
+                           BlackjackHelper blackjackHelper, Properties properties, LobbyService lobbyService,
+                           TurnTimerService turnTimerService, GameMetrics gameMetrics,
+                           HouseMetrics houseMetrics, SettlementService settlementService) {
         this.gameRepository = gameRepository;
+        this.gameWriteCoalescer = gameWriteCoalescer;
+        this.gameArchiveService = gameArchiveService;
         this.playerService = playerService;
         this.playService = playService;
         this.deckService = deckService;
@@ -40,13 +65,20 @@ public class GameServiceImpl implements GameService {
         this.croupierService = croupierService;
         this.blackjackHelper = blackjackHelper;
         this.properties = properties;
+        this.lobbyService = lobbyService;
+        this.turnTimerService = turnTimerService;
+        this.gameMetrics = gameMetrics;
+        this.houseMetrics = houseMetrics;
+        this.settlementService = settlementService;
     }
 
     @Override
     public Mono<String> createGame(String playerName) {
         return initializeGame()
                 .flatMap(game -> addPlayer(game, playerName))
-                .flatMap(gameRepository::save)
+                .flatMap(this::saveGame)
+                .doOnNext(lobbyService::update)
+                .doOnNext(this::armTurnTimer)
                 .map(Game::getId);
     }
 
@@ -59,10 +91,9 @@ public class GameServiceImpl implements GameService {
     }
 
     private Mono<Game> addPlayer(Game game, String playerName) {
-        return playerService.getPlayer(playerName)
-                .switchIfEmpty(playerService.createPlayer(playerName))
-                .flatMap(player -> {
-                    PlayerInGame playerInGame = new PlayerInGame(player.getId(),player.getName());
+        return playerService.getOrCreatePlayerId(playerName)
+                .flatMap(playerId -> {
+                    PlayerInGame playerInGame = new PlayerInGame(playerId, playerName);
                     game.getPlayers().add(playerInGame);
                     return Mono.just(game);
                 });
@@ -70,7 +101,8 @@ public class GameServiceImpl implements GameService {
 
     @Override
     public Mono<Game> getGame(String gameId) {
-        return gameRepository.findById(gameId)
+        return ServerTiming.time(Metric.DB_READ, gameRepository.findById(gameId)
+                        .switchIfEmpty(Mono.defer(() -> gameArchiveService.findArchivedGame(gameId))))
                 .switchIfEmpty(Mono.error(() -> new GameNotFoundException("No game with id: " + gameId)));
     }
 
@@ -80,40 +112,56 @@ public class GameServiceImpl implements GameService {
                 .map(gameDTOFactory::getGameDTO);
     }
 
-    private Flux<Game> getAllGames() {
-        return gameRepository.findAll();
-    }
-
     @Override
     public Mono<Game> saveGame(Game game) {
-        return gameRepository.save(game);
+        game.setLastModified(Instant.now());
+        return ServerTiming.time(Metric.DB_WRITE, gameWriteCoalescer.save(game));
     }
 
     @Override
     public Mono<Void> deleteGame(String id) {
         return getGame(id).
-                flatMap(gameRepository::delete);
+                //Its payouts are deleted with it, so they are credited first
+                flatMap(game -> settlementService.settleNow(game)
+                        .then(ServerTiming.time(Metric.DB_WRITE, gameWriteCoalescer.delete(game)
+                                .then(gameArchiveService.deleteArchivedGame(id)))))
+                .doOnSuccess(unused -> {
+                    lobbyService.remove(id);
+                    turnTimerService.cancel(id);
+                    houseMetrics.closeTable(id);
+                });
     }
 
     @Override
     public Mono<Player> updatePlayerNameInGames(Player player) {
-        return getAllGames()
-                .flatMap(game -> updatePlayerNameInGame(game, player))
-                .then(Mono.just(player));
+        return ServerTiming.time(Metric.DB_WRITE, gameRepository.renamePlayer(player.getId(), player.getName()))
+                .thenReturn(player);
+    }
+
+    @Override
+    public Flux<GameDTO> searchGames(GameSearch search) {
+        return ServerTiming.time(Metric.DB_READ, gameRepository.search(search))
+                .map(gameDTOFactory::getGameDTO);
     }
 
     @Override
     public Mono<Void> executePlay(String gameId, PlayDTO play) {
         return getGame(gameId)
-                .flatMap(game -> playService.executePlay(game, play))
+                .flatMap(game -> gameMetrics.timed(Stage.EXECUTE_PLAY, () -> playService.executePlay(game, play)))
+                .doOnNext(unused -> gameMetrics.countPlay(play.play()))
                 .flatMap(game -> {
                     if (game.isConcluded()) {
-                        return croupierService.resolveCroupierHand(game)
+                        return gameMetrics.timed(Stage.RESOLVE_CROUPIER_HAND,
+                                        () -> croupierService.resolveCroupierHand(game))
                                 .flatMap(this::executeCleanUp);
                     }
                     return Mono.just(game);
                 })
-                .flatMap(gameRepository::save)
+                .flatMap(this::saveGame)
+                .doOnNext(game -> {
+                    if (game.isSettlementPending()) settlementService.settleSoon(game);
+                })
+                .doOnNext(this::armTurnTimer)
                 .flatMap(game -> Mono.empty());
     }
 
@@ -123,10 +171,67 @@ public class GameServiceImpl implements GameService {
                 .flatMap(this::verifyGameHasNotStarted)
                 .flatMap(game -> verityNumberOfPlayers(game, playerName))
                 .flatMap(game -> addPlayer(game, playerName))
-                .flatMap(gameRepository::save)
+                .flatMap(this::saveGame)
+                .doOnNext(lobbyService::update)
+                .doOnNext(this::armTurnTimer)
                 .map(Game::getId);
     }
 
+    @Override
+    public Mono<String> quickJoinGame(String playerName) {
+        return Flux.defer(() -> Flux.fromIterable(lobbyService.findTablesToJoin()))
+                .concatMap(gameId -> joinGame(gameId, playerName)
+                        .onErrorResume(GameNotFoundException.class, e -> {
+                            lobbyService.remove(gameId);
+                            return Mono.empty();
+                        })
+                        .onErrorResume(GameNotJoinableException.class, e -> Mono.empty()))
+                .next()
+                .switchIfEmpty(Mono.defer(() -> createGame(playerName)));
+    }
+
+    private void armTurnTimer(Game game) {
+        if (game.isConcluded()) {
+            turnTimerService.cancel(game.getId());
+            return;
+        }
+        PlayerInGame activePlayer = game.getActivePlayer();
+        long timeout = switch (activePlayer.getStatus()) {
+            case PENDING_BET -> properties.getBetTimeoutMillis();
+            case PLAYING -> properties.getTurnTimeoutMillis();
+            default -> 0;
+        };
+        if (timeout <= 0) {
+            turnTimerService.cancel(game.getId());
+            return;
+        }
+        long armedAt = game.getLastModified().toEpochMilli();
+        turnTimerService.arm(game.getId(), timeout, () -> expireTurn(game.getId(), activePlayer.getId(), armedAt));
+    }
+
+    //A game changed since the deadline was armed, f.e. by another node after a change of owner, has its own deadline
+    private Mono<Void> expireTurn(String gameId, String playerId, long armedAt) {
+        return getGame(gameId)
+                .filter(game -> !game.isConcluded() && game.getActivePlayer().getId().equals(playerId)
+                        && game.getLastModified().toEpochMilli() == armedAt)
+                .flatMap(game -> switch (game.getActivePlayer().getStatus()) {
+                    case PLAYING -> executePlay(gameId, new PlayDTO(playerId, Play.STAND, 0));
+                    case PENDING_BET -> removeInactivePlayer(game);
+                    default -> Mono.empty();
+                });
+    }
+
+    private Mono<Void> removeInactivePlayer(Game game) {
+        return playService.removeActivePlayer(game)
+                .flatMap(updatedGame -> {
+                    if (updatedGame.getPlayers().isEmpty()) return deleteGame(updatedGame.getId());
+                    return saveGame(updatedGame)
+                            .doOnNext(lobbyService::update)
+                            .doOnNext(this::armTurnTimer)
+                            .then();
+                });
+    }
+
     private Mono<Game> verifyGameHasNotStarted(Game game) {
         return Flux.fromIterable(game.getPlayers())
                 .flatMap(playerInGame -> {
@@ -151,21 +256,21 @@ public class GameServiceImpl implements GameService {
         return Mono.just(game);
     }
 
+    //The payouts are saved with the concluded game and credited afterwards by the SettlementService
     private Mono<Game> executeCleanUp(Game game) {
         boolean croupierHasBlackjack = blackjackHelper.isBlackjack(game.getCroupier().getCards());
         int croupierScore = blackjackHelper.getHandValue(game.getCroupier().getCards());
-        return Flux.fromIterable(game.getPlayers())
-                .flatMap(playerInGame -> cleanUpService.determinePlayerFinalStatus(playerInGame, croupierHasBlackjack,
-                        croupierScore))
-                .flatMap(cleanUpService::resolveBet)
-                .then(Mono.defer(() -> Mono.just(game)));
-    }
-
-    private Mono<Game> updatePlayerNameInGame(Game game, Player player) {
-        boolean isChanged = game.getPlayers().stream()
-                .filter(playerInGame -> playerInGame.getId().equals(player.getId()))
-                .peek(playerInGame -> playerInGame.setName(player.getName()))
-                .findFirst().isPresent();
-        return isChanged ? gameRepository.save(game) : Mono.empty();
+        return Flux.range(0, game.getPlayers().size())
+                .concatMap(position -> cleanUpService.determinePlayerFinalStatus(game.getPlayers().get(position),
+                                croupierHasBlackjack, croupierScore)
+                        .doOnNext(playerInGame -> gameMetrics.countFinalStatus(playerInGame.getStatus()))
+                        .flatMap(playerInGame -> gameMetrics.timed(Stage.RESOLVE_BET,
+                                () -> cleanUpService.resolveBet(game.getId(), position, playerInGame))))
+                .collectList()
+                .map(payouts -> {
+                    game.setPendingPayouts(payouts);
+                    game.setSettlementPending(true);
+                    return game;
+                });
     }
 }
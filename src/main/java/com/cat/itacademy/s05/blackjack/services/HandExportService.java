@@ -0,0 +1,75 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.dto.export.HandDTO;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.InvalidSearchException;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.repositories.GameRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Hands of the concluded games, streamed from the database cursors as the client reads them. Games are requested from
+ * the cursor handExportBatchSize at a time, so an export never holds more than a couple of batches in memory.
+ * <p>
+ * Live and archived games are read in the same order, by lastModified and then id. After each batch of live games the
+ * archived games up to the last of the batch are read and merged with it, so a game archived while the export runs is
+ * found in one of them, and dropped from the archived ones when it is in the batch.
+ */
+@Service
+public class HandExportService {
+
+    private static final Comparator<Game> BY_POSITION = Comparator.comparing(Game::getLastModified)
+            .thenComparing(Game::getId);
+
+    private final GameRepository gameRepository;
+    private final GameArchiveService gameArchiveService;
+    private final int batchSize;
+
+    public HandExportService(GameRepository gameRepository, GameArchiveService gameArchiveService,
+                             @Value("${handExportBatchSize:500}") int batchSize) {
+        this.gameRepository = gameRepository;
+        this.gameArchiveService = gameArchiveService;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public Flux<HandDTO> exportHands(Instant from, Instant to) {
+        Instant start = from == null ? Instant.EPOCH : from;
+        Instant end = to == null ? Instant.now() : to;
+        if (!start.isBefore(end)) return Flux.error(new InvalidSearchException("'from' must be before 'to'"));
+        return Flux.defer(() -> {
+            AtomicReference<Game> lastLive = new AtomicReference<>();
+            return Flux.concat(
+                            gameRepository.findConcluded(start, end, batchSize)
+                                    .buffer(batchSize)
+                                    .concatMap(batch -> withArchived(start, end, lastLive.getAndSet(batch.getLast()),
+                                            batch), 0),
+                            Flux.defer(() -> gameArchiveService.findArchivedGames(start, end, lastLive.get(), null,
+                                    batchSize)))
+                    .limitRate(batchSize)
+                    .concatMapIterable(HandDTO::fromGame);
+        });
+    }
+
+    //The archived games are read once the batch is, so a game moved to the archive meanwhile is in one of them
+    private Flux<Game> withArchived(Instant start, Instant end, Game after, List<Game> batch) {
+        Set<String> liveGames = batch.stream().map(Game::getId).collect(Collectors.toSet());
+        Flux<Game> archived = gameArchiveService.findArchivedGames(start, end, after, batch.getLast(), batchSize)
+                .filter(game -> !liveGames.contains(game.getId()));
+        return Flux.mergeComparing(BY_POSITION, Flux.fromIterable(batch), archived);
+    }
+
+    public Flux<String> exportHandsAsCsv(Instant from, Instant to) {
+        return exportHands(from, to)
+                .map(HandDTO::toCsvLine)
+                .startWith(HandDTO.CSV_HEADER);
+    }
+
+}
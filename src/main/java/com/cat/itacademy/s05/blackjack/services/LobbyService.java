@@ -0,0 +1,90 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.config.Properties;
+import com.cat.itacademy.s05.blackjack.dto.lobby.LobbyEventDTO;
+import com.cat.itacademy.s05.blackjack.dto.lobby.LobbyTableDTO;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.*;
+
+/**
+ * In-memory index of the games that can still be joined, ordered by free seats so that the fullest
+ * open table is found in O(log n). The index lives in this node only and is fed by the game services.
+ */
+@Service
+public class LobbyService {
+
+    //Tables tried by a quick join before a new one is opened
+    public static final int QUICK_JOIN_ATTEMPTS = 3;
+
+    private final Properties properties;
+
+    private final Map<String, LobbyTableDTO> tables = new HashMap<>();
+    private final NavigableMap<Integer, Set<String>> tablesByFreeSeats = new TreeMap<>();
+    private final Sinks.Many<LobbyEventDTO> events = Sinks.many().multicast().directBestEffort();
+
+    public LobbyService(Properties properties) {
+        this.properties = properties;
+    }
+
+    public synchronized void update(Game game) {
+        if (!isJoinable(game)) {
+            remove(game.getId());
+            return;
+        }
+        LobbyTableDTO table = new LobbyTableDTO(game.getId(), game.getPlayers().size(),
+                properties.getPlayingPositions() - game.getPlayers().size());
+        LobbyTableDTO previous = tables.put(table.gameId(), table);
+        if (previous != null) unindex(previous);
+        tablesByFreeSeats.computeIfAbsent(table.freeSeats(), k -> new LinkedHashSet<>()).add(table.gameId());
+        LobbyEventDTO.Type type = previous == null ? LobbyEventDTO.Type.OPENED : LobbyEventDTO.Type.UPDATED;
+        events.tryEmitNext(new LobbyEventDTO(type, table.gameId(), table.freeSeats()));
+    }
+
+    public synchronized void remove(String gameId) {
+        LobbyTableDTO previous = tables.remove(gameId);
+        if (previous == null) return;
+        unindex(previous);
+        events.tryEmitNext(new LobbyEventDTO(LobbyEventDTO.Type.CLOSED, gameId, 0));
+    }
+
+    public synchronized List<LobbyTableDTO> getOpenTables() {
+        List<LobbyTableDTO> openTables = new ArrayList<>(tables.size());
+        tablesByFreeSeats.values().forEach(ids -> ids.forEach(id -> openTables.add(tables.get(id))));
+        return openTables;
+    }
+
+    //The fullest tables first, so that a quick join can move on to the next one if a table was taken meanwhile
+    public synchronized List<String> findTablesToJoin() {
+        List<String> candidates = new ArrayList<>(QUICK_JOIN_ATTEMPTS);
+        for (Set<String> ids : tablesByFreeSeats.values()) {
+            for (String id : ids) {
+                if (candidates.size() == QUICK_JOIN_ATTEMPTS) return candidates;
+                candidates.add(id);
+            }
+        }
+        return candidates;
+    }
+
+    public Flux<LobbyEventDTO> getEvents() {
+        return events.asFlux();
+    }
+
+    private void unindex(LobbyTableDTO table) {
+        Set<String> ids = tablesByFreeSeats.get(table.freeSeats());
+        ids.remove(table.gameId());
+        if (ids.isEmpty()) tablesByFreeSeats.remove(table.freeSeats());
+    }
+
+    private boolean isJoinable(Game game) {
+        if (game.isConcluded() || game.getPlayers().size() >= properties.getPlayingPositions()) return false;
+        return game.getPlayers().stream()
+                .allMatch(player -> player.getStatus() == PlayerStatus.PENDING_BET
+                        || player.getStatus() == PlayerStatus.WAITING_FOR_DEAL);
+    }
+
+}
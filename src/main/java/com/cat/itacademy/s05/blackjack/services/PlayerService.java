@@ -1,5 +1,6 @@
 package com.cat.itacademy.s05.blackjack.services;
 
+import com.cat.itacademy.s05.blackjack.enums.Play;
 import com.cat.itacademy.s05.blackjack.model.Player;
 import reactor.core.publisher.Mono;
 
@@ -14,9 +15,13 @@ public interface PlayerService {
 
     Mono<Player> createPlayer(String playerName);
 
+    Mono<String> getOrCreatePlayerId(String playerName);
+
     Mono<Player> addMoney(String playerId, int money);
 
-    Mono<Player> subtractMoney(String playerId, int money);
+    Mono<Void> chargeStake(String playerId, Play play, int stake);
+
+    Mono<Boolean> creditPayout(String playerId, String payoutId, int winnings);
 
     Mono<List<Player>> getRanking();
 
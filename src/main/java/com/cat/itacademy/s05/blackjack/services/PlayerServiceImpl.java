@@ -1,8 +1,17 @@
 package com.cat.itacademy.s05.blackjack.services;
 
+import com.cat.itacademy.s05.blackjack.cache.Invalidation;
+import com.cat.itacademy.s05.blackjack.cache.InvalidationBus;
+import com.cat.itacademy.s05.blackjack.cache.PlayerNameCache;
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.PlayerNameTakenException;
 import com.cat.itacademy.s05.blackjack.exceptions.custom.PlayerNotFoundException;
 import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.WalletEntry;
 import com.cat.itacademy.s05.blackjack.repositories.PlayerRepository;
+import com.cat.itacademy.s05.blackjack.web.ServerTiming;
+import com.cat.itacademy.s05.blackjack.web.ServerTiming.Metric;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
@@ -12,59 +21,96 @@ import java.util.List;
 public class PlayerServiceImpl implements PlayerService {
 
     private final PlayerRepository playerRepository;
+    private final PlayerNameCache playerNameCache;
+    private final InvalidationBus invalidationBus;
 
-    public PlayerServiceImpl(PlayerRepository playerRepository) {
+    public PlayerServiceImpl(PlayerRepository playerRepository, PlayerNameCache playerNameCache,
+                             InvalidationBus invalidationBus) {
         this.playerRepository = playerRepository;
+        this.playerNameCache = playerNameCache;
+        this.invalidationBus = invalidationBus;
     }
 
     @Override
     public Mono<Player> getPlayer(String playerName) {
-        return playerRepository.findByName(playerName);
+        return ServerTiming.time(Metric.DB_READ, playerRepository.findBalanceByName(playerName));
     }
 
     @Override
     public Mono<Player> getPlayerById(String playerId) {
-        return playerRepository.findById(playerId);
+        return ServerTiming.time(Metric.DB_READ, playerRepository.findBalanceById(playerId));
     }
 
     @Override
     public Mono<Player> savePlayer(Player player) {
-        return playerRepository.save(player);
+        return ServerTiming.time(Metric.DB_WRITE, playerRepository.save(player))
+                .doOnNext(saved -> invalidationBus.publish(Invalidation.Type.PLAYER, saved.getId()));
     }
 
     @Override
     public Mono<Player> createPlayer(String playerName) {
-        return playerRepository.save(new Player(playerName));
+        return savePlayer(new Player(playerName))
+                .onErrorMap(DuplicateKeyException.class, e -> nameTaken(playerName));
     }
 
+    @Override
+    public Mono<String> getOrCreatePlayerId(String playerName) {
+        return Mono.defer(() -> Mono.justOrEmpty(playerNameCache.getId(playerName)))
+                .switchIfEmpty(Mono.defer(() -> {
+                    long readAt = playerNameCache.version();
+                    return ServerTiming.time(Metric.DB_WRITE, playerRepository.upsertByName(playerName))
+                            .map(Player::getId)
+                            .doOnNext(playerId -> playerNameCache.put(playerName, playerId, readAt));
+                }));
+    }
+
+    //Wallet entries leave the player document as it is, so they invalidate nothing; the player is checked first, as
+    //nothing else would stop an entry of an unknown player
     @Override
     public Mono<Player> addMoney(String playerId, int money) {
-        return playerRepository.findById(playerId)
-                .flatMap(player -> {
-                    player.setMoney(player.getMoney() + money);
-                    return playerRepository.save(player);
-                })
-                .switchIfEmpty(Mono.error(new IllegalArgumentException("Player with id " + playerId + " not found.")));
+        return ServerTiming.time(Metric.DB_READ, playerRepository.existsById(playerId))
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Player with id " + playerId + " not found.")))
+                .flatMap(exists -> ServerTiming.time(Metric.DB_WRITE,
+                        playerRepository.appendWalletEntry(WalletEntry.adjustment(playerId, money))))
+                .then(getPlayerById(playerId));
     }
 
     @Override
-    public Mono<Player> subtractMoney(String playerId, int money) {
-        return addMoney(playerId, -money);
+    public Mono<Void> chargeStake(String playerId, Play play, int stake) {
+        return ServerTiming.time(Metric.DB_WRITE,
+                        playerRepository.appendWalletEntry(WalletEntry.stake(playerId, play, stake)))
+                .then();
+    }
+
+    @Override
+    public Mono<Boolean> creditPayout(String playerId, String payoutId, int winnings) {
+        return ServerTiming.time(Metric.DB_WRITE,
+                playerRepository.appendWalletEntry(WalletEntry.payout(playerId, payoutId, winnings)));
     }
 
     @Override
     public Mono<List<Player>> getRanking() {
-        return playerRepository.findAllByOrderByMoneyDesc().collectList();
+        return ServerTiming.time(Metric.DB_READ, playerRepository.findAllBalancesByOrderByMoneyDesc()).collectList();
     }
 
+    //Saved as read, without the wallet entries after the snapshot, which would be counted twice otherwise. The new
+    //name is cached on its next read, as the invalidation of this change drops it anyway
     @Override
     public Mono<Player> updatePlayerName(String playerId, String playerName) {
-        return playerRepository.findById(playerId)
+        return ServerTiming.time(Metric.DB_READ, playerRepository.findById(playerId))
                 .switchIfEmpty(Mono.error(new PlayerNotFoundException("No player found with id: " + playerId)))
                 .flatMap(player -> {
+                    playerNameCache.invalidate(player.getName());
                     player.setName(playerName);
                     return savePlayer(player);
-                });
+                })
+                .onErrorMap(DuplicateKeyException.class, e -> nameTaken(playerName));
+    }
+
+    //The name is the only unique key of the player document, other duplicates are not a conflict of the client
+    private static PlayerNameTakenException nameTaken(String playerName) {
+        return new PlayerNameTakenException("The name " + playerName + " is already in use by another player.");
     }
 
 }
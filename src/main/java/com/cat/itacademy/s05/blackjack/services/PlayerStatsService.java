@@ -0,0 +1,113 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.model.PlayerStats;
+import com.cat.itacademy.s05.blackjack.repositories.PlayerStatsRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-player statistics kept up to date by settlement instead of computed from the games. Settled hands are added to
+ * in-memory deltas, which are written to player_stats as increments every playerStatsFlushMillis. Reads add the delta
+ * not written yet to the stored stats, so a player's stats are always one lookup by id. While a flush is being written
+ * its hands may be missing from a read.
+ * <p>
+ * Only the deltas whose write failed are kept for the next flush, as the others were already added. When the service
+ * stops, the hands not written yet are flushed before the database goes away.
+ */
+@Service
+public class PlayerStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(PlayerStatsService.class);
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final PlayerStatsRepository playerStatsRepository;
+    private final Map<String, PlayerStats> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushInProgress = new AtomicBoolean();
+
+    public PlayerStatsService(PlayerStatsRepository playerStatsRepository) {
+        this.playerStatsRepository = playerStatsRepository;
+    }
+
+    public void recordHand(String playerId, PlayerStatus status, int bet, int winnings) {
+        //Inside compute, so a flush never takes the delta halfway through an update
+        pending.compute(playerId, (id, delta) -> {
+            if (delta == null) delta = new PlayerStats(id);
+            delta.addHand(status, bet, winnings);
+            return delta;
+        });
+    }
+
+    public Mono<PlayerStats> getStats(String playerId) {
+        return playerStatsRepository.findById(playerId)
+                .defaultIfEmpty(new PlayerStats(playerId))
+                .map(stats -> {
+                    PlayerStats unwritten = pending.get(playerId);
+                    if (unwritten != null) stats.add(unwritten);
+                    return stats;
+                });
+    }
+
+    @Scheduled(initialDelayString = "${playerStatsFlushMillis:1000}", fixedDelayString = "${playerStatsFlushMillis:1000}")
+    public void scheduledFlush() {
+        flush().subscribe(unused -> {}, e -> log.warn("Could not write player stats", e));
+    }
+
+    public Mono<Void> flush() {
+        return Mono.defer(() -> {
+            if (pending.isEmpty() || !flushInProgress.compareAndSet(false, true)) return Mono.empty();
+            List<PlayerStats> deltas = new ArrayList<>(pending.size());
+            for (String playerId : pending.keySet()) {
+                //Hands recorded after the removal start a new delta for the next flush
+                PlayerStats delta = pending.remove(playerId);
+                if (delta != null) deltas.add(delta);
+            }
+            return playerStatsRepository.incrementAll(deltas)
+                    .doOnNext(rejected -> {
+                        if (rejected.isEmpty()) return;
+                        log.warn("Could not write the stats of {} players, kept for the next flush", rejected.size());
+                        deltas.stream().filter(delta -> rejected.contains(delta.getId())).forEach(this::requeue);
+                    })
+                    //Nothing is known to be written, and losing hands is worse than counting some twice
+                    .doOnError(e -> deltas.forEach(this::requeue))
+                    .doFinally(signal -> flushInProgress.set(false))
+                    .then();
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        long deadline = System.nanoTime() + SHUTDOWN_FLUSH_TIMEOUT.toNanos();
+        try {
+            //A scheduled flush may still be writing, the hands recorded since are written after it
+            while (!pending.isEmpty() && System.nanoTime() < deadline) {
+                if (!flushInProgress.get()) flush().block(Duration.ofNanos(deadline - System.nanoTime()));
+                if (!pending.isEmpty()) Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Could not write player stats before stopping", e);
+        }
+        if (!pending.isEmpty()) log.warn("The stats of {} players were not written before stopping", pending.size());
+    }
+
+    private void requeue(PlayerStats delta) {
+        pending.merge(delta.getId(), delta, (newer, failed) -> {
+            newer.add(failed);
+            return newer;
+        });
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
+import com.cat.itacademy.s05.blackjack.metrics.HouseMetrics;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.Payout;
+import com.cat.itacademy.s05.blackjack.repositories.GameRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Credits the payouts of concluded games to their players. The payouts are written with the concluded game, in the
+ * same document, so the final play is answered as soon as that single write is acknowledged. They are credited right
+ * after, and whatever an error or a restart leaves pending is settled every settlementIntervalMillis, oldest first.
+ * <p>
+ * Each payout is credited at most once per player, so a game settled again, here or by another instance, never pays
+ * twice.
+ */
+@Service
+public class SettlementService {
+
+    private static final Logger log = LoggerFactory.getLogger(SettlementService.class);
+
+    private final GameRepository gameRepository;
+    private final CleanUpService cleanUpService;
+    private final GameMetrics gameMetrics;
+    private final HouseMetrics houseMetrics;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public SettlementService(GameRepository gameRepository, CleanUpService cleanUpService, GameMetrics gameMetrics,
+                             HouseMetrics houseMetrics,
+                             @Value("${settlementBatchSize:100}") int batchSize) {
+        this.gameRepository = gameRepository;
+        this.cleanUpService = cleanUpService;
+        this.gameMetrics = gameMetrics;
+        this.houseMetrics = houseMetrics;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(initialDelayString = "${settlementIntervalMillis:1000}", fixedDelayString = "${settlementIntervalMillis:1000}")
+    public void run() {
+        if (!running.compareAndSet(false, true)) return;
+        settlePending()
+                .doFinally(signal -> running.set(false))
+                .subscribe(unused -> {}, e -> log.warn("Could not settle games", e));
+    }
+
+    //Settles batches until one isn't fully settled, returning the games settled
+    public Mono<Long> settlePending() {
+        return Mono.defer(this::settleBatch)
+                .repeat()
+                .takeUntil(settled -> settled < batchSize)
+                .reduce(0L, Long::sum);
+    }
+
+    //Settles a game just concluded without waiting for it; if it fails the next run settles it
+    public void settleSoon(Game game) {
+        settle(game.getId(), List.copyOf(game.getPendingPayouts()))
+                .subscribe(null, e -> log.debug("Settlement of game {} left for the next run", game.getId(), e));
+    }
+
+    //Settles a game now, before it is deleted; an error leaves it pending, and so keeps it, for the next run
+    public Mono<Void> settleNow(Game game) {
+        if (!game.isSettlementPending()) return Mono.empty();
+        return settle(game.getId(), List.copyOf(game.getPendingPayouts()));
+    }
+
+    private Mono<Integer> settleBatch() {
+        return gameRepository.findPendingSettlement(batchSize)
+                .collectList()
+                .flatMap(games -> {
+                    gameMetrics.setSettlementLag(games.isEmpty() ? 0 : lagMillis(games.getFirst()));
+                    //A game that can't be settled doesn't hold back the others, and stops the batches when it is
+                    //read again
+                    return Flux.fromIterable(games)
+                            .concatMap(game -> settle(game.getId(), game.getPendingPayouts())
+                                    .thenReturn(1)
+                                    .onErrorResume(e -> {
+                                        log.warn("Could not settle game {}", game.getId(), e);
+                                        return Mono.empty();
+                                    }))
+                            .count()
+                            .map(Long::intValue);
+                });
+    }
+
+    private Mono<Void> settle(String gameId, List<Payout> payouts) {
+        return Flux.fromIterable(payouts)
+                .concatMap(payout -> cleanUpService.creditPayout(gameId, payout))
+                .then(gameRepository.clearPendingPayouts(gameId))
+                //Only the settlement that cleared the game closes its table, after every payout was credited
+                .doOnNext(cleared -> {
+                    if (!cleared) return;
+                    houseMetrics.closeTable(gameId);
+                    gameMetrics.countSettledGame();
+                })
+                .then();
+    }
+
+    private static long lagMillis(Game game) {
+        return game.getLastModified() == null ? 0 : Duration.between(game.getLastModified(), Instant.now()).toMillis();
+    }
+
+}
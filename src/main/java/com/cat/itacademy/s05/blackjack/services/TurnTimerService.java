@@ -0,0 +1,71 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Turn deadlines of all the games, scheduled on a single hashed wheel timer. Only the active seat of a game
+ * can act, so there is at most one armed deadline per game and arming it again replaces the previous one.
+ */
+@Service
+public class TurnTimerService {
+
+    private static final Logger log = LoggerFactory.getLogger(TurnTimerService.class);
+
+    private final HashedWheelTimer timer;
+    private final Map<String, Deadline> deadlines = new ConcurrentHashMap<>();
+
+    public TurnTimerService(@Value("${turnTimerTickMillis:100}") long tickMillis) {
+        this.timer = new HashedWheelTimer(Thread.ofPlatform().name("turn-timer").daemon().factory(),
+                tickMillis, TimeUnit.MILLISECONDS, 512);
+    }
+
+    public void arm(String gameId, long delayMillis, Supplier<Mono<?>> onExpiry) {
+        Deadline deadline = new Deadline();
+        Deadline previous = deadlines.put(gameId, deadline);
+        if (previous != null) previous.cancel();
+        deadline.timeout = timer.newTimeout(timeout -> {
+            if (deadlines.remove(gameId, deadline)) {
+                onExpiry.get().subscribe(null, e -> log.warn("Turn expiration failed for game {}", gameId, e));
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void cancel(String gameId) {
+        Deadline previous = deadlines.remove(gameId);
+        if (previous != null) previous.cancel();
+    }
+
+    public int getArmedCount() {
+        return deadlines.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.stop();
+    }
+
+    //Leaving the map is what disarms a deadline; cancelling the timeout only frees its slot in the wheel
+    private static final class Deadline {
+
+        private volatile Timeout timeout;
+
+        private void cancel() {
+            Timeout armed = timeout;
+            if (armed != null) armed.cancel();
+        }
+
+    }
+
+}
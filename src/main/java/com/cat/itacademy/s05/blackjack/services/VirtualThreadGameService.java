@@ -0,0 +1,335 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.config.Properties;
+import com.cat.itacademy.s05.blackjack.dto.PlayDTO;
+import com.cat.itacademy.s05.blackjack.dto.gamedto.GameDTO;
+import com.cat.itacademy.s05.blackjack.dto.gamedto.GameDTOFactory;
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.GameNotFoundException;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.GameNotJoinableException;
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
+import com.cat.itacademy.s05.blackjack.metrics.HouseMetrics;
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics.Stage;
+import com.cat.itacademy.s05.blackjack.model.*;
+import com.cat.itacademy.s05.blackjack.repositories.GameRepository;
+import com.cat.itacademy.s05.blackjack.repositories.GameSearch;
+import com.cat.itacademy.s05.blackjack.repositories.GameWriteCoalescer;
+import com.cat.itacademy.s05.blackjack.utils.BlackjackHelper;
+import com.cat.itacademy.s05.blackjack.web.ServerTiming;
+import com.cat.itacademy.s05.blackjack.web.ServerTiming.Metric;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+/**
+ * Same game flow as {@link GameServiceImpl}, written as plain sequential code. Every call runs on its own virtual
+ * thread and waits for the repositories by blocking, which only parks the virtual thread. Plays and settlement go
+ * through the same services as the reactive engine, whose Monos complete synchronously apart from the player updates.
+ * <p>
+ * Enabled by the virtual-threads profile, to compare both engines with the load test.
+ */
+@Service
+@Profile("virtual-threads")
+public class VirtualThreadGameService implements GameService {
+
+    //Request context of the running call, to keep the Server-Timing recorder on the repository calls
+    private static final ThreadLocal<ContextView> requestContext = new ThreadLocal<>();
+
+    private final GameRepository gameRepository;
+    private final GameWriteCoalescer gameWriteCoalescer;
+    private final GameArchiveService gameArchiveService;
+    private final PlayerService playerService;
+    private final PlayService playService;
+    private final DeckService deckService;
+    private final GameDTOFactory gameDTOFactory;
+    private final CleanUpService cleanUpService;
+    private final CroupierService croupierService;
+    private final BlackjackHelper blackjackHelper;
+    private final Properties properties;
+    private final LobbyService lobbyService;
+    private final TurnTimerService turnTimerService;
+    private final GameMetrics gameMetrics;
+    private final HouseMetrics houseMetrics;
+    private final SettlementService settlementService;
+    private final Scheduler virtualThreads;
+
+    public VirtualThreadGameService(GameRepository gameRepository, GameWriteCoalescer gameWriteCoalescer,
+                                    GameArchiveService gameArchiveService, PlayerService playerService,
+                                    PlayService playService, DeckService deckService, GameDTOFactory gameDTOFactory,
+                                    CleanUpService cleanUpService, CroupierService croupierService,
+                                    BlackjackHelper blackjackHelper, Properties properties, LobbyService lobbyService,
+                                    TurnTimerService turnTimerService, GameMetrics gameMetrics,
+                                    HouseMetrics houseMetrics, SettlementService settlementService) {
+        this.gameRepository = gameRepository;
+        this.gameWriteCoalescer = gameWriteCoalescer;
+        this.gameArchiveService = gameArchiveService;
+        this.playerService = playerService;
+        this.playService = playService;
+        this.deckService = deckService;
+        this.gameDTOFactory = gameDTOFactory;
+        this.cleanUpService = cleanUpService;
+        this.croupierService = croupierService;
+        this.blackjackHelper = blackjackHelper;
+        this.properties = properties;
+        this.lobbyService = lobbyService;
+        this.turnTimerService = turnTimerService;
+        this.gameMetrics = gameMetrics;
+        this.houseMetrics = houseMetrics;
+        this.settlementService = settlementService;
+        this.virtualThreads = Schedulers.fromExecutorService(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("game-", 0).factory()), "game");
+    }
+
+    @PreDestroy
+    public void stop() {
+        virtualThreads.dispose();
+    }
+
+    @Override
+    public Mono<String> createGame(String playerName) {
+        return onVirtualThread(() -> create(playerName));
+    }
+
+    @Override
+    public Mono<Game> getGame(String gameId) {
+        return onVirtualThread(() -> find(gameId));
+    }
+
+    @Override
+    public Mono<GameDTO> getGameDTO(String gameId) {
+        return onVirtualThread(() -> gameDTOFactory.getGameDTO(find(gameId)));
+    }
+
+    @Override
+    public Mono<Game> saveGame(Game game) {
+        return onVirtualThread(() -> save(game));
+    }
+
+    @Override
+    public Mono<Void> deleteGame(String id) {
+        return onVirtualThread(() -> delete(id));
+    }
+
+    @Override
+    public Mono<Player> updatePlayerNameInGames(Player player) {
+        return onVirtualThread(() -> {
+            await(ServerTiming.time(Metric.DB_WRITE, gameRepository.renamePlayer(player.getId(), player.getName())));
+            return player;
+        });
+    }
+
+    //Streamed as the games are read, there is nothing to run sequentially
+    @Override
+    public Flux<GameDTO> searchGames(GameSearch search) {
+        return ServerTiming.time(Metric.DB_READ, gameRepository.search(search))
+                .map(gameDTOFactory::getGameDTO);
+    }
+
+    @Override
+    public Mono<Void> executePlay(String gameId, PlayDTO play) {
+        return onVirtualThread(() -> execute(gameId, play));
+    }
+
+    @Override
+    public Mono<String> joinGame(String gameId, String playerName) {
+        return onVirtualThread(() -> join(gameId, playerName));
+    }
+
+    @Override
+    public Mono<String> quickJoinGame(String playerName) {
+        return onVirtualThread(() -> {
+            for (String table : lobbyService.findTablesToJoin()) {
+                try {
+                    return join(table, playerName);
+                } catch (GameNotFoundException e) {
+                    lobbyService.remove(table);
+                } catch (GameNotJoinableException e) {
+                    //Filled up or started since it was listed, the next table is tried
+                }
+            }
+            return create(playerName);
+        });
+    }
+
+    private String create(String playerName) {
+        Game game = new Game();
+        game.setDeck(deckService.generateDeck(new Deck()));
+        addPlayer(game, playerName);
+        Game saved = save(game);
+        lobbyService.update(saved);
+        armTurnTimer(saved);
+        return saved.getId();
+    }
+
+    private String join(String gameId, String playerName) {
+        Game game = find(gameId);
+        verifyGameHasNotStarted(game);
+        verifyNumberOfPlayers(game, playerName);
+        addPlayer(game, playerName);
+        Game saved = save(game);
+        lobbyService.update(saved);
+        armTurnTimer(saved);
+        return saved.getId();
+    }
+
+    private void addPlayer(Game game, String playerName) {
+        String playerId = await(playerService.getOrCreatePlayerId(playerName));
+        game.getPlayers().add(new PlayerInGame(playerId, playerName));
+    }
+
+    private Game find(String gameId) {
+        Game game = await(ServerTiming.time(Metric.DB_READ, gameRepository.findById(gameId)
+                .switchIfEmpty(Mono.defer(() -> gameArchiveService.findArchivedGame(gameId)))));
+        if (game == null) throw new GameNotFoundException("No game with id: " + gameId);
+        return game;
+    }
+
+    private Game save(Game game) {
+        game.setLastModified(Instant.now());
+        return await(ServerTiming.time(Metric.DB_WRITE, gameWriteCoalescer.save(game)));
+    }
+
+    private Void delete(String gameId) {
+        Game game = find(gameId);
+        //Its payouts are deleted with it, so they are credited first
+        await(settlementService.settleNow(game));
+        await(ServerTiming.time(Metric.DB_WRITE, gameWriteCoalescer.delete(game)
+                .then(gameArchiveService.deleteArchivedGame(gameId))));
+        lobbyService.remove(gameId);
+        turnTimerService.cancel(gameId);
+        houseMetrics.closeTable(gameId);
+        return null;
+    }
+
+    private Void execute(String gameId, PlayDTO play) {
+        Game found = find(gameId);
+        Game game = await(gameMetrics.timed(Stage.EXECUTE_PLAY, () -> playService.executePlay(found, play)));
+        gameMetrics.countPlay(play.play());
+        if (game.isConcluded()) {
+            Game concluded = game;
+            await(gameMetrics.timed(Stage.RESOLVE_CROUPIER_HAND, () -> croupierService.resolveCroupierHand(concluded)));
+            cleanUp(game);
+        }
+        Game saved = save(game);
+        if (saved.isSettlementPending()) settlementService.settleSoon(saved);
+        armTurnTimer(saved);
+        return null;
+    }
+
+    //The payouts are saved with the concluded game and credited afterwards by the SettlementService
+    private void cleanUp(Game game) {
+        boolean croupierHasBlackjack = blackjackHelper.isBlackjack(game.getCroupier().getCards());
+        int croupierScore = blackjackHelper.getHandValue(game.getCroupier().getCards());
+        List<Payout> payouts = new ArrayList<>();
+        for (int position = 0; position < game.getPlayers().size(); position++) {
+            PlayerInGame playerInGame = game.getPlayers().get(position);
+            await(cleanUpService.determinePlayerFinalStatus(playerInGame, croupierHasBlackjack, croupierScore));
+            gameMetrics.countFinalStatus(playerInGame.getStatus());
+            int seat = position;
+            payouts.add(await(gameMetrics.timed(Stage.RESOLVE_BET,
+                    () -> cleanUpService.resolveBet(game.getId(), seat, playerInGame))));
+        }
+        game.setPendingPayouts(payouts);
+        game.setSettlementPending(true);
+    }
+
+    private void verifyGameHasNotStarted(Game game) {
+        for (PlayerInGame playerInGame : game.getPlayers()) {
+            PlayerStatus status = playerInGame.getStatus();
+            if (status != PlayerStatus.PENDING_BET && status != PlayerStatus.WAITING_FOR_DEAL) {
+                throw new GameNotJoinableException("The game is in progress; no new players can join");
+            }
+        }
+    }
+
+    private void verifyNumberOfPlayers(Game game, String playerName) {
+        if (game.getPlayers().size() >= properties.getPlayingPositions()) {
+            throw new GameNotJoinableException("All the playing positions are occupied. No more players accepted.");
+        }
+        int betsByPlayer = 0;
+        for (PlayerInGame playerInGame : game.getPlayers()) {
+            if (playerInGame.getName().equals(playerName)) betsByPlayer++;
+        }
+        if (betsByPlayer >= properties.getSimultaneousBetsAllowed()) {
+            throw new GameNotJoinableException("The player has reached the number of bets limit for a single game.");
+        }
+    }
+
+    private void armTurnTimer(Game game) {
+        if (game.isConcluded()) {
+            turnTimerService.cancel(game.getId());
+            return;
+        }
+        PlayerInGame activePlayer = game.getActivePlayer();
+        long timeout = switch (activePlayer.getStatus()) {
+            case PENDING_BET -> properties.getBetTimeoutMillis();
+            case PLAYING -> properties.getTurnTimeoutMillis();
+            default -> 0;
+        };
+        if (timeout <= 0) {
+            turnTimerService.cancel(game.getId());
+            return;
+        }
+        long armedAt = game.getLastModified().toEpochMilli();
+        turnTimerService.arm(game.getId(), timeout,
+                () -> onVirtualThread(() -> expireTurn(game.getId(), activePlayer.getId(), armedAt)));
+    }
+
+    //A game changed since the deadline was armed, f.e. by another node after a change of owner, has its own deadline
+    private Void expireTurn(String gameId, String playerId, long armedAt) {
+        Game game = find(gameId);
+        if (game.isConcluded() || !game.getActivePlayer().getId().equals(playerId)
+                || game.getLastModified().toEpochMilli() != armedAt) return null;
+        switch (game.getActivePlayer().getStatus()) {
+            case PLAYING -> execute(gameId, new PlayDTO(playerId, Play.STAND, 0));
+            case PENDING_BET -> {
+                Game updated = await(playService.removeActivePlayer(game));
+                if (updated.getPlayers().isEmpty()) {
+                    delete(gameId);
+                } else {
+                    Game saved = save(updated);
+                    lobbyService.update(saved);
+                    armTurnTimer(saved);
+                }
+            }
+            default -> {
+            }
+        }
+        return null;
+    }
+
+    private <T> Mono<T> onVirtualThread(Callable<T> call) {
+        return Mono.deferContextual(context -> Mono.fromCallable(() -> {
+                    requestContext.set(context);
+                    try {
+                        return call.call();
+                    } finally {
+                        requestContext.remove();
+                    }
+                }))
+                .subscribeOn(virtualThreads);
+    }
+
+    private <T> T await(Mono<T> mono) {
+        return mono.contextWrite(currentContext()).block();
+    }
+
+    private static ContextView currentContext() {
+        ContextView context = requestContext.get();
+        return context == null ? Context.empty() : context;
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
+import com.cat.itacademy.s05.blackjack.repositories.PlayerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves the wallet entries of the players into the money snapshot of their player every
+ * walletCompactionIntervalMillis, so that reading a player only adds up the entries of the last interval.
+ * <p>
+ * Only entries older than walletCompactionDelayMillis are moved: an entry is stamped before it is inserted, so a
+ * younger one could still appear behind the snapshot, and the delay must exceed that time plus the clock skew between
+ * instances.
+ */
+@Service
+public class WalletCompactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletCompactionService.class);
+
+    private final PlayerRepository playerRepository;
+    private final GameMetrics gameMetrics;
+    private final long delayMillis;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public WalletCompactionService(PlayerRepository playerRepository, GameMetrics gameMetrics,
+                                   @Value("${walletCompactionDelayMillis:10000}") long delayMillis) {
+        this.playerRepository = playerRepository;
+        this.gameMetrics = gameMetrics;
+        this.delayMillis = delayMillis;
+    }
+
+    @Scheduled(initialDelayString = "${walletCompactionIntervalMillis:60000}",
+            fixedDelayString = "${walletCompactionIntervalMillis:60000}")
+    public void run() {
+        if (!running.compareAndSet(false, true)) return;
+        compact()
+                .doFinally(signal -> running.set(false))
+                .subscribe(unused -> {}, e -> log.warn("Could not compact wallets", e));
+    }
+
+    //Returns the players whose snapshot changed
+    public Mono<Long> compact() {
+        return Mono.defer(() -> playerRepository.compactWallets(Instant.now().minusMillis(delayMillis)))
+                .doOnNext(gameMetrics::countCompactedWallets);
+    }
+
+}
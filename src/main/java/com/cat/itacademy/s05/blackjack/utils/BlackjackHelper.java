@@ -1,5 +1,6 @@
 package com.cat.itacademy.s05.blackjack.utils;
 
+import com.cat.itacademy.s05.blackjack.engine.HandRules;
 import com.cat.itacademy.s05.blackjack.enums.BlackjackPayout;
 import com.cat.itacademy.s05.blackjack.enums.Rank;
 import com.cat.itacademy.s05.blackjack.model.Card;
@@ -7,53 +8,65 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
-public class BlackjackHelper {
+public class BlackjackHelper implements HandRules {
 
     @Value("${blackjackPayout:THREE_TO_TWO}")
     private String blackjackPayout;
 
+    @Override
     public int getHandValue(List<Card> cards) {
-        AtomicInteger handValue = new AtomicInteger();
-        AtomicInteger numberOfAces = new AtomicInteger();
-        cards.forEach(card -> {
-            handValue.addAndGet(card.rank().getValue());
-            if (card.rank() == Rank.ACE) numberOfAces.getAndIncrement();
-        });
-        while (handValue.get() > 21 && numberOfAces.get() >0) {
-            handValue.getAndAdd(-10);
-            numberOfAces.decrementAndGet();
+        int handValue = 0;
+        int numberOfAces = 0;
+        for (Card card : cards) {
+            handValue += card.rank().getValue();
+            if (card.rank() == Rank.ACE) numberOfAces++;
         }
-        return handValue.get();
+        while (handValue > 21 && numberOfAces > 0) {
+            handValue -= 10;
+            numberOfAces--;
+        }
+        return handValue;
     }
 
+    @Override
     public boolean isBlackjack(List<Card> cards) {
         return cards.size() == 2 && getHandValue(cards) == 21;
     }
 
+    @Override
     public boolean isBust(List<Card> cards) {
         return getHandValue(cards) > 21;
     }
 
+    @Override
     public boolean isSoft17(List<Card> cards) {
-        return cards.stream().mapToInt(card -> card.rank().getValue()).sum() == 17 &&
-                cards.stream().anyMatch(card -> card.rank() == Rank.ACE);
+        int hardValue = 0;
+        boolean hasAce = false;
+        for (Card card : cards) {
+            hardValue += card.rank().getValue();
+            if (card.rank() == Rank.ACE) hasAce = true;
+        }
+        return hardValue == 17 && hasAce;
     }
 
+    @Override
     public int getSurrenderPayout(int bet) {
         return bet / 2;
     }
 
+    @Override
     public int getBlackjackPayout(int bet) {
         return (int) (bet * (1 + BlackjackPayout.valueOf(blackjackPayout).getPayout()));
     }
 
+    @Override
     public int getTiePayout(int bet) {
         return bet;
     }
 
+    @Override
     public int getWinPayout(int bet) {
         return bet * 2;
     }
@@ -0,0 +1,59 @@
+package com.cat.itacademy.s05.blackjack.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Only lets through to the /admin endpoints the requests with the bearer token in adminToken, as they can change
+ * where the games are routed. Without a token they are not served at all.
+ */
+@Component
+@Order(-1)
+public class AdminAuthFilter implements WebFilter {
+
+    private static final String ADMIN_PATH = "/admin";
+    private static final String BEARER = "Bearer ";
+
+    private final byte[] token;
+
+    public AdminAuthFilter(@Value("${adminToken:}") String token) {
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        if (!path.equals(ADMIN_PATH) && !path.startsWith(ADMIN_PATH + "/")) return chain.filter(exchange);
+        ServerHttpResponse response = exchange.getResponse();
+        if (token.length == 0) {
+            return reject(response, HttpStatus.FORBIDDEN, "The admin endpoints are disabled; set adminToken to use them.");
+        }
+        String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.startsWith(BEARER) || !MessageDigest.isEqual(token,
+                authorization.substring(BEARER.length()).getBytes(StandardCharsets.UTF_8))) {
+            response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            return reject(response, HttpStatus.UNAUTHORIZED, "A valid admin token is required.");
+        }
+        return chain.filter(exchange);
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, HttpStatus status, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        return response.writeWith(Mono.just(response.bufferFactory()
+                .wrap(message.getBytes(StandardCharsets.UTF_8))));
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.cat.itacademy.s05.blackjack.web;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Request whose body was read by a filter and is handed again to the next ones and the controller. A request already
+ * cached by an earlier filter is not read again.
+ * <p>
+ * Bodies over the in-memory limit of the codecs, which the controllers would refuse anyway, are refused with a 413
+ * before they are read whole.
+ */
+public class CachedBodyRequest extends ServerHttpRequestDecorator {
+
+    static final int MAX_BODY_BYTES = 256 * 1024;
+
+    private final byte[] body;
+
+    private CachedBodyRequest(ServerHttpRequest delegate, byte[] body) {
+        super(delegate);
+        this.body = body;
+    }
+
+    public static Mono<CachedBodyRequest> cache(ServerHttpRequest request) {
+        if (request instanceof CachedBodyRequest cached) return Mono.just(cached);
+        return DataBufferUtils.join(request.getBody(), MAX_BODY_BYTES)
+                .onErrorMap(DataBufferLimitException.class,
+                        e -> new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage(), e))
+                .map(CachedBodyRequest::read)
+                .defaultIfEmpty(new byte[0])
+                .map(body -> new CachedBodyRequest(request, body));
+    }
+
+    static byte[] read(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    public byte[] getCachedBody() {
+        return body;
+    }
+
+    @Override
+    public Flux<DataBuffer> getBody() {
+        return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+    }
+
+}
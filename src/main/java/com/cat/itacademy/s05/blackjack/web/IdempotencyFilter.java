@@ -0,0 +1,207 @@
+package com.cat.itacademy.s05.blackjack.web;
+
+import com.cat.itacademy.s05.blackjack.cache.IdempotencyCache;
+import com.cat.itacademy.s05.blackjack.cache.IdempotencyMirror;
+import com.cat.itacademy.s05.blackjack.model.IdempotentResponse;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Makes the plays and joins sent with an Idempotency-Key safe to retry: the first request runs and its successful
+ * response is kept, and a retry with the same key gets that response again, without running the play or reading the
+ * game. A retry while the first request is still running gets a 409, and the same key sent for another request a 422.
+ * <p>
+ * Failed requests are not kept, so their retry runs again. A request whose client went away still runs to the end and
+ * is kept, so its retry isn't run twice. Requests without the header are not affected.
+ */
+@Component
+public class IdempotencyFilter implements WebFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+    private static final Pattern IDEMPOTENT_PATH = Pattern.compile("^/game/[^/]+/(play|join)$");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyCache idempotencyCache;
+    private final ObjectProvider<IdempotencyMirror> idempotencyMirror;
+
+    public IdempotencyFilter(IdempotencyCache idempotencyCache, ObjectProvider<IdempotencyMirror> idempotencyMirror) {
+        this.idempotencyCache = idempotencyCache;
+        this.idempotencyMirror = idempotencyMirror;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String key = request.getHeaders().getFirst(KEY_HEADER);
+        if (key == null || request.getMethod() != HttpMethod.POST
+                || !IDEMPOTENT_PATH.matcher(request.getPath().value()).matches()) {
+            return chain.filter(exchange);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return reject(exchange.getResponse(), HttpStatus.BAD_REQUEST,
+                    KEY_HEADER + " must have between 1 and " + MAX_KEY_LENGTH + " characters.");
+        }
+        return CachedBodyRequest.cache(request)
+                .flatMap(cached -> {
+                    String fingerprint = fingerprint(request, cached.getCachedBody());
+                    ServerWebExchange readAgain = exchange.mutate().request(cached).build();
+                    IdempotencyCache.Entry entry = idempotencyCache.reserve(key, fingerprint);
+                    if (entry != null) {
+                        return answerRetry(exchange.getResponse(), entry.fingerprint(), entry.response(), fingerprint);
+                    }
+                    IdempotencyMirror mirror = idempotencyMirror.getIfAvailable();
+                    if (mirror == null) return run(readAgain, chain, key, fingerprint, null);
+                    //A replay completes empty too, so the response found is wrapped to tell it from none
+                    return mirror.find(key)
+                            .map(Optional::of)
+                            .defaultIfEmpty(Optional.empty())
+                            .doOnError(e -> idempotencyCache.release(key))
+                            .flatMap(mirrored -> mirrored.isEmpty()
+                                    ? run(readAgain, chain, key, fingerprint, mirror)
+                                    : answerMirrored(exchange.getResponse(), key, mirrored.get(), fingerprint));
+                });
+    }
+
+    //Run to the end even if the client goes away, as the retry of a play or join already run must get its answer
+    //instead of running it again. The key is only released if the request failed before an answer was written
+    private Mono<Void> run(ServerWebExchange exchange, WebFilterChain chain, String key, String fingerprint,
+                           IdempotencyMirror mirror) {
+        RecordedResponse response = new RecordedResponse(exchange.getResponse());
+        return Mono.deferContextual(context -> {
+            Mono<Void> handled = chain.filter(exchange.mutate().response(response).build())
+                    .then(Mono.defer(() -> record(key, fingerprint, response, mirror)))
+                    .onErrorResume(e -> {
+                        if (!response.written) {
+                            idempotencyCache.release(key);
+                            return Mono.error(e);
+                        }
+                        //Only sending the answer failed
+                        return record(key, fingerprint, response, mirror).then(Mono.error(e));
+                    })
+                    .contextWrite(context)
+                    .cache();
+            handled.subscribe(null, e -> log.debug("Request with idempotency key {} failed", key, e));
+            return handled;
+        });
+    }
+
+    private Mono<Void> record(String key, String fingerprint, RecordedResponse response, IdempotencyMirror mirror) {
+        HttpStatusCode status = response.getStatusCode();
+        if (status != null && !status.is2xxSuccessful()) {
+            idempotencyCache.release(key);
+            return Mono.empty();
+        }
+        MediaType contentType = response.getHeaders().getContentType();
+        IdempotentResponse recorded = new IdempotentResponse(key, fingerprint,
+                status == null ? HttpStatus.OK.value() : status.value(),
+                contentType == null ? null : contentType.toString(), response.body,
+                Instant.now().plus(idempotencyCache.getTtl()));
+        idempotencyCache.complete(key, recorded);
+        if (mirror == null) return Mono.empty();
+        return mirror.save(recorded)
+                .onErrorResume(e -> {
+                    log.warn("Could not mirror the response of idempotency key {}", key, e);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> answerMirrored(ServerHttpResponse response, String key, IdempotentResponse mirrored,
+                                      String fingerprint) {
+        if (mirrored.getFingerprint().equals(fingerprint)) {
+            idempotencyCache.complete(key, mirrored);
+        } else {
+            idempotencyCache.release(key);
+        }
+        return answerRetry(response, mirrored.getFingerprint(), mirrored, fingerprint);
+    }
+
+    private static Mono<Void> answerRetry(ServerHttpResponse response, String keyFingerprint,
+                                          IdempotentResponse recorded, String fingerprint) {
+        if (!keyFingerprint.equals(fingerprint)) {
+            return reject(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "The " + KEY_HEADER + " was already used for another request.");
+        }
+        if (recorded == null) {
+            return reject(response, HttpStatus.CONFLICT,
+                    "A request with this " + KEY_HEADER + " is still in progress.");
+        }
+        response.setStatusCode(HttpStatusCode.valueOf(recorded.getStatus()));
+        if (recorded.getContentType() != null) {
+            response.getHeaders().setContentType(MediaType.parseMediaType(recorded.getContentType()));
+        }
+        response.getHeaders().set(REPLAYED_HEADER, "true");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(recorded.getBody())));
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, HttpStatus status, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        return response.writeWith(Mono.just(response.bufferFactory()
+                .wrap(message.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    //The same key sent to another game, endpoint or with another body is another request
+    private static String fingerprint(ServerHttpRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getPath().value().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //Keeps a copy of the body written, which for these endpoints is a single value
+    private static class RecordedResponse extends ServerHttpResponseDecorator {
+
+        private byte[] body = new byte[0];
+        private volatile boolean written;
+
+        RecordedResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(body)
+                    .map(CachedBodyRequest::read)
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        this.body = bytes;
+                        written = true;
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+        }
+
+    }
+
+}
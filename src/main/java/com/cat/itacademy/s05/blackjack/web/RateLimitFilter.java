@@ -0,0 +1,171 @@
+package com.cat.itacademy.s05.blackjack.web;
+
+import com.cat.itacademy.s05.blackjack.cache.TokenBuckets;
+import com.cat.itacademy.s05.blackjack.cluster.ForwardSignature;
+import com.cat.itacademy.s05.blackjack.enums.RateLimitedEndpoint;
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Limits the games created, the joins and the plays of each player and of each client IP with token buckets, so that a
+ * single client can't take the database from everyone else. A request over a limit gets a 429 with the seconds to wait
+ * in Retry-After.
+ * <p>
+ * The IP is checked first, so a flood is turned down without reading its body. Players are known by the name sent to
+ * create or join a game and by the playerId of their plays. Requests forwarded by another member of the cluster were
+ * already limited there, so they are let through once their signature is checked.
+ * <p>
+ * Off by default: the IP is the address the request comes from, so behind a proxy every client shares its IP unless
+ * the forwarded headers are trusted.
+ */
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "rateLimitEnabled", havingValue = "true")
+public class RateLimitFilter implements WebFilter {
+
+    private static final String GAME_PATH = "/game/";
+    private static final int MAX_PLAYER_NAME_LENGTH = 255;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final JsonFactory CBOR_FACTORY = new CBORFactory();
+
+    //Requests per second and tokens a client can save up; endpoints without a limit have no entry
+    private record Limit(double perSecond, double burst) {
+    }
+
+    private final GameMetrics gameMetrics;
+    private final ForwardSignature forwardSignature;
+    private final Map<RateLimitedEndpoint, Limit> playerLimits = new EnumMap<>(RateLimitedEndpoint.class);
+    private final Map<RateLimitedEndpoint, Limit> ipLimits = new EnumMap<>(RateLimitedEndpoint.class);
+    private final TokenBuckets buckets;
+
+    public RateLimitFilter(GameMetrics gameMetrics, ForwardSignature forwardSignature,
+                           @Value("${rateLimitNewGame:1,20}") double[] newGame,
+                           @Value("${rateLimitJoin:2,50}") double[] join,
+                           @Value("${rateLimitPlay:10,500}") double[] play,
+                           @Value("${rateLimitBurstSeconds:2}") double burstSeconds,
+                           @Value("${rateLimitBuckets:100000}") int maxBuckets) {
+        this.gameMetrics = gameMetrics;
+        this.forwardSignature = forwardSignature;
+        putLimits(RateLimitedEndpoint.NEW_GAME, newGame, burstSeconds);
+        putLimits(RateLimitedEndpoint.JOIN, join, burstSeconds);
+        putLimits(RateLimitedEndpoint.PLAY, play, burstSeconds);
+        //An idle bucket is evicted once it would be full again
+        double refillSeconds = Stream.concat(playerLimits.values().stream(), ipLimits.values().stream())
+                .mapToDouble(limit -> limit.burst() / limit.perSecond())
+                .max()
+                .orElse(1);
+        this.buckets = new TokenBuckets(maxBuckets, Duration.ofMillis((long) Math.ceil(refillSeconds * 1000)));
+    }
+
+    private void putLimits(RateLimitedEndpoint endpoint, double[] perPlayerAndIp, double burstSeconds) {
+        if (perPlayerAndIp.length != 2) {
+            throw new IllegalArgumentException("The rate limits of " + endpoint + " must be two numbers: per player " +
+                    "and per IP.");
+        }
+        if (perPlayerAndIp[0] > 0) playerLimits.put(endpoint, limit(perPlayerAndIp[0], burstSeconds));
+        if (perPlayerAndIp[1] > 0) ipLimits.put(endpoint, limit(perPlayerAndIp[1], burstSeconds));
+    }
+
+    private static Limit limit(double perSecond, double burstSeconds) {
+        return new Limit(perSecond, Math.max(1, perSecond * burstSeconds));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.POST) return chain.filter(exchange);
+        RateLimitedEndpoint endpoint = endpointOf(request.getPath().value());
+        if (endpoint == null) return chain.filter(exchange);
+        if (forwardSignature.isAuthentic(exchange)) return chain.filter(exchange);
+        long now = System.nanoTime();
+        Limit ipLimit = ipLimits.get(endpoint);
+        InetSocketAddress address = request.getRemoteAddress();
+        if (ipLimit != null && address != null) {
+            long wait = buckets.tryAcquire(endpoint.name() + "|ip|" + address.getHostString(),
+                    ipLimit.perSecond(), ipLimit.burst(), now);
+            if (wait > 0) return throttle(exchange.getResponse(), endpoint, false, wait);
+        }
+        Limit playerLimit = playerLimits.get(endpoint);
+        if (playerLimit == null) return chain.filter(exchange);
+        return CachedBodyRequest.cache(request)
+                .flatMap(cached -> {
+                    String player = playerOf(endpoint, cached.getCachedBody(), request.getHeaders().getContentType());
+                    if (player != null) {
+                        long wait = buckets.tryAcquire(endpoint.name() + "|player|" + player,
+                                playerLimit.perSecond(), playerLimit.burst(), System.nanoTime());
+                        if (wait > 0) return throttle(exchange.getResponse(), endpoint, true, wait);
+                    }
+                    return chain.filter(exchange.mutate().request(cached).build());
+                });
+    }
+
+    private Mono<Void> throttle(ServerHttpResponse response, RateLimitedEndpoint endpoint, boolean byPlayer,
+                                long waitNanos) {
+        gameMetrics.countThrottled(endpoint, byPlayer);
+        long seconds = Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000);
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        String message = "Too many requests " + (byPlayer ? "of this player" : "from this address") +
+                ", retry in " + seconds + " s.";
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(message.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    //Matched by hand, as it runs for every request
+    private static RateLimitedEndpoint endpointOf(String path) {
+        if (!path.startsWith(GAME_PATH)) return null;
+        if (path.length() == GAME_PATH.length() + 3 && path.endsWith("new")) return RateLimitedEndpoint.NEW_GAME;
+        int slash = path.indexOf('/', GAME_PATH.length());
+        if (slash <= GAME_PATH.length() || path.length() != slash + 5) return null;
+        if (path.startsWith("play", slash + 1)) return RateLimitedEndpoint.PLAY;
+        if (path.startsWith("join", slash + 1)) return RateLimitedEndpoint.JOIN;
+        return null;
+    }
+
+    //The name of the player creating or joining a game, or the playerId of a play; null if there isn't any
+    private static String playerOf(RateLimitedEndpoint endpoint, byte[] body, MediaType contentType) {
+        if (endpoint != RateLimitedEndpoint.PLAY) {
+            String name = new String(body, StandardCharsets.UTF_8).strip();
+            return name.isEmpty() || name.length() > MAX_PLAYER_NAME_LENGTH ? null : name;
+        }
+        JsonFactory factory = MediaType.APPLICATION_CBOR.isCompatibleWith(contentType) ? CBOR_FACTORY : JSON_FACTORY;
+        try (JsonParser parser = factory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("playerId") && value == JsonToken.VALUE_STRING) return parser.getText();
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+}
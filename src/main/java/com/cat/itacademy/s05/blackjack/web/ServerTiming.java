@@ -0,0 +1,88 @@
+package com.cat.itacademy.s05.blackjack.web;
+
+import lombok.Getter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per request latency breakdown reported in the Server-Timing header. The recorder travels in the Reactor context,
+ * so code outside a request filtered by {@link ServerTimingFilter} runs untouched. Time is stopped before the
+ * result is handed downstream, so the work chained after a Mongo call is not counted as Mongo time.
+ */
+public final class ServerTiming {
+
+    @Getter
+    public enum Metric {
+        DB_READ("db-read", "Mongo reads"),
+        DB_WRITE("db-write", "Mongo writes"),
+        SERIALIZATION("ser", "Serialization");
+
+        private final String name;
+        private final String description;
+
+        Metric(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+    }
+
+    private final long start = System.nanoTime();
+    private final AtomicLongArray nanos = new AtomicLongArray(Metric.values().length);
+
+    public static <T> Mono<T> time(Metric metric, Mono<T> mono) {
+        return Mono.deferContextual(context -> {
+            ServerTiming timing = from(context);
+            if (timing == null) return mono;
+            long[] started = new long[1];
+            return mono.doOnSubscribe(unused -> started[0] = System.nanoTime())
+                    .doOnSuccess(unused -> timing.add(metric, System.nanoTime() - started[0]))
+                    .doOnError(unused -> timing.add(metric, System.nanoTime() - started[0]));
+        });
+    }
+
+    public static <T> Flux<T> time(Metric metric, Flux<T> flux) {
+        return Flux.deferContextual(context -> {
+            ServerTiming timing = from(context);
+            if (timing == null) return flux;
+            long[] started = new long[1];
+            return flux.doOnSubscribe(unused -> started[0] = System.nanoTime())
+                    .doOnTerminate(() -> timing.add(metric, System.nanoTime() - started[0]));
+        });
+    }
+
+    private static ServerTiming from(ContextView context) {
+        return context.getOrDefault(ServerTiming.class, null);
+    }
+
+    public void add(Metric metric, long elapsedNanos) {
+        nanos.addAndGet(metric.ordinal(), elapsedNanos);
+    }
+
+    //Game logic is what is left of the request once the measured I/O and serialization are taken out
+    public String toHeaderValue() {
+        long total = System.nanoTime() - start;
+        long measured = 0;
+        StringBuilder header = new StringBuilder();
+        for (Metric metric : Metric.values()) {
+            long elapsed = nanos.get(metric.ordinal());
+            measured += elapsed;
+            append(header, metric.getName(), metric.getDescription(), elapsed);
+        }
+        append(header, "app", "Game logic", Math.max(total - measured, 0));
+        append(header, "total", "Total", total);
+        return header.toString();
+    }
+
+    //A comma separates the metrics, so the decimal point can't depend on the locale
+    private static void append(StringBuilder header, String name, String description, long elapsedNanos) {
+        if (!header.isEmpty()) header.append(", ");
+        header.append(name)
+                .append(";dur=").append(String.format(Locale.ROOT, "%.3f", elapsedNanos / 1_000_000.0))
+                .append(";desc=\"").append(description).append('"');
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.cat.itacademy.s05.blackjack.web;
+
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+@Component
+@ConditionalOnProperty(name = "serverTimingEnabled", havingValue = "true")
+public class ServerTimingFilter implements WebFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!isTimedPath(exchange.getRequest().getPath().value())) return chain.filter(exchange);
+        ServerTiming timing = new ServerTiming();
+        ServerHttpResponse response = new TimedResponse(exchange.getResponse(), timing);
+        response.beforeCommit(() -> Mono.fromRunnable(() ->
+                response.getHeaders().set(HEADER, timing.toHeaderValue())));
+        return chain.filter(exchange.mutate().response(response).build())
+                .contextWrite(context -> context.put(ServerTiming.class, timing));
+    }
+
+    private boolean isTimedPath(String path) {
+        return path.startsWith("/game/") || path.equals("/ranking") || path.startsWith("/player/");
+    }
+
+    //Single value bodies are encoded when subscribed and committed once encoded, so the wait for the buffer is the
+    //serialization time. Streamed bodies commit before encoding and are not measured.
+    private static class TimedResponse extends ServerHttpResponseDecorator {
+
+        private final ServerTiming timing;
+
+        TimedResponse(ServerHttpResponse delegate, ServerTiming timing) {
+            super(delegate);
+            this.timing = timing;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (body instanceof Mono<? extends DataBuffer> mono) {
+                long[] started = new long[1];
+                return super.writeWith(mono
+                        .doOnSubscribe(unused -> started[0] = System.nanoTime())
+                        .doOnNext(unused -> timing.add(ServerTiming.Metric.SERIALIZATION,
+                                System.nanoTime() - started[0])));
+            }
+            return super.writeWith(body);
+        }
+
+    }
+
+}
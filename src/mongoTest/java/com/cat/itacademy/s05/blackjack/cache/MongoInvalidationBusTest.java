@@ -0,0 +1,100 @@
+package com.cat.itacademy.s05.blackjack.cache;
+
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Change streams need a replica set; the container runs MongoDB as a single-node one
+@Testcontainers
+public class MongoInvalidationBusTest {
+
+    @Container
+    private static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private MongoClient client;
+    private ReactiveMongoTemplate mongoTemplate;
+    private MongoInvalidationBus bus;
+
+    @BeforeEach
+    void setUp(){
+        client = MongoClients.create(mongo.getReplicaSetUrl());
+        mongoTemplate = new ReactiveMongoTemplate(client, "blackjack_invalidation_test");
+        bus = new MongoInvalidationBus(mongoTemplate, 1000);
+    }
+
+    @AfterEach
+    void tearDown(){
+        mongoTemplate.getMongoDatabase().flatMap(database -> Mono.from(database.drop())).block();
+        client.close();
+    }
+
+    @Test
+    void invalidations_PlayerRenamed_PlayerInvalidated(){
+        Player player = mongoTemplate.insert(new Player("Goku")).block();
+
+        StepVerifier.create(bus.invalidations().filter(invalidation -> invalidation.id().equals(player.getId())))
+                .thenAwait(Duration.ofMillis(500))
+                .then(() -> {
+                    player.setName("Vegeta");
+                    mongoTemplate.save(player).block();
+                })
+                .assertNext(invalidation -> {
+                    assertEquals(Invalidation.Type.PLAYER, invalidation.type());
+                    assertTrue(invalidation.version() > 0);
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void playerNameCache_PlayerRenamedAfterTheRead_EntryDropped(){
+        PlayerNameCache playerNameCache = new PlayerNameCache(10, bus);
+        Player player = mongoTemplate.insert(new Player("Goku")).block();
+        playerNameCache.put("Goku", player.getId(), playerNameCache.version());
+
+        //The cache subscribed first, so it has seen the invalidation when it is emitted here
+        StepVerifier.create(bus.invalidations().filter(invalidation -> invalidation.id().equals(player.getId())))
+                .thenAwait(Duration.ofMillis(500))
+                .then(() -> {
+                    player.setName("Vegeta");
+                    mongoTemplate.save(player).block();
+                })
+                .assertNext(invalidation -> assertNull(playerNameCache.getId("Goku")))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+        playerNameCache.stop();
+    }
+
+    @Test
+    void invalidations_TwoChangesOfAGame_VersionsGrow(){
+        Game game = mongoTemplate.insert(new Game()).block();
+
+        StepVerifier.create(bus.invalidations().filter(invalidation -> invalidation.id().equals(game.getId())).take(2)
+                        .map(Invalidation::version).collectList())
+                .thenAwait(Duration.ofMillis(500))
+                .then(() -> {
+                    mongoTemplate.save(game).block();
+                    mongoTemplate.remove(game).block();
+                })
+                .assertNext(versions -> {
+                    assertEquals(2, versions.size());
+                    assertTrue(versions.get(1) > versions.get(0));
+                })
+                .verifyComplete();
+    }
+
+}
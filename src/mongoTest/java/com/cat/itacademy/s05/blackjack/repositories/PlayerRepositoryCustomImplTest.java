@@ -0,0 +1,108 @@
+package com.cat.itacademy.s05.blackjack.repositories;
+
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.WalletEntryType;
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.WalletEntry;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//The wallet is only aggregations run by MongoDB itself, so it is tested against a real one
+@Testcontainers
+public class PlayerRepositoryCustomImplTest {
+
+    @Container
+    private static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private MongoClient client;
+    private ReactiveMongoTemplate mongoTemplate;
+    private PlayerRepositoryCustomImpl repository;
+    private Player player;
+
+    @BeforeEach
+    void setUp(){
+        client = MongoClients.create(mongo.getReplicaSetUrl());
+        mongoTemplate = new ReactiveMongoTemplate(client, "blackjack_wallet_test");
+        repository = new PlayerRepositoryCustomImpl(mongoTemplate);
+        player = repository.upsertByName("Goku").block();
+    }
+
+    @AfterEach
+    void tearDown(){
+        mongoTemplate.getMongoDatabase().flatMap(database -> Mono.from(database.drop())).block();
+        client.close();
+    }
+
+    @Test
+    void findBalanceById_EntriesAppended_AddedToSnapshot(){
+        repository.appendWalletEntry(WalletEntry.stake(player.getId(), Play.INITIAL_BET, 30)).block();
+        repository.appendWalletEntry(WalletEntry.payout(player.getId(), "g1#0", 60)).block();
+
+        Player balance = repository.findBalanceById(player.getId()).block();
+
+        assertEquals(130, balance.getMoney());
+        assertEquals(1, balance.getGamesPlayed());
+        assertEquals(100, mongoTemplate.findById(player.getId(), Player.class).block().getMoney());
+    }
+
+    @Test
+    void appendWalletEntry_SamePayoutTwice_CreditedOnce(){
+        assertTrue(repository.appendWalletEntry(WalletEntry.payout(player.getId(), "g1#0", 60)).block());
+        assertFalse(repository.appendWalletEntry(WalletEntry.payout(player.getId(), "g1#0", 60)).block());
+
+        assertEquals(160, repository.findBalanceByName("Goku").block().getMoney());
+    }
+
+    @Test
+    void compactWallets_OldEntries_MovedIntoSnapshotOnce(){
+        repository.appendWalletEntry(WalletEntry.stake(player.getId(), Play.INITIAL_BET, 30)).block();
+        repository.appendWalletEntry(WalletEntry.payout(player.getId(), "g1#0", 60)).block();
+        Instant before = Instant.now();
+
+        assertEquals(1, repository.compactWallets(before).block());
+        assertEquals(0, repository.compactWallets(before).block());
+        repository.appendWalletEntry(new WalletEntry(null, player.getId(), WalletEntryType.DOUBLE, -30, 0,
+                before.plusSeconds(1))).block();
+
+        Player snapshot = mongoTemplate.findById(player.getId(), Player.class).block();
+        assertEquals(130, snapshot.getMoney());
+        assertEquals(1, snapshot.getGamesPlayed());
+        assertEquals(100, repository.findAllBalancesByOrderByMoneyDesc().blockFirst().getMoney());
+    }
+
+    @Test
+    void findBalanceById_StakesAndPayoutsAroundCompaction_EachCreditedOnce(){
+        repository.appendWalletEntry(WalletEntry.stake(player.getId(), Play.INITIAL_BET, 50)).block();
+        assertTrue(repository.appendWalletEntry(WalletEntry.payout(player.getId(), "g1#0", 100)).block());
+        assertFalse(repository.appendWalletEntry(WalletEntry.payout(player.getId(), "g1#0", 100)).block());
+        assertEquals(150, repository.findBalanceById(player.getId()).block().getMoney());
+
+        Instant before = Instant.now();
+        assertEquals(1, repository.compactWallets(before).block());
+        assertFalse(repository.appendWalletEntry(WalletEntry.payout(player.getId(), "g1#0", 100)).block(),
+                "Compacted payouts are still recorded");
+        repository.appendWalletEntry(new WalletEntry(null, player.getId(), WalletEntryType.BET, -20, 0,
+                before.plusSeconds(1))).block();
+        repository.appendWalletEntry(new WalletEntry("g2#0", player.getId(), WalletEntryType.PAYOUT, 0, 1,
+                before.plusSeconds(2))).block();
+
+        Player balance = repository.findBalanceById(player.getId()).block();
+        assertEquals(130, balance.getMoney());
+        assertEquals(2, balance.getGamesPlayed());
+        assertEquals(130, repository.findBalanceByName("Goku").block().getMoney());
+        assertEquals(150, mongoTemplate.findById(player.getId(), Player.class).block().getMoney());
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.cat.itacademy.s05.blackjack.cluster;
+
+import com.cat.itacademy.s05.blackjack.S05BlackjackApplication;
+import com.cat.itacademy.s05.blackjack.dto.PlayDTO;
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.services.GameService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Two nodes on local ports sharing nothing but the member list: node A forwards, node B answers with a redirect
+public class ClusterTest {
+
+    private static final String ADMIN_TOKEN = "cluster-test-admin";
+
+    private static String nodeA;
+    private static String nodeB;
+    private static ConfigurableApplicationContext contextA;
+    private static ConfigurableApplicationContext contextB;
+
+    @BeforeAll
+    static void startNodes() throws IOException {
+        int portA = freePort();
+        int portB = freePort();
+        nodeA = "http://localhost:" + portA;
+        nodeB = "http://localhost:" + portB;
+        contextA = startNode(portA, nodeA, true);
+        contextB = startNode(portB, nodeB, false);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (contextA != null) contextA.close();
+        if (contextB != null) contextB.close();
+    }
+
+    @Test
+    void getGame_OwnedByOtherNode_ForwardedToOwner(){
+        String gameId = createGameOwnedBy(contextB);
+
+        client(nodeA).get().uri("/game/{id}", gameId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(GameOwnershipFilter.OWNER_HEADER, nodeB)
+                .expectBody().jsonPath("$.players[0].name").exists();
+    }
+
+    @Test
+    void play_OwnedByOtherNode_BodyForwardedToOwner(){
+        String gameId = createGameOwnedBy(contextB);
+        GameService gameServiceB = contextB.getBean(GameService.class);
+        String playerId = gameServiceB.getGame(gameId).block().getPlayers().getFirst().getId();
+
+        client(nodeA).post().uri("/game/{id}/play", gameId)
+                .bodyValue(new PlayDTO(playerId, Play.INITIAL_BET, 10))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.players[0].bet").isEqualTo(10);
+
+        assertEquals(10, gameServiceB.getGame(gameId).block().getPlayers().getFirst().getBet());
+    }
+
+    @Test
+    void getGame_OwnedByOtherNode_RedirectedToOwner(){
+        String gameId = createGameOwnedBy(contextA);
+
+        client(nodeB).get().uri("/game/{id}?verbose=true", gameId)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.TEMPORARY_REDIRECT)
+                .expectHeader().valueEquals("Location", nodeA + "/game/" + gameId + "?verbose=true")
+                .expectHeader().valueEquals(GameOwnershipFilter.OWNER_HEADER, nodeA);
+    }
+
+    @Test
+    void getGame_OwnerLeftTheCluster_ServedLocally(){
+        String gameId = createGameOwnedBy(contextB);
+        try {
+            client(nodeA).put().uri("/admin/cluster/members")
+                    .headers(headers -> headers.setBearerAuth(ADMIN_TOKEN))
+                    .bodyValue(List.of(nodeA))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.members.length()").isEqualTo(1);
+
+            //Node A doesn't share the in-memory store of B, so the game that moved to it isn't found there
+            client(nodeA).get().uri("/game/{id}", gameId)
+                    .exchange()
+                    .expectStatus().isNotFound()
+                    .expectHeader().doesNotExist(GameOwnershipFilter.OWNER_HEADER);
+        } finally {
+            contextA.getBean(ClusterMembership.class).changeMembers(List.of(nodeA, nodeB));
+        }
+    }
+
+    @Test
+    void getGame_ClientSetsForwardHeader_StillRedirectedToOwner(){
+        String gameId = createGameOwnedBy(contextA);
+
+        client(nodeB).get().uri("/game/{id}", gameId)
+                .header(ForwardSignature.FORWARDED_BY_HEADER, nodeA)
+                .header(ForwardSignature.FORWARDED_AT_HEADER, Long.toString(System.currentTimeMillis()))
+                .header(ForwardSignature.SIGNATURE_HEADER, "forged")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.TEMPORARY_REDIRECT)
+                .expectHeader().valueEquals(GameOwnershipFilter.OWNER_HEADER, nodeA);
+    }
+
+    @Test
+    void changeMembers_WithoutAdminToken_Unauthorized(){
+        client(nodeA).put().uri("/admin/cluster/members")
+                .bodyValue(List.of(nodeA))
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        assertEquals(Set.of(nodeA, nodeB), Set.copyOf(contextA.getBean(ClusterMembership.class).getMembers()));
+    }
+
+    @Test
+    void changeMembers_MemberNotConfigured_BadRequest(){
+        client(nodeA).put().uri("/admin/cluster/members")
+                .headers(headers -> headers.setBearerAuth(ADMIN_TOKEN))
+                .bodyValue(List.of(nodeA, "http://evil.example:80"))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        assertEquals(Set.of(nodeA, nodeB), Set.copyOf(contextA.getBean(ClusterMembership.class).getMembers()));
+    }
+
+    private static String createGameOwnedBy(ConfigurableApplicationContext context) {
+        GameService gameService = context.getBean(GameService.class);
+        ClusterMembership membership = context.getBean(ClusterMembership.class);
+        for (int i = 0; i < 100; i++) {
+            String gameId = gameService.createGame("Cluster bot " + i).block();
+            if (membership.isOwner(gameId)) return gameId;
+        }
+        throw new AssertionError("No game owned by " + membership.getSelf());
+    }
+
+    private static ConfigurableApplicationContext startNode(int port, String self, boolean forwarding) {
+        return new SpringApplicationBuilder(S05BlackjackApplication.class)
+                .profiles("inmemory")
+                .run("--server.port=" + port,
+                        "--clusterEnabled=true",
+                        "--clusterMembers=" + nodeA + "," + nodeB,
+                        "--clusterSelf=" + self,
+                        "--clusterSecret=cluster-test-secret",
+                        "--adminToken=" + ADMIN_TOKEN,
+                        "--clusterForwarding=" + forwarding);
+    }
+
+    private static WebTestClient client(String node) {
+        return WebTestClient.bindToServer().baseUrl(node).build();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
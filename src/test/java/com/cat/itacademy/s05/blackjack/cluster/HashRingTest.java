@@ -0,0 +1,57 @@
+package com.cat.itacademy.s05.blackjack.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashRingTest {
+
+    private static final List<String> GAME_IDS = IntStream.range(0, 30_000)
+            .mapToObj(i -> String.format("673b4e77d181ca65a6%06x", i))
+            .toList();
+
+    @Test
+    void ownerOf_MembersInAnyOrder_SameOwner(){
+        HashRing ring = new HashRing(List.of("http://a:8080", "http://b:8080", "http://c:8080"), 128);
+        HashRing reordered = new HashRing(List.of("http://c:8080", "http://a:8080", "http://b:8080"), 128);
+
+        for (String gameId : GAME_IDS) assertEquals(ring.ownerOf(gameId), reordered.ownerOf(gameId));
+    }
+
+    @Test
+    void ownerOf_ThreeMembers_GamesSpreadEvenly(){
+        HashRing ring = new HashRing(List.of("http://a:8080", "http://b:8080", "http://c:8080"), 128);
+
+        Map<String, Integer> games = new HashMap<>();
+        for (String gameId : GAME_IDS) games.merge(ring.ownerOf(gameId), 1, Integer::sum);
+
+        assertEquals(3, games.size());
+        games.values().forEach(count -> assertTrue(count > 7_000 && count < 13_000, "Games per member: " + games));
+    }
+
+    @Test
+    void ownerOf_MemberAdded_OnlyGamesOfTheNewMemberMove(){
+        HashRing ring = new HashRing(List.of("http://a:8080", "http://b:8080", "http://c:8080"), 128);
+        HashRing grown = new HashRing(List.of("http://a:8080", "http://b:8080", "http://c:8080", "http://d:8080"), 128);
+
+        int moved = 0;
+        for (String gameId : GAME_IDS) {
+            if (!ring.ownerOf(gameId).equals(grown.ownerOf(gameId))) {
+                assertEquals("http://d:8080", grown.ownerOf(gameId));
+                moved++;
+            }
+        }
+        assertTrue(moved > 5_000 && moved < 10_000, "Games moved: " + moved);
+    }
+
+    @Test
+    void ownerOf_NoMembers_Null(){
+        assertNull(new HashRing(List.of(), 128).ownerOf("673b4e77d181ca65a6f436b9"));
+    }
+
+}
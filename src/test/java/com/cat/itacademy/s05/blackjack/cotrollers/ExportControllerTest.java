@@ -0,0 +1,88 @@
+package com.cat.itacademy.s05.blackjack.cotrollers;
+
+import com.cat.itacademy.s05.blackjack.controllers.ExportController;
+import com.cat.itacademy.s05.blackjack.dto.export.HandDTO;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.enums.Rank;
+import com.cat.itacademy.s05.blackjack.enums.Suit;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.services.HandExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExportControllerTest {
+
+    @InjectMocks
+    ExportController exportController;
+
+    @Mock private HandExportService mockHandExportService;
+
+    private WebTestClient client;
+
+    private final HandDTO hand = new HandDTO("673b4e77d181ca65a6f436b9", Instant.parse("2024-11-18T10:15:30Z"),
+            "673f22257b21b20c20d0d290", "John \"JD\" Doe", 20, PlayerStatus.WIN,
+            List.of(new Card(Suit.HEARTS, Rank.TEN), new Card(Suit.CLUBS, Rank.NINE)),
+            List.of(new Card(Suit.SPADES, Rank.SEVEN), new Card(Suit.DIAMONDS, Rank.KING)));
+
+    @BeforeEach
+    void setUp(){
+        client = WebTestClient.bindToController(exportController).build();
+    }
+
+    @Test
+    void exportHands_Ndjson_OneHandPerLine(){
+        when(mockHandExportService.exportHands(null, null)).thenReturn(Flux.just(hand, hand));
+
+        String body = client.get().uri("/export/hands")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        String[] lines = body.strip().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"status\":\"WIN\""));
+    }
+
+    @Test
+    void exportHands_Csv_HeaderAndEscapedRows(){
+        when(mockHandExportService.exportHandsAsCsv(Instant.parse("2024-11-01T00:00:00Z"), null))
+                .thenReturn(Flux.just(HandDTO.CSV_HEADER, hand.toCsvLine()));
+
+        String body = client.get().uri("/export/hands?from=2024-11-01T00:00:00Z")
+                .accept(MediaType.parseMediaType(ExportController.TEXT_CSV_VALUE))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertEquals(HandDTO.CSV_HEADER + "673b4e77d181ca65a6f436b9,2024-11-18T10:15:30Z,673f22257b21b20c20d0d290," +
+                "\"John \"\"JD\"\" Doe\",20,WIN,TEN:HEARTS NINE:CLUBS,SEVEN:SPADES KING:DIAMONDS\n", body);
+    }
+
+    @Test
+    void exportHands_AnyAccept_RespondsWithNdjson(){
+        when(mockHandExportService.exportHands(null, null)).thenReturn(Flux.just(hand));
+
+        client.get().uri("/export/hands")
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON);
+    }
+
+}
@@ -1,19 +1,44 @@
 package com.cat.itacademy.s05.blackjack.cotrollers;
 
+import com.cat.itacademy.s05.blackjack.cache.IdempotencyCache;
+import com.cat.itacademy.s05.blackjack.config.CodecConfig;
 import com.cat.itacademy.s05.blackjack.controllers.GameController;
 import com.cat.itacademy.s05.blackjack.dto.gamedto.GameDTO;
+import com.cat.itacademy.s05.blackjack.dto.gamedto.GameInProgressDTO;
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.Rank;
+import com.cat.itacademy.s05.blackjack.enums.Suit;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
 import com.cat.itacademy.s05.blackjack.dto.PlayDTO;
+import com.cat.itacademy.s05.blackjack.exceptions.GlobalExceptionHandler;
+import com.cat.itacademy.s05.blackjack.repositories.GameSearch;
 import com.cat.itacademy.s05.blackjack.services.GameService;
+import com.cat.itacademy.s05.blackjack.web.IdempotencyFilter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,6 +74,123 @@ public class GameControllerTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getGame_AnyAccept_RespondsWithJson(){
+        Game game = new Game();
+        game.setId("abc123456");
+        when(mockGameService.getGameDTO("abc123456")).thenReturn(Mono.just(new GameInProgressDTO(game)));
+
+        WebTestClient.bindToController(gameController).build()
+                .get().uri("/game/abc123456")
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody().jsonPath("$.gameId").isEqualTo("abc123456");
+    }
+
+    @Test
+    void getGame_CompactJsonAccept_CardsAsCodes(){
+        Game game = new Game();
+        game.setId("abc123456");
+        game.getCroupier().getCard(new Card(Suit.SPADES, Rank.KING));
+        game.getCroupier().getCard(new Card(Suit.HEARTS, Rank.NINE));
+        PlayerInGame player = new PlayerInGame("673f22257b21b20c20d0d290", "John Doe");
+        player.getCard(new Card(Suit.CLUBS, Rank.TEN));
+        player.getCard(new Card(Suit.DIAMONDS, Rank.TWO));
+        game.getPlayers().add(player);
+        when(mockGameService.getGameDTO("abc123456")).thenReturn(Mono.just(new GameInProgressDTO(game)));
+
+        bindWithApplicationCodecs()
+                .get().uri("/game/abc123456")
+                .accept(CodecConfig.COMPACT_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(CodecConfig.COMPACT_JSON)
+                .expectBody()
+                .jsonPath("$.gameId").isEqualTo("abc123456")
+                .jsonPath("$.croupier.cards[0]").isEqualTo("KS")
+                .jsonPath("$.croupier.cards[1]").isEqualTo("XX")
+                .jsonPath("$.players[0].cards[0]").isEqualTo("TC")
+                .jsonPath("$.players[0].cards[1]").isEqualTo("2D");
+    }
+
+    @Test
+    void getGame_CborAccept_SameDocumentAsJson() throws IOException {
+        Game game = new Game();
+        game.setId("abc123456");
+        game.getPlayers().add(new PlayerInGame("673f22257b21b20c20d0d290", "John Doe"));
+        when(mockGameService.getGameDTO("abc123456")).thenReturn(Mono.just(new GameInProgressDTO(game)));
+
+        byte[] body = bindWithApplicationCodecs()
+                .get().uri("/game/abc123456")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        JsonNode document = new CBORMapper().readTree(body);
+        assertEquals("abc123456", document.get("gameId").asText());
+        assertEquals("John Doe", document.get("players").get(0).get("name").asText());
+    }
+
+    @Test
+    void getGame_AnyAccept_Json(){
+        Game game = new Game();
+        game.setId("abc123456");
+        when(mockGameService.getGameDTO("abc123456")).thenReturn(Mono.just(new GameInProgressDTO(game)));
+
+        bindWithApplicationCodecs()
+                .get().uri("/game/abc123456")
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.gameId").isEqualTo("abc123456");
+    }
+
+    private WebTestClient bindWithApplicationCodecs(){
+        CodecCustomizer customizer = new CodecConfig()
+                .compactAndBinaryCodecCustomizer(new ObjectMapper(), Jackson2ObjectMapperBuilder.json());
+        return WebTestClient.bindToController(gameController)
+                .httpMessageCodecs(customizer::customize)
+                .build();
+    }
+
+    @Test
+    void searchGames_Ndjson_OneGamePerLine(){
+        Game first = new Game();
+        first.setId("673b4d48e52179685109a141");
+        Game second = new Game();
+        second.setId("673b4d48e52179685109a142");
+        when(mockGameService.searchGames(any(GameSearch.class)))
+                .thenReturn(Flux.just(new GameInProgressDTO(first), new GameInProgressDTO(second)));
+
+        String body = WebTestClient.bindToController(gameController).build()
+                .get().uri("/games?playerId=p1&concluded=false")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        String[] lines = body.strip().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("673b4d48e52179685109a142"));
+        verify(mockGameService).searchGames(new GameSearch("p1", null, false, null, 50));
+    }
+
+    @Test
+    void searchGames_InvalidCursor_Returns400(){
+        WebTestClient.bindToController(gameController).controllerAdvice(new GlobalExceptionHandler()).build()
+                .get().uri("/games?after=42")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
     @Test
     void executePlay_ReturnsGameDTO(){
         when(mockGameService.executePlay("abc123456", mockPlayDTO)).thenReturn((Mono.empty()));
@@ -61,6 +203,33 @@ public class GameControllerTest {
                 .verifyComplete();
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void executePlay_RetriedWithIdempotencyKey_PlayedOnce(){
+        Game game = new Game();
+        game.setId("abc123456");
+        PlayDTO play = new PlayDTO("p1", Play.DOUBLE, 0);
+        when(mockGameService.executePlay("abc123456", play)).thenReturn(Mono.empty());
+        when(mockGameService.getGameDTO("abc123456")).thenReturn(Mono.just(new GameInProgressDTO(game)));
+        WebTestClient client = WebTestClient.bindToController(gameController)
+                .webFilter(new IdempotencyFilter(new IdempotencyCache(10, 60), mock(ObjectProvider.class)))
+                .build();
+
+        for (int i = 0; i < 2; i++) {
+            client.post().uri("/game/abc123456/play")
+                    .header(IdempotencyFilter.KEY_HEADER, "retried-double")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(play)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.gameId").isEqualTo("abc123456");
+        }
+
+        verify(mockGameService, times(1)).executePlay("abc123456", play);
+        verify(mockGameService, times(1)).getGameDTO("abc123456");
+    }
+
     @Test
     void deleteGame_Returns204Response(){
         when(mockGameService.deleteGame("abc123456")).thenReturn((Mono.empty()));
@@ -0,0 +1,76 @@
+package com.cat.itacademy.s05.blackjack.cotrollers;
+
+import com.cat.itacademy.s05.blackjack.dto.PlayDTO;
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.services.GameService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.rsocket.server.LocalRSocketServerPort;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"spring.rsocket.server.transport=tcp", "spring.rsocket.server.port=0"})
+@ActiveProfiles("inmemory")
+public class GameRSocketControllerTest {
+
+    @Autowired private GameService gameService;
+    @Autowired private RSocketRequester.Builder requesterBuilder;
+    @LocalRSocketServerPort private int port;
+
+    private RSocketRequester requester;
+
+    @BeforeEach
+    void setUp(){
+        requester = requesterBuilder.tcp("localhost", port);
+    }
+
+    @AfterEach
+    void tearDown(){
+        requester.dispose();
+    }
+
+    @Test
+    void play_ChannelOfPlays_OneUpdatePerPlayInOrder(){
+        String gameId = gameService.createGame("RSocket bot").block();
+        String playerId = gameService.getGame(gameId).block().getPlayers().getFirst().getId();
+
+        Flux<PlayDTO> plays = Flux.just(
+                new PlayDTO("someone else", Play.INITIAL_BET, 10),
+                new PlayDTO(playerId, Play.INITIAL_BET, 10));
+
+        StepVerifier.create(requester.route("game.{gameId}.plays", gameId).data(plays).retrieveFlux(Map.class))
+                .assertNext(update -> {
+                    assertNull(update.get("game"));
+                    assertEquals("It's the turn of the player with id: " + playerId, update.get("error"));
+                })
+                .assertNext(update -> {
+                    assertNull(update.get("error"));
+                    Map<?, ?> game = (Map<?, ?>) update.get("game");
+                    Map<?, ?> player = (Map<?, ?>) ((List<?>) game.get("players")).getFirst();
+                    assertEquals(10, player.get("bet"));
+                })
+                .verifyComplete();
+
+        assertEquals(10, gameService.getGame(gameId).block().getPlayers().getFirst().getBet());
+    }
+
+    @Test
+    void play_UnknownGame_PlayIsRejected(){
+        StepVerifier.create(requester.route("game.{gameId}.plays", "unknown")
+                        .data(Flux.just(new PlayDTO("someone", Play.HIT, 0)))
+                        .retrieveFlux(Map.class))
+                .assertNext(update -> assertEquals("No game with id: unknown", update.get("error")))
+                .verifyComplete();
+    }
+
+}
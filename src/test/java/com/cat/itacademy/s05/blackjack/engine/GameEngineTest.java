@@ -0,0 +1,129 @@
+package com.cat.itacademy.s05.blackjack.engine;
+
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.enums.Rank;
+import com.cat.itacademy.s05.blackjack.enums.Suit;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Deck;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import com.cat.itacademy.s05.blackjack.utils.BlackjackHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameEngineTest {
+
+    private GameEngine engine;
+    private Settlement settlement;
+    private Game game;
+
+    //Deals the cards of the deck in order
+    private final CardDealer dealer = (deck, cards) -> cards.add(deck.getDeck().removeFirst());
+
+    @BeforeEach
+    void setUp() {
+        BlackjackHelper helper = new BlackjackHelper();
+        ReflectionTestUtils.setField(helper, "blackjackPayout", "THREE_TO_TWO");
+        engine = new GameEngine(helper, dealer);
+        settlement = new Settlement(helper);
+        game = new Game();
+        game.setId("game");
+        game.setDeck(new Deck());
+        game.getPlayers().add(new PlayerInGame("1", "Ann"));
+    }
+
+    private void stackDeck(Rank... ranks) {
+        for (Rank rank : ranks) game.getDeck().getDeck().add(new Card(Suit.CLUBS, rank));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"PENDING_BET, HIT, BET_REQUIRED", "WAITING_FOR_DEAL, STAND, WAITING_FOR_DEAL",
+            "PLAYING, INITIAL_BET, ALREADY_BET", "STAND, HIT, HAND_OVER", "BUST, INITIAL_BET, ALREADY_BET"})
+    void play_PlayNotAcceptedByStatus_ResultCodeAndGameUnchanged(PlayerStatus status, Play play, PlayResult expected) {
+        game.getActivePlayer().setStatus(status);
+
+        assertEquals(expected, engine.play(game, "1", play, 10));
+        assertEquals(status, game.getActivePlayer().getStatus());
+        assertEquals(0, game.getActivePlayer().getBet());
+    }
+
+    @Test
+    void play_NotTheActivePlayer_NotYourTurn() {
+        assertEquals(PlayResult.NOT_YOUR_TURN, engine.play(game, "2", Play.INITIAL_BET, 10));
+    }
+
+    @Test
+    void play_LastInitialBet_CardsAreDealt() {
+        stackDeck(Rank.TEN, Rank.SEVEN, Rank.NINE, Rank.EIGHT);
+
+        assertEquals(PlayResult.OK, engine.play(game, "1", Play.INITIAL_BET, 10));
+
+        assertEquals(2, game.getCroupier().getCards().size());
+        assertEquals(PlayerStatus.PLAYING, game.getActivePlayer().getStatus());
+        assertEquals(17, new BlackjackHelper().getHandValue(game.getActivePlayer().getCards()));
+    }
+
+    @Test
+    void play_StandLastSeat_GameConcludes() {
+        game.getActivePlayer().setStatus(PlayerStatus.PLAYING);
+
+        assertEquals(PlayResult.OK, engine.play(game, "1", Play.STAND, 0));
+
+        assertTrue(game.isConcluded());
+    }
+
+    @Test
+    void getStake_EachPlay_MoneyPutOnTheTable() {
+        assertEquals(10, GameEngine.getStake(Play.INITIAL_BET, 10, 0));
+        assertEquals(20, GameEngine.getStake(Play.DOUBLE, 0, 20));
+        assertEquals(20, GameEngine.getStake(Play.SPLIT, 0, 20));
+        assertEquals(0, GameEngine.getStake(Play.HIT, 0, 20));
+    }
+
+    @Test
+    void removeActivePlayer_PlayerHasBet_NotPendingBet() {
+        game.getActivePlayer().setStatus(PlayerStatus.WAITING_FOR_DEAL);
+
+        assertEquals(PlayResult.NOT_PENDING_BET, engine.removeActivePlayer(game));
+        assertEquals(1, game.getPlayers().size());
+    }
+
+    @Test
+    void resolveCroupierHand_Soft17ForcedDraw_CroupierDrawsOnSoft17() {
+        game.getCroupier().getCards().addAll(List.of(new Card(Suit.HEARTS, Rank.ACE), new Card(Suit.HEARTS, Rank.SIX)));
+        stackDeck(Rank.TWO);
+
+        engine.resolveCroupierHand(game, true);
+
+        assertEquals(3, game.getCroupier().getCards().size());
+    }
+
+    @Test
+    void settlement_PlayerBeatsCroupier_WinPaysDoubleTheBet() {
+        PlayerInGame player = game.getActivePlayer();
+        player.setBet(10);
+        player.setStatus(PlayerStatus.STAND);
+        player.getCards().addAll(List.of(new Card(Suit.HEARTS, Rank.TEN), new Card(Suit.HEARTS, Rank.NINE)));
+
+        player.setStatus(settlement.getFinalStatus(player, false, 18));
+
+        assertEquals(PlayerStatus.WIN, player.getStatus());
+        assertEquals(20, settlement.getWinnings(player));
+    }
+
+    @Test
+    void settlement_SeatNotSettled_NegativeWinnings() {
+        game.getActivePlayer().setStatus(PlayerStatus.PLAYING);
+
+        assertEquals(-1, settlement.getWinnings(game.getActivePlayer()));
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.cat.itacademy.s05.blackjack.metrics;
+
+import com.cat.itacademy.s05.blackjack.dto.HouseSnapshotDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HouseMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private HouseMetrics houseMetrics;
+
+    @BeforeEach
+    void setUp(){
+        registry = new SimpleMeterRegistry();
+        houseMetrics = new HouseMetrics(registry);
+    }
+
+    @Test
+    void recordSettlement_AllBetsSettled_ResultIsBetsMinusPayouts(){
+        houseMetrics.recordStake("g1", 20);
+        houseMetrics.recordStake("g1", 20);
+        houseMetrics.recordStake("g1", 10);
+
+        assertEquals(Map.of("g1", 50L), houseMetrics.snapshot().tableExposure());
+
+        houseMetrics.recordSettlement("g1", 40, 80);
+        houseMetrics.recordSettlement("g1", 10, 0);
+        houseMetrics.closeTable("g1");
+
+        HouseSnapshotDTO snapshot = houseMetrics.snapshot();
+        assertEquals(-30, snapshot.result());
+        assertEquals(50, snapshot.wagered());
+        assertEquals(80, snapshot.paidOut());
+        assertEquals(0, snapshot.outstandingBets());
+        assertTrue(snapshot.tableExposure().isEmpty());
+        assertEquals(-30, registry.get("blackjack.house.result").gauge().value());
+    }
+
+    @Test
+    void closeTable_BetsNotSettled_BetsAreKeptByTheHouse(){
+        houseMetrics.recordStake("g1", 30);
+        houseMetrics.recordStake("g2", 50);
+
+        assertEquals(50, registry.get("blackjack.house.exposure.max").gauge().value());
+
+        houseMetrics.closeTable("g1");
+
+        HouseSnapshotDTO snapshot = houseMetrics.snapshot();
+        assertEquals(30, snapshot.result());
+        assertEquals(50, snapshot.outstandingBets());
+        assertEquals(Map.of("g2", 50L), snapshot.tableExposure());
+    }
+
+    @Test
+    void recordStake_ConcurrentPlays_NoUpdateIsLost() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4000; i++) {
+            String tableId = "g" + (i % 8);
+            executor.execute(() -> houseMetrics.recordStake(tableId, 10));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        HouseSnapshotDTO snapshot = houseMetrics.snapshot();
+        assertEquals(40000, snapshot.wagered());
+        assertEquals(40000, snapshot.outstandingBets());
+        assertEquals(5000, houseMetrics.getMaxTableExposure());
+    }
+
+}
@@ -0,0 +1,238 @@
+package com.cat.itacademy.s05.blackjack.repositories;
+
+import com.cat.itacademy.s05.blackjack.cache.InProcessInvalidationBus;
+import com.cat.itacademy.s05.blackjack.cache.Invalidation;
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GameWriteCoalescerTest {
+
+    private GameRepository gameRepository;
+    private ObjectProvider<ReactiveMongoTemplate> mongoTemplate;
+    private SimpleMeterRegistry registry;
+    private final List<Map<String, Game>> batches = new ArrayList<>();
+    private final Map<String, Throwable> failures = new HashMap<>();
+    private final InProcessInvalidationBus invalidationBus = new InProcessInvalidationBus();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp(){
+        gameRepository = mock(GameRepository.class);
+        mongoTemplate = mock(ObjectProvider.class);
+        when(mongoTemplate.getIfAvailable()).thenReturn(mock(ReactiveMongoTemplate.class));
+        registry = new SimpleMeterRegistry();
+    }
+
+    private GameWriteCoalescer coalescer(boolean enabled, long delayMillis, int batchSize){
+        return new GameWriteCoalescer(gameRepository, mongoTemplate, new GameMetrics(registry), invalidationBus,
+                enabled, delayMillis, batchSize) {
+            @Override
+            protected Mono<Map<String, Throwable>> writeBatch(Map<String, Game> games) {
+                batches.add(games);
+                return Mono.just(failures);
+            }
+        };
+    }
+
+    private Game game(String id){
+        Game game = new Game();
+        game.setId(id);
+        return game;
+    }
+
+    @Test
+    void save_SameGameTwice_OneWriteAndBothCallersComplete(){
+        GameWriteCoalescer coalescer = coalescer(true, 50, 500);
+        Game first = game("game");
+        Game second = game("game");
+
+        StepVerifier.create(Mono.zip(coalescer.save(first), coalescer.save(second)))
+                .assertNext(saved -> {
+                    assertSame(first, saved.getT1());
+                    assertSame(second, saved.getT2());
+                })
+                .verifyComplete();
+
+        assertEquals(1, batches.size());
+        assertSame(second, batches.getFirst().get("game"));
+        assertEquals(1, registry.get("blackjack.game.writes.collapsed").counter().count());
+    }
+
+    @Test
+    void save_BatchSizeReached_WritesWithoutWaiting(){
+        GameWriteCoalescer coalescer = coalescer(true, 60_000, 2);
+
+        StepVerifier.create(Mono.zip(coalescer.save(game("a")), coalescer.save(game("b"))))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(1, batches.size());
+        assertEquals(List.of("a", "b"), List.copyOf(batches.getFirst().keySet()));
+    }
+
+    @Test
+    void save_NewGame_IdIsAssigned(){
+        StepVerifier.create(coalescer(true, 1, 500).save(new Game()))
+                .assertNext(saved -> assertNotNull(saved.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void save_OneGameFails_OnlyThatCallerFails(){
+        GameWriteCoalescer coalescer = coalescer(true, 50, 500);
+        failures.put("bad", new DataIntegrityViolationException("rejected"));
+
+        Mono<Game> good = coalescer.save(game("good")).cache();
+        Mono<Game> bad = coalescer.save(game("bad")).cache();
+        good.subscribe(g -> {}, e -> {});
+        bad.subscribe(g -> {}, e -> {});
+
+        StepVerifier.create(good).expectNextCount(1).verifyComplete();
+        StepVerifier.create(bad).verifyError(DataIntegrityViolationException.class);
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void delete_AfterSave_LastWriteIsTheDelete(){
+        GameWriteCoalescer coalescer = coalescer(true, 50, 500);
+        Game game = game("game");
+
+        StepVerifier.create(Mono.when(coalescer.save(game), coalescer.delete(game)))
+                .verifyComplete();
+
+        assertEquals(1, batches.size());
+        assertTrue(batches.getFirst().containsKey("game"));
+        assertNull(batches.getFirst().get("game"));
+    }
+
+    @Test
+    void save_Written_GameInvalidated(){
+        List<Invalidation> invalidations = new ArrayList<>();
+        invalidationBus.invalidations().subscribe(invalidations::add);
+
+        StepVerifier.create(coalescer(true, 1, 500).save(game("game")))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(1, invalidations.size());
+        assertEquals(Invalidation.Type.GAME, invalidations.getFirst().type());
+        assertEquals("game", invalidations.getFirst().id());
+    }
+
+    @Test
+    void save_Disabled_GoesStraightToTheRepository(){
+        Game game = game("game");
+        when(gameRepository.save(game)).thenReturn(Mono.just(game));
+
+        StepVerifier.create(coalescer(false, 5, 500).save(game))
+                .expectNext(game)
+                .verifyComplete();
+
+        verify(gameRepository).save(game);
+        assertTrue(batches.isEmpty());
+    }
+
+    //The real bulk write, with the real conversion, against a mocked collection
+    @SuppressWarnings("unchecked")
+    private MongoCollection<Document> mongoCollection(){
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        when(template.getConverter()).thenReturn(converter);
+        when(template.getCollectionName(Game.class)).thenReturn("games");
+        when(template.getCollection("games")).thenReturn(Mono.just(collection));
+        when(mongoTemplate.getIfAvailable()).thenReturn(template);
+        return collection;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeBatch_SaveAndDelete_UpsertAndDeleteModelsInOneUnorderedBulkWrite(){
+        MongoCollection<Document> collection = mongoCollection();
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class)))
+                .thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+        GameWriteCoalescer coalescer = new GameWriteCoalescer(gameRepository, mongoTemplate, new GameMetrics(registry),
+                invalidationBus, true, 50, 500);
+        String savedId = ObjectId.get().toHexString();
+        String deletedId = ObjectId.get().toHexString();
+        Game saved = game(savedId);
+        saved.setConcluded(true);
+
+        StepVerifier.create(Mono.when(coalescer.save(saved), coalescer.delete(game(deletedId))))
+                .verifyComplete();
+
+        ArgumentCaptor<List<WriteModel<Document>>> writes = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<BulkWriteOptions> options = ArgumentCaptor.forClass(BulkWriteOptions.class);
+        verify(collection).bulkWrite(writes.capture(), options.capture());
+        assertFalse(options.getValue().isOrdered());
+        ReplaceOneModel<Document> upsert = (ReplaceOneModel<Document>) writes.getValue().get(0);
+        assertTrue(upsert.getReplaceOptions().isUpsert());
+        assertEquals(new ObjectId(savedId), upsert.getReplacement().get("_id"));
+        assertEquals(true, upsert.getReplacement().get("concluded"));
+        assertEquals(Filters.eq("_id", new ObjectId(savedId)), upsert.getFilter());
+        DeleteOneModel<Document> delete = (DeleteOneModel<Document>) writes.getValue().get(1);
+        assertEquals(Filters.eq("_id", new ObjectId(deletedId)), delete.getFilter());
+    }
+
+    @Test
+    void writeBatch_WriteErrorAtIndex_OnlyThatGameFails(){
+        MongoCollection<Document> collection = mongoCollection();
+        MongoBulkWriteException rejected = new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)), null,
+                new ServerAddress(), Set.of());
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(Mono.error(rejected));
+        GameWriteCoalescer coalescer = new GameWriteCoalescer(gameRepository, mongoTemplate, new GameMetrics(registry),
+                invalidationBus, true, 50, 500);
+
+        Mono<Game> good = coalescer.save(game(ObjectId.get().toHexString())).cache();
+        Mono<Game> bad = coalescer.save(game(ObjectId.get().toHexString())).cache();
+        good.subscribe(g -> {}, e -> {});
+        bad.subscribe(g -> {}, e -> {});
+
+        StepVerifier.create(good).expectNextCount(1).verifyComplete();
+        StepVerifier.create(bad).verifyError(DataIntegrityViolationException.class);
+    }
+
+}
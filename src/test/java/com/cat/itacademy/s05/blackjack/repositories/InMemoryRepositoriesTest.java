@@ -0,0 +1,180 @@
+package com.cat.itacademy.s05.blackjack.repositories;
+
+import com.cat.itacademy.s05.blackjack.dto.PlayDTO;
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.services.GameService;
+import com.cat.itacademy.s05.blackjack.services.PlayerService;
+import com.cat.itacademy.s05.blackjack.services.SettlementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("inmemory")
+public class InMemoryRepositoriesTest {
+
+    @Autowired private GameService gameService;
+    @Autowired private PlayerService playerService;
+    @Autowired private SettlementService settlementService;
+    @Autowired private GameRepository gameRepository;
+    @Autowired private PlayerRepository playerRepository;
+
+    @Test
+    void gameFlow_CreateBetAndStand_GameConcludesAndPlayerIsSettled(){
+        String gameId = gameService.createGame("In memory player").block();
+        Game game = gameService.getGame(gameId).block();
+        String playerId = game.getPlayers().getFirst().getId();
+
+        gameService.executePlay(gameId, new PlayDTO(playerId, Play.INITIAL_BET, 10)).block();
+        Game dealt = gameService.getGame(gameId).block();
+        assertEquals(PlayerStatus.PLAYING, dealt.getPlayers().getFirst().getStatus());
+        gameService.executePlay(gameId, new PlayDTO(playerId, Play.STAND, 0)).block();
+
+        assertTrue(gameService.getGame(gameId).block().isConcluded());
+        settlementService.settlePending().block();
+        assertEquals(1, playerService.getPlayerById(playerId).block().getGamesPlayed());
+    }
+
+    @Test
+    void findById_ReturnedGameIsMutated_StoredGameIsUnchanged(){
+        Game game = gameRepository.save(new Game()).block();
+        game.setConcluded(true);
+
+        StepVerifier.create(gameRepository.findById(game.getId()))
+                .consumeNextWith(stored -> assertFalse(stored.isConcluded()))
+                .verifyComplete();
+    }
+
+    @Test
+    void findAllByOrderByMoneyDesc_MoneyChanges_RankingIsReordered(){
+        Player rich = playerRepository.upsertByName("Ranking rich").block();
+        Player poor = playerRepository.upsertByName("Ranking poor").block();
+        playerService.addMoney(poor.getId(), 1_000_000).block();
+
+        List<String> ranking = playerRepository.findAllByOrderByMoneyDesc().map(Player::getId).collectList().block();
+
+        assertTrue(ranking.indexOf(poor.getId()) < ranking.indexOf(rich.getId()));
+    }
+
+    @Test
+    void findAll_SortedByMoneyDescending_RichestFirst(){
+        Player rich = playerRepository.upsertByName("Sorted rich").block();
+        playerService.addMoney(rich.getId(), 2_000_000).block();
+
+        List<Integer> money = playerRepository.findAll(Sort.by(Sort.Direction.DESC, "money"))
+                .map(Player::getMoney).collectList().block();
+
+        assertEquals(2_000_000 + rich.getMoney(), money.getFirst());
+        for (int i = 1; i < money.size(); i++) assertTrue(money.get(i - 1) >= money.get(i));
+    }
+
+    private record PlayerName(String name) {
+    }
+
+    @Test
+    void findAll_ExampleWithNameStart_OnlyMatchingPlayers(){
+        playerRepository.upsertByName("Example Ann").block();
+        playerRepository.upsertByName("Example Bob").block();
+        playerRepository.upsertByName("Other Ann").block();
+        Example<Player> example = Example.of(new Player("example "), ExampleMatcher.matching()
+                .withStringMatcher(ExampleMatcher.StringMatcher.STARTING)
+                .withIgnoreCase()
+                .withIgnorePaths("money", "gamesPlayed"));
+
+        StepVerifier.create(playerRepository.findAll(example, Sort.by(Sort.Direction.DESC, "name")).map(Player::getName))
+                .expectNext("Example Bob", "Example Ann")
+                .verifyComplete();
+        StepVerifier.create(playerRepository.count(example)).expectNext(2L).verifyComplete();
+        StepVerifier.create(playerRepository.findOne(example))
+                .expectError(IncorrectResultSizeDataAccessException.class)
+                .verify();
+        StepVerifier.create(playerRepository.findBy(example, query -> query.sortBy(Sort.by("name"))
+                        .as(PlayerName.class)
+                        .page(PageRequest.of(1, 1))))
+                .consumeNextWith(page -> {
+                    assertEquals(List.of(new PlayerName("Example Bob")), page.getContent());
+                    assertEquals(2, page.getTotalElements());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void exists_ExampleWithPrimitiveDefaults_ComparedAsInMongo(){
+        Player player = playerRepository.upsertByName("Probe defaults").block();
+        Player probe = new Player("Probe defaults");
+        probe.setMoney(player.getMoney() + 1);
+
+        StepVerifier.create(playerRepository.exists(Example.of(probe))).expectNext(false).verifyComplete();
+        probe.setMoney(player.getMoney());
+        StepVerifier.create(playerRepository.exists(Example.of(probe))).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    void save_NameOfAnotherPlayer_DuplicateKeyException(){
+        playerRepository.upsertByName("Unique name").block();
+
+        StepVerifier.create(playerRepository.save(new Player("Unique name")))
+                .expectError(DuplicateKeyException.class)
+                .verify();
+    }
+
+    @Test
+    void upsertByName_SameNameTwice_SamePlayer(){
+        Player first = playerRepository.upsertByName("Upserted player").block();
+        Player second = playerRepository.upsertByName("Upserted player").block();
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(100, second.getMoney());
+    }
+
+    @Test
+    void search_PlayerGamesInPages_NextPageStartsAfterLastGame(){
+        Player player = playerRepository.upsertByName("Searched player").block();
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(gameService.createGame("Searched player").block());
+        }
+        gameService.createGame("Someone else").block();
+
+        List<Game> firstPage = gameRepository.search(new GameSearch(player.getId(), null, false, null, 2))
+                .collectList().block();
+        List<Game> secondPage = gameRepository.search(new GameSearch(player.getId(), null, false,
+                firstPage.getLast().getId(), 2)).collectList().block();
+
+        assertEquals(created.subList(0, 2), firstPage.stream().map(Game::getId).toList());
+        assertEquals(created.subList(2, 3), secondPage.stream().map(Game::getId).toList());
+        assertNull(firstPage.getFirst().getDeck());
+    }
+
+    @Test
+    void renamePlayer_PlayerInGames_RenamedOnlyWherePresent(){
+        String renamedGame = gameService.createGame("Renamed player").block();
+        String otherGame = gameService.createGame("Not renamed player").block();
+        String playerId = gameService.getGame(renamedGame).block().getPlayers().getFirst().getId();
+
+        StepVerifier.create(gameRepository.renamePlayer(playerId, "New name"))
+                .expectNext(1L)
+                .verifyComplete();
+
+        assertEquals("New name", gameService.getGame(renamedGame).block().getPlayers().getFirst().getName());
+        assertEquals("Not renamed player", gameService.getGame(otherGame).block().getPlayers().getFirst().getName());
+        assertNotNull(gameService.getGame(renamedGame).block().getDeck());
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.cat.itacademy.s05.blackjack.repositories;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.model.PlayerStats;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+class PlayerStatsRepositoryCustomImplTest {
+
+    private ReactiveBulkOperations bulkOperations;
+    private PlayerStatsRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setUp(){
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        bulkOperations = mock(ReactiveBulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, PlayerStats.class)).thenReturn(bulkOperations);
+        repository = new PlayerStatsRepositoryCustomImpl(mongoTemplate);
+    }
+
+    private PlayerStats delta(String playerId){
+        PlayerStats delta = new PlayerStats(playerId);
+        delta.addHand(PlayerStatus.WIN, 10, 20);
+        return delta;
+    }
+
+    @Test
+    void incrementAll_Written_NoneRejected(){
+        when(bulkOperations.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+
+        StepVerifier.create(repository.incrementAll(List.of(delta("p1"), delta("p2"))))
+                .expectNext(Set.of())
+                .verifyComplete();
+        verify(bulkOperations, times(2)).upsert(any(), any());
+    }
+
+    @Test
+    void incrementAll_WriteErrorAtIndex_OnlyThatPlayerRejected(){
+        MongoBulkWriteException rejected = new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)), null,
+                new ServerAddress(), Set.of());
+        when(bulkOperations.execute()).thenReturn(Mono.error(new BulkOperationException("rejected", rejected)));
+
+        StepVerifier.create(repository.incrementAll(List.of(delta("p1"), delta("p2"), delta("p3"))))
+                .expectNext(Set.of("p2"))
+                .verifyComplete();
+    }
+
+    @Test
+    void incrementAll_BulkWriteFailed_Error(){
+        when(bulkOperations.execute()).thenReturn(Mono.error(new IllegalStateException("Database down")));
+
+        StepVerifier.create(repository.incrementAll(List.of(delta("p1"))))
+                .verifyError(IllegalStateException.class);
+    }
+
+}
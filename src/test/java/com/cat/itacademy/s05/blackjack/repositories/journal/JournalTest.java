@@ -0,0 +1,190 @@
+package com.cat.itacademy.s05.blackjack.repositories.journal;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.enums.Rank;
+import com.cat.itacademy.s05.blackjack.enums.Suit;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Deck;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.Payout;
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import com.cat.itacademy.s05.blackjack.model.PlayerStats;
+import com.cat.itacademy.s05.blackjack.model.WalletEntry;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.GameDeleted;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.GameSaved;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.PlayerSaved;
+import com.cat.itacademy.s05.blackjack.repositories.journal.JournalRecord.WalletChanged;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalTest {
+
+    @TempDir
+    Path directory;
+
+    private Journal open(int segmentBytes) {
+        return new Journal(directory.toString(), segmentBytes, 10, 1000);
+    }
+
+    private Game game(String id) {
+        Game game = new Game();
+        game.setId(id);
+        game.setActivePlayerIndex(1);
+        game.getCroupier().getCard(new Card(Suit.HEARTS, Rank.ACE));
+        PlayerInGame player = new PlayerInGame("p1", "Ann");
+        player.setBet(20);
+        player.setStatus(PlayerStatus.PLAYING);
+        player.getCard(new Card(Suit.CLUBS, Rank.TEN));
+        game.getPlayers().add(player);
+        Deck deck = new Deck();
+        deck.getDeck().add(new Card(Suit.SPADES, Rank.TWO));
+        game.setDeck(deck);
+        return game;
+    }
+
+    private Player player(String id, String name, int money) {
+        Player player = new Player(name);
+        player.setId(id);
+        player.setMoney(money);
+        return player;
+    }
+
+    @Test
+    void reopen_AppendedRecords_StateIsRecovered() throws IOException {
+        Journal journal = open(1 << 16);
+        journal.append(new GameSaved(game("g1")));
+        journal.append(new GameSaved(game("g2")));
+        journal.append(new GameDeleted("g1"));
+        journal.append(new PlayerSaved(player("p1", "Ann", 100)));
+        journal.append(new WalletChanged("p1", -20, 1));
+        journal.close();
+
+        JournalState state = open(1 << 16).getRecoveredState();
+
+        List<Game> games = new ArrayList<>(state.takeGames());
+        assertEquals(1, games.size());
+        Game game = games.getFirst();
+        assertEquals("g2", game.getId());
+        assertEquals(1, game.getActivePlayerIndex());
+        assertEquals(new Card(Suit.HEARTS, Rank.ACE), game.getCroupier().getCards().getFirst());
+        assertEquals(PlayerStatus.PLAYING, game.getPlayers().getFirst().getStatus());
+        assertEquals(20, game.getPlayers().getFirst().getBet());
+        assertEquals(new Card(Suit.SPADES, Rank.TWO), game.getDeck().getDeck().getFirst());
+        Player player = state.takePlayers().iterator().next();
+        assertEquals(80, player.getMoney());
+        assertEquals(1, player.getGamesPlayed());
+    }
+
+    @Test
+    void reopen_CorruptedRecord_RecordsBeforeItAreRecovered() throws IOException {
+        Journal journal = open(1 << 16);
+        journal.append(new PlayerSaved(player("p1", "Ann", 100)));
+        journal.append(new WalletChanged("p1", 50, 0));
+        journal.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int secondRecord = 8 + ByteBuffer.wrap(Files.readAllBytes(segment)).getInt(0);
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), secondRecord + 9);
+        }
+
+        Player player = open(1 << 16).getRecoveredState().takePlayers().iterator().next();
+
+        assertEquals(100, player.getMoney());
+    }
+
+    @Test
+    void compact_SealedSegments_SnapshotReplacesThem() throws IOException {
+        Journal journal = open(1024);
+        journal.append(new PlayerSaved(player("p1", "Ann", 100)));
+        for (int i = 0; i < 500; i++) {
+            journal.append(new GameSaved(game("g" + i % 10)));
+            journal.append(new WalletChanged("p1", 1, 0));
+        }
+        journal.compact();
+        journal.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.map(file -> file.getFileName().toString()).filter(name -> name.startsWith("segment-"))
+                    .count() <= 2);
+        }
+        JournalState state = open(1024).getRecoveredState();
+        assertEquals(10, state.takeGames().size());
+        assertEquals(600, state.takePlayers().iterator().next().getMoney());
+    }
+
+    @Test
+    void playerRepository_MoneyChanges_RecoveredAfterReopen() throws IOException {
+        Journal journal = open(1 << 16);
+        JournalPlayerRepository repository = new JournalPlayerRepository(journal);
+        Player player = repository.upsertByName("Ann").block();
+        player.setMoney(250);
+        repository.save(player).block();
+        journal.close();
+
+        JournalPlayerRepository recovered = new JournalPlayerRepository(open(1 << 16));
+
+        assertEquals(250, recovered.findByName("Ann").block().getMoney());
+        assertEquals(player.getId(), recovered.findAllByOrderByMoneyDesc().blockFirst().getId());
+    }
+
+    @Test
+    void settlement_PendingPayoutsAndCreditedPayouts_RecoveredAfterReopen() throws IOException {
+        Journal journal = open(1 << 16);
+        JournalGameRepository games = new JournalGameRepository(journal);
+        JournalPlayerRepository players = new JournalPlayerRepository(journal);
+        Player player = players.upsertByName("Ann").block();
+        Game game = game("g1");
+        game.setConcluded(true);
+        game.setPendingPayouts(List.of(new Payout(Payout.id("g1", 0), player.getId(), PlayerStatus.WIN, 20, 40),
+                new Payout(Payout.id("g1", 1), player.getId(), PlayerStatus.LOOSE, 20, 0)));
+        game.setSettlementPending(true);
+        games.save(game).block();
+        players.appendWalletEntry(WalletEntry.payout(player.getId(), Payout.id("g1", 0), 40)).block();
+        journal.close();
+
+        Journal reopened = open(1 << 16);
+        JournalGameRepository recoveredGames = new JournalGameRepository(reopened);
+        JournalPlayerRepository recoveredPlayers = new JournalPlayerRepository(reopened);
+
+        Game recovered = recoveredGames.findPendingSettlement(10).blockFirst();
+        assertEquals(game.getPendingPayouts(), recovered.getPendingPayouts());
+        assertFalse(recoveredPlayers.appendWalletEntry(WalletEntry.payout(player.getId(), Payout.id("g1", 0), 40)).block());
+        assertTrue(recoveredPlayers.appendWalletEntry(WalletEntry.payout(player.getId(), Payout.id("g1", 1), 0)).block());
+        assertEquals(player.getMoney() + 40, recoveredPlayers.findById(player.getId()).block().getMoney());
+    }
+
+    @Test
+    void playerStatsRepository_Increments_RecoveredAfterReopen() throws IOException {
+        Journal journal = open(1 << 16);
+        JournalPlayerStatsRepository repository = new JournalPlayerStatsRepository(journal);
+        PlayerStats delta = new PlayerStats("p1");
+        delta.addHand(PlayerStatus.BLACKJACK, 20, 50);
+        repository.incrementAll(List.of(delta)).block();
+        repository.incrementAll(List.of(delta)).block();
+        journal.close();
+
+        PlayerStats recovered = new JournalPlayerStatsRepository(open(1 << 16)).findById("p1").block();
+
+        assertEquals(2, recovered.getHands());
+        assertEquals(2, recovered.getBlackjacks());
+        assertEquals(40, recovered.getTotalBet());
+        assertEquals(60, recovered.getNetResult());
+    }
+
+}
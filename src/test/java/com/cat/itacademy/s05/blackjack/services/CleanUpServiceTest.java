@@ -4,6 +4,7 @@ import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
 import com.cat.itacademy.s05.blackjack.enums.Rank;
 import com.cat.itacademy.s05.blackjack.enums.Suit;
 import com.cat.itacademy.s05.blackjack.exceptions.custom.IllegalPlayerStatusException;
+import com.cat.itacademy.s05.blackjack.metrics.HouseMetrics;
 import com.cat.itacademy.s05.blackjack.model.*;
 import com.cat.itacademy.s05.blackjack.utils.BlackjackHelper;
 import org.junit.jupiter.api.BeforeEach;
@@ -32,12 +33,11 @@ public class CleanUpServiceTest {
 
     @Mock private BlackjackHelper mockBlackjackHelper;
     @Mock private PlayerService mockPlayerService;
+    @Mock private PlayerStatsService mockPlayerStatsService;
+    @Mock private HouseMetrics mockHouseMetrics;
 
     private PlayerInGame playerInGame;
 
-    private Player player;
-    private final int INITIAL_GAMES_PLAYED = 3;
-    private final int INITIAL_MONEY = 100;
 
     private final List<Card> blackjackHand = List.of(new Card(Suit.CLUBS, Rank.ACE), new Card(Suit.CLUBS, Rank.KING));
     private final List<Card> nonBlackjackValue21Hand = List.of(new Card(Suit.HEARTS, Rank.NINE), new Card(Suit.CLUBS, Rank.EIGHT)
@@ -55,10 +55,6 @@ public class CleanUpServiceTest {
     void setUp() {
         playerInGame = new PlayerInGame("123", "example player");
 
-        player = new Player("example player");
-        player.setGamesPlayed(INITIAL_GAMES_PLAYED);
-        player.setMoney(INITIAL_MONEY);
-
         lenient().when(mockBlackjackHelper.getSurrenderPayout(anyInt()))
                 .thenAnswer(invocation -> (int) invocation.getArguments()[0] / 2);
         lenient().when(mockBlackjackHelper.getBlackjackPayout(anyInt()))
@@ -199,16 +195,16 @@ public class CleanUpServiceTest {
             "BLACKJACK, 10, 25"
     })
     void resolveBet_GivenPlayerStatus_WinningsAreCorrect(PlayerStatus status, int bet, int expectedWinnings){
-        when(mockPlayerService.getPlayerById(anyString())).thenReturn(Mono.just(player));
-        when(mockPlayerService.savePlayer(player)).thenReturn(Mono.just(player));
-
         playerInGame.setStatus(status);
         playerInGame.setBet(bet);
 
-        StepVerifier.create(cleanUpService.resolveBet(playerInGame))
-                .consumeNextWith(player -> {
-                    assertEquals(INITIAL_MONEY + expectedWinnings, player.getMoney());
+        StepVerifier.create(cleanUpService.resolveBet("abc123456", 1, playerInGame))
+                .consumeNextWith(payout -> {
+                    assertEquals(expectedWinnings, payout.winnings());
+                    assertEquals("abc123456#1", payout.id());
+                    assertEquals("123", payout.playerId());
                 }).verifyComplete();
+        verifyNoInteractions(mockPlayerService);
     }
 
     @ParameterizedTest
@@ -217,7 +213,7 @@ public class CleanUpServiceTest {
         playerInGame.setStatus(status);
         playerInGame.setBet(10);
 
-        StepVerifier.create(cleanUpService.resolveBet(playerInGame))
+        StepVerifier.create(cleanUpService.resolveBet("abc123456", 0, playerInGame))
                 .expectError(IllegalPlayerStatusException.class)
                 .verify();
     }
@@ -231,17 +227,28 @@ public class CleanUpServiceTest {
     }
 
     @Test
-    void resolveBet_WhenProcessed_IncreaseByOneGamesPlayed(){
-        when(mockPlayerService.getPlayerById(anyString())).thenReturn(Mono.just(player));
-        when(mockPlayerService.savePlayer(player)).thenReturn(Mono.just(player));
+    void creditPayout_NotCreditedYet_RecordsHandInStatsAndHouseMetrics(){
+        when(mockPlayerService.creditPayout("123", "abc123456#0", 20)).thenReturn(Mono.just(true));
 
-        playerInGame.setStatus(PlayerStatus.LOOSE);
-        playerInGame.setBet(10);
+        StepVerifier.create(cleanUpService.creditPayout("abc123456",
+                        new Payout("abc123456#0", "123", PlayerStatus.WIN, 10, 20)))
+                .expectNext(true)
+                .verifyComplete();
 
-        StepVerifier.create(cleanUpService.resolveBet(playerInGame))
-                .consumeNextWith(player -> {
-                    assertEquals(INITIAL_GAMES_PLAYED + 1, player.getGamesPlayed());
-                }).verifyComplete();
+        verify(mockPlayerStatsService).recordHand("123", PlayerStatus.WIN, 10, 20);
+        verify(mockHouseMetrics).recordSettlement("abc123456", 10, 20);
+    }
+
+    @Test
+    void creditPayout_AlreadyCredited_NothingRecorded(){
+        when(mockPlayerService.creditPayout("123", "abc123456#0", 20)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(cleanUpService.creditPayout("abc123456",
+                        new Payout("abc123456#0", "123", PlayerStatus.WIN, 10, 20)))
+                .expectNext(false)
+                .verifyComplete();
+
+        verifyNoInteractions(mockPlayerStatsService, mockHouseMetrics);
     }
 
 }
@@ -0,0 +1,155 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.enums.Rank;
+import com.cat.itacademy.s05.blackjack.enums.Suit;
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
+import com.cat.itacademy.s05.blackjack.metrics.HouseMetrics;
+import com.cat.itacademy.s05.blackjack.model.ArchivedGame;
+import com.cat.itacademy.s05.blackjack.model.Card;
+import com.cat.itacademy.s05.blackjack.model.Deck;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class GameArchiveServiceTest {
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private ReactiveBulkOperations bulkOperations;
+    private LobbyService lobbyService;
+    private TurnTimerService turnTimerService;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp(){
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        bulkOperations = mock(ReactiveBulkOperations.class);
+        lobbyService = mock(LobbyService.class);
+        turnTimerService = mock(TurnTimerService.class);
+        registry = new SimpleMeterRegistry();
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, ArchivedGame.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(Mono.empty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private GameArchiveService archiveService(ReactiveMongoTemplate template, int batchSize){
+        ObjectProvider<ReactiveMongoTemplate> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(template);
+        return new GameArchiveService(provider, lobbyService, turnTimerService, new GameMetrics(registry),
+                new HouseMetrics(registry), true, 60, 60, batchSize);
+    }
+
+    private Game game(String id, boolean concluded){
+        Game game = new Game();
+        game.setId(id);
+        game.setConcluded(concluded);
+        game.setLastModified(Instant.parse("2024-01-01T00:00:00Z"));
+        Deck deck = new Deck();
+        deck.getDeck().add(new Card(Suit.SPADES, Rank.TWO));
+        game.setDeck(deck);
+        PlayerInGame player = new PlayerInGame("p1", "Archived player");
+        player.setBet(50);
+        player.setStatus(concluded ? PlayerStatus.WIN : PlayerStatus.PLAYING);
+        player.getCards().add(new Card(Suit.HEARTS, Rank.ACE));
+        game.getPlayers().add(player);
+        return game;
+    }
+
+    @Test
+    void encode_ConcludedGame_DecodesWithoutDeck(){
+        Game game = game("a", true);
+
+        Game decoded = GameArchiveService.decode(GameArchiveService.encode(game));
+
+        assertEquals("a", decoded.getId());
+        assertTrue(decoded.isConcluded());
+        assertEquals(game.getLastModified(), decoded.getLastModified());
+        assertEquals(game.getPlayers().getFirst().getCards(), decoded.getPlayers().getFirst().getCards());
+        assertEquals(PlayerStatus.WIN, decoded.getPlayers().getFirst().getStatus());
+        assertNull(decoded.getDeck());
+    }
+
+    @Test
+    void archiveConcludedGames_ShortBatch_ArchivesAndRemovesFromGames(){
+        when(mongoTemplate.find(any(Query.class), eq(Game.class)))
+                .thenReturn(Flux.just(game("a", true), game("b", true)));
+        when(mongoTemplate.remove(any(Query.class), eq(Game.class))).thenReturn(Mono.just(DeleteResult.acknowledged(2)));
+
+        StepVerifier.create(archiveService(mongoTemplate, 10).archiveConcludedGames())
+                .expectNext(2L)
+                .verifyComplete();
+
+        verify(bulkOperations, times(2)).replaceOne(any(Query.class), any(ArchivedGame.class),
+                any(FindAndReplaceOptions.class));
+        verify(bulkOperations).execute();
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Game.class));
+        assertEquals(2, registry.get("blackjack.games.archived").counter().count());
+    }
+
+    @Test
+    void archiveConcludedGames_FullBatch_ReadsNextBatch(){
+        when(mongoTemplate.find(any(Query.class), eq(Game.class)))
+                .thenReturn(Flux.just(game("a", true), game("b", true)))
+                .thenReturn(Flux.empty());
+        when(mongoTemplate.remove(any(Query.class), eq(Game.class))).thenReturn(Mono.just(DeleteResult.acknowledged(2)));
+
+        StepVerifier.create(archiveService(mongoTemplate, 2).archiveConcludedGames())
+                .expectNext(2L)
+                .verifyComplete();
+
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Game.class));
+    }
+
+    @Test
+    void purgeAbandonedGames_AbandonedGames_RemovedFromLobbyAndTimers(){
+        when(mongoTemplate.find(any(Query.class), eq(Game.class))).thenReturn(Flux.just(game("a", false)));
+        when(mongoTemplate.remove(any(Query.class), eq(Game.class))).thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+
+        StepVerifier.create(archiveService(mongoTemplate, 10).purgeAbandonedGames())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(lobbyService).remove("a");
+        verify(turnTimerService).cancel("a");
+        assertEquals(1, registry.get("blackjack.games.purged").counter().count());
+    }
+
+    @Test
+    void findArchivedGame_NoMongo_ReturnsEmpty(){
+        StepVerifier.create(archiveService(null, 10).findArchivedGame("a"))
+                .verifyComplete();
+    }
+
+    @Test
+    void findArchivedGame_ArchivedGame_ReturnsDecodedGame(){
+        Game game = game("a", true);
+        when(mongoTemplate.findById("a", ArchivedGame.class))
+                .thenReturn(Mono.just(new ArchivedGame("a", game.getLastModified(), GameArchiveService.encode(game))));
+
+        StepVerifier.create(archiveService(mongoTemplate, 10).findArchivedGame("a"))
+                .assertNext(archived -> assertEquals(List.of("Archived player"),
+                        archived.getPlayers().stream().map(PlayerInGame::getName).toList()))
+                .verifyComplete();
+    }
+
+}
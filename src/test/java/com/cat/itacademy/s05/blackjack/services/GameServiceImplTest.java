@@ -0,0 +1,117 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.dto.PlayDTO;
+import com.cat.itacademy.s05.blackjack.dto.lobby.LobbyTableDTO;
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.GameNotFoundException;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.Payout;
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import com.cat.itacademy.s05.blackjack.repositories.GameRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("inmemory")
+public class GameServiceImplTest {
+
+    @Autowired private GameService gameService;
+    @Autowired private LobbyService lobbyService;
+    @Autowired private PlayerService playerService;
+    @Autowired private GameRepository gameRepository;
+
+    //The context, and so the lobby, is shared with other tests
+    @BeforeEach
+    void setUp(){
+        lobbyService.getOpenTables().stream().map(LobbyTableDTO::gameId).toList().forEach(lobbyService::remove);
+    }
+
+    //The lobby still lists the table as the fullest one, as it would before its update arrives
+    private void listAsFullest(String gameId){
+        Game stale = new Game();
+        stale.setId(gameId);
+        stale.getPlayers().add(new PlayerInGame("a", "A"));
+        stale.getPlayers().add(new PlayerInGame("b", "B"));
+        lobbyService.update(stale);
+    }
+
+    private String startedGame(String playerName){
+        String gameId = gameService.createGame(playerName).block();
+        Game game = gameService.getGame(gameId).block();
+        gameService.executePlay(gameId, new PlayDTO(game.getPlayers().getFirst().getId(), Play.INITIAL_BET, 10))
+                .block();
+        return gameId;
+    }
+
+    @Test
+    void gameService_DefaultProfile_ReactiveImplementation(){
+        assertInstanceOf(GameServiceImpl.class, gameService);
+    }
+
+    @Test
+    void quickJoinGame_FullestTableStartedMeanwhile_JoinsTheNextOne(){
+        String startedId = startedGame("Reactive started host");
+        String openId = gameService.createGame("Reactive open host").block();
+        listAsFullest(startedId);
+
+        String joinedId = gameService.quickJoinGame("Reactive latecomer").block();
+
+        assertEquals(openId, joinedId);
+        assertEquals(2, gameService.getGame(joinedId).block().getPlayers().size());
+    }
+
+    @Test
+    void quickJoinGame_TableVanished_RemovedFromLobbyAndNextJoined(){
+        String openId = gameService.createGame("Reactive host of the survivor").block();
+        listAsFullest("vanished1");
+
+        String joinedId = gameService.quickJoinGame("Reactive survivor guest").block();
+
+        assertEquals(openId, joinedId);
+        assertTrue(lobbyService.getOpenTables().stream().noneMatch(table -> table.gameId().equals("vanished1")));
+    }
+
+    @Test
+    void quickJoinGame_NoTableJoinable_CreatesOne(){
+        String startedId = startedGame("Reactive lone host");
+        listAsFullest(startedId);
+        listAsFullest("vanished2");
+
+        String joinedId = gameService.quickJoinGame("Reactive newcomer").block();
+
+        assertNotEquals(startedId, joinedId);
+        Game created = gameService.getGame(joinedId).block();
+        assertEquals(1, created.getPlayers().size());
+        assertEquals("Reactive newcomer", created.getPlayers().getFirst().getName());
+    }
+
+    @Test
+    void deleteGame_SettlementPending_PayoutsCreditedBeforeTheGameIsDeleted(){
+        Player player = playerService.createPlayer("Reactive unsettled player").block();
+        Game game = new Game();
+        game.setId("reactive-unsettled");
+        game.setConcluded(true);
+        game.getPlayers().add(new PlayerInGame(player.getId(), player.getName()));
+        game.setPendingPayouts(List.of(new Payout(Payout.id(game.getId(), 0), player.getId(), PlayerStatus.WIN, 50, 100)));
+        game.setSettlementPending(true);
+        gameRepository.save(game).block();
+
+        gameService.deleteGame(game.getId()).block();
+
+        assertEquals(player.getMoney() + 100, playerService.getPlayerById(player.getId()).block().getMoney());
+        StepVerifier.create(gameService.getGame(game.getId()))
+                .expectError(GameNotFoundException.class)
+                .verify();
+    }
+
+}
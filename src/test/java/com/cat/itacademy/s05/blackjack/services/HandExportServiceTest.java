@@ -0,0 +1,117 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.dto.export.HandDTO;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.InvalidSearchException;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import com.cat.itacademy.s05.blackjack.repositories.GameRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class HandExportServiceTest {
+
+    private GameRepository gameRepository;
+    private GameArchiveService gameArchiveService;
+    private HandExportService handExportService;
+
+    @BeforeEach
+    void setUp(){
+        gameRepository = mock(GameRepository.class);
+        gameArchiveService = mock(GameArchiveService.class);
+        handExportService = new HandExportService(gameRepository, gameArchiveService, 10);
+        archive();
+    }
+
+    //Answers like the archive: the games between the bounds, in order
+    private void archive(Game... games){
+        Comparator<Game> byPosition = Comparator.comparing(Game::getLastModified).thenComparing(Game::getId);
+        when(gameArchiveService.findArchivedGames(any(), any(), any(), any(), anyInt())).thenAnswer(invocation -> {
+            Game after = invocation.getArgument(2);
+            Game upTo = invocation.getArgument(3);
+            return Flux.fromArray(games)
+                    .filter(game -> after == null || byPosition.compare(game, after) > 0)
+                    .filter(game -> upTo == null || byPosition.compare(game, upTo) <= 0);
+        });
+    }
+
+    private Game game(String id, int players){
+        Game game = new Game();
+        game.setId(id);
+        game.setConcluded(true);
+        game.setLastModified(Instant.parse("2024-01-01T00:00:00Z"));
+        for (int i = 0; i < players; i++) {
+            game.getPlayers().add(new PlayerInGame("p" + i, "Player " + i));
+        }
+        return game;
+    }
+
+    @Test
+    void exportHands_GameArchivedDuringExport_ExportedOnce(){
+        when(gameRepository.findConcluded(any(), any(), anyInt())).thenReturn(Flux.just(game("b", 2)));
+        archive(game("a", 1), game("b", 2), game("c", 1));
+
+        StepVerifier.create(handExportService.exportHands(null, null).map(HandDTO::gameId))
+                .expectNext("a", "b", "b", "c")
+                .verifyComplete();
+    }
+
+    @Test
+    void exportHands_LiveAndArchivedGames_MergedInOrderOfLastChange(){
+        Game live1 = game("live1", 1);
+        Game live2 = game("live2", 1);
+        Game archived = game("archived", 1);
+        Game archivedLast = game("archived last", 1);
+        archived.setLastModified(live1.getLastModified().plusSeconds(10));
+        live2.setLastModified(live1.getLastModified().plusSeconds(20));
+        archivedLast.setLastModified(live1.getLastModified().plusSeconds(30));
+        when(gameRepository.findConcluded(any(), any(), anyInt())).thenReturn(Flux.just(live1, live2));
+        archive(archived, archivedLast);
+
+        StepVerifier.create(handExportService.exportHands(null, null).map(HandDTO::gameId))
+                .expectNext("live1", "archived", "live2", "archived last")
+                .verifyComplete();
+    }
+
+    @Test
+    void exportHands_FromAfterTo_InvalidSearchException(){
+        StepVerifier.create(handExportService.exportHands(Instant.parse("2024-12-01T00:00:00Z"),
+                        Instant.parse("2024-11-01T00:00:00Z")))
+                .verifyError(InvalidSearchException.class);
+    }
+
+    @Test
+    void exportHands_SlowClient_GamesRequestedInBatches(){
+        AtomicLong requested = new AtomicLong();
+        when(gameRepository.findConcluded(any(), any(), anyInt())).thenReturn(
+                Flux.range(0, 1_000).map(i -> game("g" + i, 1)).doOnRequest(requested::addAndGet));
+
+        StepVerifier.create(handExportService.exportHands(null, null), 1)
+                .expectNextCount(1)
+                .thenCancel()
+                .verify();
+
+        assertTrue(requested.get() <= 10, "Requested " + requested.get());
+    }
+
+    @Test
+    void exportHandsAsCsv_HeaderFirst(){
+        when(gameRepository.findConcluded(any(), any(), anyInt())).thenReturn(Flux.just(game("a", 1)));
+
+        StepVerifier.create(handExportService.exportHandsAsCsv(null, null))
+                .expectNext(HandDTO.CSV_HEADER)
+                .assertNext(line -> assertTrue(line.startsWith("a,")))
+                .verifyComplete();
+    }
+
+}
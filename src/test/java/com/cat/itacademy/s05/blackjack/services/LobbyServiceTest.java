@@ -0,0 +1,86 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.config.Properties;
+import com.cat.itacademy.s05.blackjack.dto.lobby.LobbyEventDTO;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LobbyServiceTest {
+
+    @InjectMocks
+    private LobbyService lobbyService;
+
+    @Mock private Properties mockProperties;
+
+    @BeforeEach
+    void setUp(){
+        lenient().when(mockProperties.getPlayingPositions()).thenReturn(5);
+    }
+
+    private Game gameWithPlayers(String id, int players){
+        Game game = new Game();
+        game.setId(id);
+        for (int i = 0; i < players; i++) {
+            game.getPlayers().add(new PlayerInGame("p" + i, "player " + i));
+        }
+        return game;
+    }
+
+    @Test
+    void findTablesToJoin_SeveralOpenGames_ReturnsGamesWithFewerFreeSeatsFirst(){
+        lobbyService.update(gameWithPlayers("a", 1));
+        lobbyService.update(gameWithPlayers("b", 3));
+        lobbyService.update(gameWithPlayers("c", 2));
+        lobbyService.update(gameWithPlayers("d", 0));
+
+        assertEquals(List.of("b", "c", "a"), lobbyService.findTablesToJoin());
+        assertEquals(4, lobbyService.getOpenTables().size());
+        assertEquals("b", lobbyService.getOpenTables().getFirst().gameId());
+    }
+
+    @Test
+    void update_GameIsFull_GameLeavesLobby(){
+        lobbyService.update(gameWithPlayers("a", 4));
+        lobbyService.update(gameWithPlayers("a", 5));
+
+        assertTrue(lobbyService.getOpenTables().isEmpty());
+        assertTrue(lobbyService.findTablesToJoin().isEmpty());
+    }
+
+    @Test
+    void update_GameStarted_GameLeavesLobby(){
+        Game game = gameWithPlayers("a", 2);
+        lobbyService.update(game);
+        game.getPlayers().getFirst().setStatus(PlayerStatus.PLAYING);
+        lobbyService.update(game);
+
+        assertTrue(lobbyService.getOpenTables().isEmpty());
+    }
+
+    @Test
+    void getEvents_GameOpensAndCloses_EventsArePublished(){
+        StepVerifier.create(lobbyService.getEvents().take(2))
+                .then(() -> {
+                    lobbyService.update(gameWithPlayers("a", 1));
+                    lobbyService.remove("a");
+                })
+                .expectNext(new LobbyEventDTO(LobbyEventDTO.Type.OPENED, "a", 4))
+                .expectNext(new LobbyEventDTO(LobbyEventDTO.Type.CLOSED, "a", 0))
+                .verifyComplete();
+    }
+
+}
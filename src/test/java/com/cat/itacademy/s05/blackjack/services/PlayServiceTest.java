@@ -6,9 +6,9 @@ import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
 import com.cat.itacademy.s05.blackjack.enums.Rank;
 import com.cat.itacademy.s05.blackjack.enums.Suit;
 import com.cat.itacademy.s05.blackjack.exceptions.custom.InvalidPlayException;
+import com.cat.itacademy.s05.blackjack.metrics.HouseMetrics;
 import com.cat.itacademy.s05.blackjack.model.Card;
 import com.cat.itacademy.s05.blackjack.model.Game;
-import com.cat.itacademy.s05.blackjack.model.Player;
 import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
 import com.cat.itacademy.s05.blackjack.utils.BlackjackHelper;
 import org.junit.jupiter.api.BeforeEach;
@@ -37,6 +37,8 @@ public class PlayServiceTest {
     @Mock private PlayerService mockPlayerService;
     @Mock private DeckService mockDeckService;
     @Mock private BlackjackHelper mockBlackjackHelper;
+    @Mock private LobbyService mockLobbyService;
+    @Mock private HouseMetrics mockHouseMetrics;
 
     private Game game;
     private PlayDTO playDTO;
@@ -111,7 +113,7 @@ public class PlayServiceTest {
 
     @Test
     void executePlay_InitialBetPlayerHasNoBet_PlayerGetsBetAndUpdatedStatus(){
-        when(mockPlayerService.subtractMoney(anyString(), anyInt())).thenReturn(Mono.just(new Player()));
+        when(mockPlayerService.chargeStake(anyString(), any(), anyInt())).thenReturn(Mono.empty());
 
         game.getPlayers().add(new PlayerInGame("4321", "test player 2"));
 
@@ -128,11 +130,14 @@ public class PlayServiceTest {
                     assertEquals(PlayerStatus.WAITING_FOR_DEAL, game1.getPlayers().getFirst().getStatus());
                     assertEquals(1, game1.getActivePlayerIndex(), "Active player changes.");
                 }).verifyComplete();
+
+        verify(mockPlayerService).chargeStake("1234", Play.INITIAL_BET, 20);
+        verify(mockHouseMetrics).recordStake(game.getId(), 20);
     }
 
     @Test
     void executePlay_AfterInitialBetAllPlayersHaveBet_CardsGetDealtAndUpdatedStatus(){
-        when(mockPlayerService.subtractMoney(anyString(), anyInt())).thenReturn(Mono.just(new Player()));
+        when(mockPlayerService.chargeStake(anyString(), any(), anyInt())).thenReturn(Mono.empty());
         doAnswer(invocation -> ((List<Card>) invocation.getArguments()[1]).add(new Card(Suit.CLUBS, Rank.KING)))
                 .when(mockDeckService).dealCard(any(), anyList());
 
@@ -239,7 +244,7 @@ public class PlayServiceTest {
 
     @Test
     void executePlay_PlayDoubleAndBust_BetDoublesAndCardGetsDealtAndStatusSetToBust(){
-        when(mockPlayerService.subtractMoney(anyString(), anyInt())).thenReturn(Mono.just(new Player()));
+        when(mockPlayerService.chargeStake(anyString(), any(), anyInt())).thenReturn(Mono.empty());
         doAnswer(invocation -> ((List<Card>) invocation.getArguments()[1]).add(new Card(null, null)))
                 .when(mockDeckService).dealCard(any(), anyList());
         when(mockBlackjackHelper.isBust(anyList())).thenReturn(true);
@@ -261,7 +266,7 @@ public class PlayServiceTest {
 
     @Test
     void executePlay_PlayDoubleAndNotBust_BetDoublesAndCardGetsDealtAndStatusSetToStand(){
-        when(mockPlayerService.subtractMoney(anyString(), anyInt())).thenReturn(Mono.just(new Player()));
+        when(mockPlayerService.chargeStake(anyString(), any(), anyInt())).thenReturn(Mono.empty());
         doAnswer(invocation -> ((List<Card>) invocation.getArguments()[1]).add(new Card(null, null)))
                 .when(mockDeckService).dealCard(any(), anyList());
         when(mockBlackjackHelper.isBust(anyList())).thenReturn(false);
@@ -297,7 +302,7 @@ public class PlayServiceTest {
 
     @Test
     void executePlay_PlayValidSplit_BetGetsPayedPlayerAddedToGameCardsGetDealt(){
-        when(mockPlayerService.subtractMoney(anyString(), anyInt())).thenReturn(Mono.just(new Player()));
+        when(mockPlayerService.chargeStake(anyString(), any(), anyInt())).thenReturn(Mono.empty());
         doAnswer(invocation -> ((List<Card>) invocation.getArguments()[1]).add(new Card(null, null)))
                 .when(mockDeckService).dealCard(any(), anyList());
 
@@ -424,4 +429,32 @@ public class PlayServiceTest {
                 }).verifyComplete();
     }
 
+    @Test
+    void removeActivePlayer_RemainingPlayersHaveBet_PlayerRemovedAndCardsGetDealt(){
+        doAnswer(invocation -> ((List<Card>) invocation.getArguments()[1]).add(new Card(Suit.CLUBS, Rank.KING)))
+                .when(mockDeckService).dealCard(any(), anyList());
+
+        PlayerInGame p2 = new PlayerInGame("12", "2nd Player");
+        p2.setBet(10);
+        p2.setStatus(PlayerStatus.WAITING_FOR_DEAL);
+        game.getPlayers().add(p2);
+
+        StepVerifier.create(playService.removeActivePlayer(game))
+                .consumeNextWith(game1 -> {
+                    assertEquals(1, game1.getPlayers().size(), "Player without bet is removed");
+                    assertEquals(PlayerStatus.PLAYING, p2.getStatus(), "Remaining player gets cards");
+                    assertEquals(2, game1.getCroupier().getCards().size(), "Croupier gets cards");
+                    assertEquals(0, game1.getActivePlayerIndex());
+                }).verifyComplete();
+    }
+
+    @Test
+    void removeActivePlayer_PlayerHasBet_InvalidPlayException(){
+        game.getPlayers().getFirst().setStatus(PlayerStatus.PLAYING);
+
+        StepVerifier.create(playService.removeActivePlayer(game))
+                .expectError(InvalidPlayException.class)
+                .verify();
+    }
+
 }
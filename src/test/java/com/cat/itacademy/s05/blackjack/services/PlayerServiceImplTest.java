@@ -0,0 +1,160 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.cache.InProcessInvalidationBus;
+import com.cat.itacademy.s05.blackjack.cache.Invalidation;
+import com.cat.itacademy.s05.blackjack.cache.PlayerNameCache;
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.WalletEntryType;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.PlayerNameTakenException;
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.WalletEntry;
+import com.cat.itacademy.s05.blackjack.repositories.PlayerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PlayerServiceImplTest {
+
+    private PlayerServiceImpl playerService;
+    private PlayerNameCache playerNameCache;
+    private InProcessInvalidationBus invalidationBus;
+
+    @Mock private PlayerRepository mockPlayerRepository;
+
+    private Player player;
+
+    @BeforeEach
+    void setUp(){
+        invalidationBus = new InProcessInvalidationBus();
+        playerNameCache = new PlayerNameCache(2, invalidationBus);
+        playerService = new PlayerServiceImpl(mockPlayerRepository, playerNameCache, invalidationBus);
+        player = new Player("Goku");
+        player.setId("1234");
+    }
+
+    @Test
+    void getOrCreatePlayerId_UnknownPlayer_UpsertsPlayerAndCachesId(){
+        when(mockPlayerRepository.upsertByName("Goku")).thenReturn(Mono.just(player));
+
+        StepVerifier.create(playerService.getOrCreatePlayerId("Goku"))
+                .expectNext("1234")
+                .verifyComplete();
+        assertEquals("1234", playerNameCache.getId("Goku"));
+    }
+
+    @Test
+    void getOrCreatePlayerId_KnownPlayer_NoPlayerQuery(){
+        playerNameCache.put("Goku", "1234", 0);
+
+        StepVerifier.create(playerService.getOrCreatePlayerId("Goku"))
+                .expectNext("1234")
+                .verifyComplete();
+        verifyNoInteractions(mockPlayerRepository);
+    }
+
+    @Test
+    void getOrCreatePlayerId_PlayerChangedElsewhere_IdReadAgain(){
+        playerNameCache.put("Goku", "1234", 0);
+        when(mockPlayerRepository.upsertByName("Goku")).thenReturn(Mono.just(player));
+
+        invalidationBus.publish(Invalidation.Type.PLAYER, "1234");
+
+        StepVerifier.create(playerService.getOrCreatePlayerId("Goku"))
+                .expectNext("1234")
+                .verifyComplete();
+        verify(mockPlayerRepository).upsertByName("Goku");
+    }
+
+    @Test
+    void getOrCreatePlayerId_PlayerChangedDuringTheRead_IdNotCached(){
+        when(mockPlayerRepository.upsertByName("Goku")).thenReturn(Mono.fromCallable(() -> {
+            invalidationBus.publish(Invalidation.Type.PLAYER, "1234");
+            return player;
+        }));
+
+        StepVerifier.create(playerService.getOrCreatePlayerId("Goku"))
+                .expectNext("1234")
+                .verifyComplete();
+        assertNull(playerNameCache.getId("Goku"));
+    }
+
+    @Test
+    void playerNameCache_ReadAfterTheLastInvalidation_Cached(){
+        playerNameCache.put("Goku", "1234", 0);
+        invalidationBus.publish(Invalidation.Type.PLAYER, "1234");
+        assertNull(playerNameCache.getId("Goku"));
+
+        playerNameCache.put("Goku", "1234", 0);
+        assertNull(playerNameCache.getId("Goku"), "Read before the invalidation");
+        playerNameCache.put("Goku", "1234", playerNameCache.version());
+        assertEquals("1234", playerNameCache.getId("Goku"));
+    }
+
+    @Test
+    void updatePlayerName_CachedPlayer_OldNameIsInvalidated(){
+        playerNameCache.put("Goku", "1234", 0);
+        when(mockPlayerRepository.findById("1234")).thenReturn(Mono.just(player));
+        when(mockPlayerRepository.save(player)).thenReturn(Mono.just(player));
+
+        StepVerifier.create(playerService.updatePlayerName("1234", "Vegeta"))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertNull(playerNameCache.getId("Goku"));
+        assertNull(playerNameCache.getId("Vegeta"), "Cached on its next read, after the invalidation of the rename");
+    }
+
+    @Test
+    void updatePlayerName_NameOfAnotherPlayer_PlayerNameTakenException(){
+        when(mockPlayerRepository.findById("1234")).thenReturn(Mono.just(player));
+        when(mockPlayerRepository.save(player)).thenReturn(Mono.error(new DuplicateKeyException("name")));
+
+        StepVerifier.create(playerService.updatePlayerName("1234", "Vegeta"))
+                .expectError(PlayerNameTakenException.class)
+                .verify();
+        assertNull(playerNameCache.getId("Vegeta"));
+    }
+
+    @Test
+    void chargeStake_Double_StakeTakenByAnEntry(){
+        ArgumentCaptor<WalletEntry> entry = ArgumentCaptor.forClass(WalletEntry.class);
+        when(mockPlayerRepository.appendWalletEntry(entry.capture())).thenReturn(Mono.just(true));
+
+        StepVerifier.create(playerService.chargeStake("1234", Play.DOUBLE, 20))
+                .verifyComplete();
+        assertEquals("1234", entry.getValue().getPlayerId());
+        assertEquals(WalletEntryType.DOUBLE, entry.getValue().getType());
+        assertEquals(-20, entry.getValue().getAmount());
+        verify(mockPlayerRepository, never()).save(any());
+    }
+
+    @Test
+    void addMoney_UnknownPlayer_NoEntryAppended(){
+        when(mockPlayerRepository.existsById("4321")).thenReturn(Mono.just(false));
+
+        StepVerifier.create(playerService.addMoney("4321", 100))
+                .verifyError(IllegalArgumentException.class);
+        verify(mockPlayerRepository, never()).appendWalletEntry(any());
+    }
+
+    @Test
+    void playerNameCache_SizeLimitReached_LeastRecentlyUsedIsEvicted(){
+        playerNameCache.put("Goku", "1", 0);
+        playerNameCache.put("Vegeta", "2", 0);
+        playerNameCache.getId("Goku");
+        playerNameCache.put("Krilin", "3", 0);
+
+        assertNull(playerNameCache.getId("Vegeta"));
+        assertEquals("1", playerNameCache.getId("Goku"));
+    }
+
+}
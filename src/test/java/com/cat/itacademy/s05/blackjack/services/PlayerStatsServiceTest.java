@@ -0,0 +1,114 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.model.PlayerStats;
+import com.cat.itacademy.s05.blackjack.repositories.inmemory.InMemoryPlayerStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Collection;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlayerStatsServiceTest {
+
+    private InMemoryPlayerStatsRepository repository;
+    private PlayerStatsService playerStatsService;
+
+    @BeforeEach
+    void setUp(){
+        repository = new InMemoryPlayerStatsRepository();
+        playerStatsService = new PlayerStatsService(repository);
+    }
+
+    @Test
+    void getStats_HandsNotFlushed_IncludesPendingHands(){
+        playerStatsService.recordHand("p1", PlayerStatus.WIN, 10, 20);
+        playerStatsService.recordHand("p1", PlayerStatus.LOOSE, 10, 0);
+
+        PlayerStats stats = playerStatsService.getStats("p1").block();
+
+        assertEquals(2, stats.getHands());
+        assertEquals(1, stats.getWins());
+        assertEquals(1, stats.getLosses());
+        assertEquals(20, stats.getTotalBet());
+        assertEquals(0, stats.getNetResult());
+        assertNull(repository.findById("p1").block(), "Nothing written before the flush");
+    }
+
+    @Test
+    void flush_PendingHands_AreAddedToStoredStats(){
+        playerStatsService.recordHand("p1", PlayerStatus.BLACKJACK, 20, 50);
+        playerStatsService.flush().block();
+        playerStatsService.recordHand("p1", PlayerStatus.TIE, 20, 20);
+        playerStatsService.flush().block();
+
+        PlayerStats stored = repository.findById("p1").block();
+        assertEquals(2, stored.getHands());
+        assertEquals(1, stored.getBlackjacks());
+        assertEquals(1, stored.getTies());
+        assertEquals(30, stored.getNetResult());
+        assertEquals(2, playerStatsService.getStats("p1").block().getHands(), "Flushed hands not counted twice");
+    }
+
+    @Test
+    void flush_WriteFails_HandsAreKeptForNextFlush(){
+        PlayerStatsService failing = new PlayerStatsService(new InMemoryPlayerStatsRepository() {
+            @Override
+            public Mono<Set<String>> incrementAll(Collection<PlayerStats> deltas) {
+                return Mono.error(new IllegalStateException("Database down"));
+            }
+        });
+        failing.recordHand("p1", PlayerStatus.SURRENDER, 10, 5);
+
+        StepVerifier.create(failing.flush()).verifyError(IllegalStateException.class);
+        failing.recordHand("p1", PlayerStatus.WIN, 10, 20);
+
+        PlayerStats stats = failing.getStats("p1").block();
+        assertEquals(2, stats.getHands());
+        assertEquals(1, stats.getSurrenders());
+        assertEquals(5, stats.getNetResult());
+    }
+
+    @Test
+    void flush_OneDeltaRejected_OnlyThatOneKept(){
+        InMemoryPlayerStatsRepository rejectingP1 = new InMemoryPlayerStatsRepository() {
+            @Override
+            public Mono<Set<String>> incrementAll(Collection<PlayerStats> deltas) {
+                return super.incrementAll(deltas.stream().filter(delta -> !delta.getId().equals("p1")).toList())
+                        .thenReturn(Set.of("p1"));
+            }
+        };
+        PlayerStatsService partial = new PlayerStatsService(rejectingP1);
+        partial.recordHand("p1", PlayerStatus.WIN, 10, 20);
+        partial.recordHand("p2", PlayerStatus.WIN, 10, 20);
+
+        StepVerifier.create(partial.flush()).verifyComplete();
+
+        assertEquals(1, partial.getStats("p1").block().getHands());
+        assertEquals(1, partial.getStats("p2").block().getHands(), "The written delta is not counted again");
+        assertNull(rejectingP1.findById("p1").block());
+    }
+
+    @Test
+    void stop_HandsNotFlushed_Written(){
+        playerStatsService.recordHand("p1", PlayerStatus.WIN, 10, 20);
+
+        playerStatsService.stop();
+
+        assertEquals(1, repository.findById("p1").block().getHands());
+    }
+
+    @Test
+    void getStats_UnknownPlayer_ReturnsEmptyStats(){
+        PlayerStats stats = playerStatsService.getStats("nobody").block();
+
+        assertEquals("nobody", stats.getId());
+        assertEquals(0, stats.getHands());
+        assertEquals(0, stats.getWinRate());
+    }
+
+}
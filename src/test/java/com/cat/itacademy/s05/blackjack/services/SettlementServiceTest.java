@@ -0,0 +1,143 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.cache.InProcessInvalidationBus;
+import com.cat.itacademy.s05.blackjack.cache.PlayerNameCache;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
+import com.cat.itacademy.s05.blackjack.metrics.HouseMetrics;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.Payout;
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import com.cat.itacademy.s05.blackjack.model.WalletEntry;
+import com.cat.itacademy.s05.blackjack.repositories.inmemory.InMemoryGameRepository;
+import com.cat.itacademy.s05.blackjack.repositories.inmemory.InMemoryPlayerRepository;
+import com.cat.itacademy.s05.blackjack.utils.BlackjackHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SettlementServiceTest {
+
+    private InMemoryGameRepository gameRepository;
+    private InMemoryPlayerRepository playerRepository;
+    private PlayerStatsService playerStatsService;
+    private SimpleMeterRegistry registry;
+    private HouseMetrics houseMetrics;
+    private SettlementService settlementService;
+    private Player player;
+
+    @BeforeEach
+    void setUp(){
+        gameRepository = spy(new InMemoryGameRepository());
+        playerRepository = new InMemoryPlayerRepository();
+        playerStatsService = mock(PlayerStatsService.class);
+        registry = new SimpleMeterRegistry();
+        InProcessInvalidationBus invalidationBus = new InProcessInvalidationBus();
+        PlayerService playerService = new PlayerServiceImpl(playerRepository, new PlayerNameCache(10, invalidationBus),
+                invalidationBus);
+        houseMetrics = new HouseMetrics(registry);
+        CleanUpService cleanUpService = new CleanUpService(new BlackjackHelper(), playerService, playerStatsService,
+                houseMetrics);
+        settlementService = new SettlementService(gameRepository, cleanUpService, new GameMetrics(registry),
+                houseMetrics, 2);
+        player = playerRepository.upsertByName("Settled player").block();
+    }
+
+    private Game concludedGame(String id, int winnings){
+        Game game = new Game();
+        game.setId(id);
+        game.setConcluded(true);
+        game.setLastModified(Instant.now());
+        PlayerInGame playerInGame = new PlayerInGame(player.getId(), player.getName());
+        playerInGame.setBet(50);
+        playerInGame.setStatus(PlayerStatus.WIN);
+        game.getPlayers().add(playerInGame);
+        game.setPendingPayouts(List.of(new Payout(Payout.id(id, 0), player.getId(), PlayerStatus.WIN, 50, winnings)));
+        game.setSettlementPending(true);
+        return gameRepository.save(game).block();
+    }
+
+    @Test
+    void settlePending_PendingGames_CreditedOnceAndCleared(){
+        for (int i = 0; i < 5; i++) concludedGame("g" + i, 100);
+
+        StepVerifier.create(settlementService.settlePending())
+                .expectNext(5L)
+                .verifyComplete();
+        StepVerifier.create(settlementService.settlePending())
+                .expectNext(0L)
+                .verifyComplete();
+
+        Player settled = playerRepository.findById(player.getId()).block();
+        assertEquals(player.getMoney() + 500, settled.getMoney());
+        assertEquals(5, settled.getGamesPlayed());
+        assertFalse(gameRepository.findById("g0").block().isSettlementPending());
+        assertEquals(5, registry.get("blackjack.settlement.games").counter().count());
+        verify(playerStatsService, times(5)).recordHand(player.getId(), PlayerStatus.WIN, 50, 100);
+    }
+
+    @Test
+    void settlePending_PayoutCreditedBeforeRestart_NotCreditedAgain(){
+        Game game = concludedGame("g1", 100);
+        String payoutId = game.getPendingPayouts().getFirst().id();
+        playerRepository.appendWalletEntry(WalletEntry.payout(player.getId(), payoutId, 100)).block();
+
+        StepVerifier.create(settlementService.settlePending())
+                .expectNext(1L)
+                .verifyComplete();
+
+        Player settled = playerRepository.findById(player.getId()).block();
+        assertEquals(player.getMoney() + 100, settled.getMoney());
+        assertEquals(1, settled.getGamesPlayed());
+        assertFalse(gameRepository.findById("g1").block().isSettlementPending());
+        verifyNoInteractions(playerStatsService);
+    }
+
+    @Test
+    void settleNow_PendingGame_CreditedAndCleared(){
+        Game game = concludedGame("g1", 100);
+
+        StepVerifier.create(settlementService.settleNow(game)).verifyComplete();
+
+        assertEquals(player.getMoney() + 100, playerRepository.findById(player.getId()).block().getMoney());
+        assertFalse(gameRepository.findById("g1").block().isSettlementPending());
+    }
+
+    @Test
+    void settleNow_PendingPayoutsNotCleared_ErrorAndGameKeptPending(){
+        Game game = concludedGame("g1", 100);
+        doReturn(Mono.error(new IllegalStateException("Database down"))).when(gameRepository).clearPendingPayouts("g1");
+
+        StepVerifier.create(settlementService.settleNow(game)).verifyError(IllegalStateException.class);
+
+        assertTrue(gameRepository.findById("g1").block().isSettlementPending());
+    }
+
+    @Test
+    void settlePending_PendingPayoutsNotCleared_TableKeptOpenUntilCleared(){
+        concludedGame("g1", 100);
+        houseMetrics.recordStake("g1", 80);
+        doReturn(Mono.just(false)).when(gameRepository).clearPendingPayouts("g1");
+
+        settlementService.settlePending().block();
+        assertEquals(30, houseMetrics.getOutstandingBets(), "The bets not settled yet are not forfeited");
+        assertEquals(0, registry.get("blackjack.settlement.games").counter().count());
+
+        doCallRealMethod().when(gameRepository).clearPendingPayouts("g1");
+        StepVerifier.create(settlementService.settlePending())
+                .expectNext(1L)
+                .verifyComplete();
+        assertEquals(0, houseMetrics.getOutstandingBets());
+        assertEquals(1, registry.get("blackjack.settlement.games").counter().count());
+    }
+
+}
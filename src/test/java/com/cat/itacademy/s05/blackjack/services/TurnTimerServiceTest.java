@@ -0,0 +1,74 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TurnTimerServiceTest {
+
+    private TurnTimerService turnTimerService;
+
+    @BeforeEach
+    void setUp(){
+        turnTimerService = new TurnTimerService(10);
+    }
+
+    @AfterEach
+    void tearDown(){
+        turnTimerService.stop();
+    }
+
+    @Test
+    void arm_DeadlineReached_ExpirationIsExecuted() throws InterruptedException {
+        CountDownLatch expired = new CountDownLatch(1);
+
+        turnTimerService.arm("abc123456", 20, () -> Mono.fromRunnable(expired::countDown));
+
+        assertTrue(expired.await(2, TimeUnit.SECONDS), "Expiration executed");
+        assertEquals(0, turnTimerService.getArmedCount());
+    }
+
+    @Test
+    void cancel_BeforeDeadline_ExpirationIsNotExecuted() throws InterruptedException {
+        AtomicInteger expirations = new AtomicInteger();
+
+        turnTimerService.arm("abc123456", 50, () -> Mono.fromRunnable(expirations::incrementAndGet));
+        turnTimerService.cancel("abc123456");
+        Thread.sleep(150);
+
+        assertEquals(0, expirations.get());
+    }
+
+    @Test
+    void arm_SameGameTwice_OnlyLastDeadlineIsExecuted() throws InterruptedException {
+        AtomicInteger expirations = new AtomicInteger();
+        CountDownLatch expired = new CountDownLatch(1);
+
+        turnTimerService.arm("abc123456", 20, () -> Mono.fromRunnable(expirations::incrementAndGet));
+        turnTimerService.arm("abc123456", 40, () -> Mono.fromRunnable(expired::countDown));
+
+        assertTrue(expired.await(2, TimeUnit.SECONDS), "Last expiration executed");
+        assertEquals(0, expirations.get(), "Replaced expiration not executed");
+    }
+
+    @Test
+    void arm_ManyGames_AllDeadlinesAreTracked(){
+        for (int i = 0; i < 100_000; i++) {
+            turnTimerService.arm("game" + i, 60_000, Mono::empty);
+        }
+        assertEquals(100_000, turnTimerService.getArmedCount());
+
+        for (int i = 0; i < 100_000; i++) {
+            turnTimerService.cancel("game" + i);
+        }
+        assertEquals(0, turnTimerService.getArmedCount());
+    }
+
+}
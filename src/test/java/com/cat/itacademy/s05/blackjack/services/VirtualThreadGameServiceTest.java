@@ -0,0 +1,120 @@
+package com.cat.itacademy.s05.blackjack.services;
+
+import com.cat.itacademy.s05.blackjack.dto.PlayDTO;
+import com.cat.itacademy.s05.blackjack.enums.Play;
+import com.cat.itacademy.s05.blackjack.enums.PlayerStatus;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.GameNotFoundException;
+import com.cat.itacademy.s05.blackjack.exceptions.custom.InvalidPlayException;
+import com.cat.itacademy.s05.blackjack.model.Game;
+import com.cat.itacademy.s05.blackjack.model.Payout;
+import com.cat.itacademy.s05.blackjack.model.Player;
+import com.cat.itacademy.s05.blackjack.model.PlayerInGame;
+import com.cat.itacademy.s05.blackjack.repositories.GameRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles({"inmemory", "virtual-threads"})
+public class VirtualThreadGameServiceTest {
+
+    @Autowired private GameService gameService;
+    @Autowired private PlayerService playerService;
+    @Autowired private SettlementService settlementService;
+    @Autowired private LobbyService lobbyService;
+    @Autowired private GameRepository gameRepository;
+
+    @Test
+    void gameService_VirtualThreadsProfile_VirtualThreadImplementation(){
+        assertInstanceOf(VirtualThreadGameService.class, gameService);
+    }
+
+    @Test
+    void executePlay_BetAndStand_GameConcludesAndPlayerIsSettled(){
+        String gameId = gameService.createGame("Virtual player").block();
+        String playerId = gameService.getGame(gameId).block().getPlayers().getFirst().getId();
+
+        gameService.executePlay(gameId, new PlayDTO(playerId, Play.INITIAL_BET, 10)).block();
+        assertEquals(PlayerStatus.PLAYING, gameService.getGame(gameId).block().getPlayers().getFirst().getStatus());
+        gameService.executePlay(gameId, new PlayDTO(playerId, Play.STAND, 0)).block();
+
+        assertTrue(gameService.getGame(gameId).block().isConcluded());
+        settlementService.settlePending().block();
+        assertEquals(1, playerService.getPlayerById(playerId).block().getGamesPlayed());
+    }
+
+    @Test
+    void executePlay_NotTheActivePlayer_InvalidPlayException(){
+        String gameId = gameService.createGame("Virtual active player").block();
+
+        StepVerifier.create(gameService.executePlay(gameId, new PlayDTO("someone else", Play.INITIAL_BET, 10)))
+                .expectError(InvalidPlayException.class)
+                .verify();
+    }
+
+    @Test
+    void getGame_UnknownId_GameNotFoundException(){
+        StepVerifier.create(gameService.getGame("unknown"))
+                .expectError(GameNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void quickJoinGame_OpenTable_JoinsIt(){
+        String gameId = gameService.createGame("Virtual host").block();
+
+        String joinedId = gameService.quickJoinGame("Virtual guest").block();
+
+        Game game = gameService.getGame(joinedId).block();
+        assertEquals(gameId, joinedId);
+        assertEquals(2, game.getPlayers().size());
+    }
+
+    @Test
+    void quickJoinGame_FullestTableStartedMeanwhile_JoinsTheNextOne(){
+        String startedId = gameService.createGame("Virtual started host").block();
+        Game started = gameService.getGame(startedId).block();
+        gameService.executePlay(startedId, new PlayDTO(started.getPlayers().getFirst().getId(), Play.INITIAL_BET, 10))
+                .block();
+        gameService.createGame("Virtual open host").block();
+        //The lobby still lists the started table as the fullest one, as it would before its update arrives
+        Game stale = new Game();
+        stale.setId(startedId);
+        stale.getPlayers().add(new PlayerInGame("a", "A"));
+        stale.getPlayers().add(new PlayerInGame("b", "B"));
+        lobbyService.update(stale);
+
+        String joinedId = gameService.quickJoinGame("Virtual latecomer").block();
+
+        assertNotEquals(startedId, joinedId);
+        assertEquals(2, gameService.getGame(joinedId).block().getPlayers().size(), "An open table was joined");
+        lobbyService.remove(startedId);
+        lobbyService.remove(joinedId);
+    }
+
+    @Test
+    void deleteGame_SettlementPending_PayoutsCreditedBeforeTheGameIsDeleted(){
+        Player player = playerService.createPlayer("Virtual unsettled player").block();
+        Game game = new Game();
+        game.setId("virtual-unsettled");
+        game.setConcluded(true);
+        game.getPlayers().add(new PlayerInGame(player.getId(), player.getName()));
+        game.setPendingPayouts(List.of(new Payout(Payout.id(game.getId(), 0), player.getId(), PlayerStatus.WIN, 50, 100)));
+        game.setSettlementPending(true);
+        gameRepository.save(game).block();
+
+        gameService.deleteGame(game.getId()).block();
+
+        assertEquals(player.getMoney() + 100, playerService.getPlayerById(player.getId()).block().getMoney());
+        StepVerifier.create(gameService.getGame(game.getId()))
+                .expectError(GameNotFoundException.class)
+                .verify();
+    }
+
+}
@@ -0,0 +1,187 @@
+package com.cat.itacademy.s05.blackjack.web;
+
+import com.cat.itacademy.s05.blackjack.cache.IdempotencyCache;
+import com.cat.itacademy.s05.blackjack.cache.IdempotencyMirror;
+import com.cat.itacademy.s05.blackjack.model.IdempotentResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class IdempotencyFilterTest {
+
+    private IdempotencyCache cache;
+    private ObjectProvider<IdempotencyMirror> mirrorProvider;
+    private IdempotencyFilter filter;
+    private AtomicInteger runs;
+    private HttpStatus status;
+
+    //Echoes the body it reads, numbered by run
+    private final WebFilterChain chain = exchange -> DataBufferUtils.join(exchange.getRequest().getBody())
+            .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+            .flatMap(body -> {
+                exchange.getResponse().setStatusCode(status);
+                exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                String answer = runs.incrementAndGet() + ":" + body;
+                return exchange.getResponse().writeWith(Mono.just(DefaultDataBufferFactory.sharedInstance
+                        .wrap(answer.getBytes(StandardCharsets.UTF_8))));
+            });
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp(){
+        cache = new IdempotencyCache(2, 3600);
+        mirrorProvider = mock(ObjectProvider.class);
+        filter = new IdempotencyFilter(cache, mirrorProvider);
+        runs = new AtomicInteger();
+        status = HttpStatus.OK;
+    }
+
+    private MockServerWebExchange play(String key, String body){
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/game/abc123456/play")
+                .header(IdempotencyFilter.KEY_HEADER, key)
+                .body(body));
+    }
+
+    @Test
+    void filter_RetryWithSameKey_FirstResponseReplayedWithoutRunningAgain(){
+        MockServerWebExchange first = play("k1", "{\"play\":\"DOUBLE\"}");
+        MockServerWebExchange retry = play("k1", "{\"play\":\"DOUBLE\"}");
+
+        StepVerifier.create(filter.filter(first, chain)).verifyComplete();
+        StepVerifier.create(filter.filter(retry, chain)).verifyComplete();
+
+        assertEquals(1, runs.get());
+        assertEquals("1:{\"play\":\"DOUBLE\"}", retry.getResponse().getBodyAsString().block());
+        assertEquals(MediaType.APPLICATION_JSON, retry.getResponse().getHeaders().getContentType());
+        assertEquals("true", retry.getResponse().getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void filter_SameKeyForAnotherRequest_Unprocessable(){
+        StepVerifier.create(filter.filter(play("k1", "{\"play\":\"DOUBLE\"}"), chain)).verifyComplete();
+        MockServerWebExchange other = play("k1", "{\"play\":\"HIT\"}");
+
+        StepVerifier.create(filter.filter(other, chain)).verifyComplete();
+
+        assertEquals(1, runs.get());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, other.getResponse().getStatusCode());
+    }
+
+    @Test
+    void filter_FirstRequestFailed_RetryRunsAgain(){
+        status = HttpStatus.BAD_REQUEST;
+        StepVerifier.create(filter.filter(play("k1", "{}"), chain)).verifyComplete();
+        status = HttpStatus.OK;
+        MockServerWebExchange retry = play("k1", "{}");
+
+        StepVerifier.create(filter.filter(retry, chain)).verifyComplete();
+
+        assertEquals(2, runs.get());
+        assertEquals("2:{}", retry.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void filter_RetryWhileFirstInProgress_Conflict(){
+        Sinks.Empty<Void> firstDone = Sinks.empty();
+        WebFilterChain slowChain = exchange -> firstDone.asMono().then(chain.filter(exchange));
+        StepVerifier.create(filter.filter(play("k1", "{}"), slowChain))
+                .then(() -> {
+                    MockServerWebExchange retry = play("k1", "{}");
+                    filter.filter(retry, chain).block();
+                    assertEquals(HttpStatus.CONFLICT, retry.getResponse().getStatusCode());
+                    firstDone.tryEmitEmpty();
+                })
+                .verifyComplete();
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void filter_ClientGoneBeforeTheAnswer_RetryGetsItWithoutRunningAgain(){
+        Sinks.Empty<Void> firstDone = Sinks.empty();
+        WebFilterChain slowChain = exchange -> firstDone.asMono().then(chain.filter(exchange));
+        StepVerifier.create(filter.filter(play("k1", "{}"), slowChain))
+                .thenCancel()
+                .verify();
+        firstDone.tryEmitEmpty();
+        MockServerWebExchange retry = play("k1", "{}");
+
+        StepVerifier.create(filter.filter(retry, chain)).verifyComplete();
+
+        assertEquals(1, runs.get());
+        assertEquals("1:{}", retry.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void filter_ErrorBeforeTheHandlerRan_RetryRunsAgain(){
+        WebFilterChain failing = exchange -> Mono.error(new IllegalStateException("Not handled"));
+        StepVerifier.create(filter.filter(play("k1", "{}"), failing)).verifyError(IllegalStateException.class);
+        MockServerWebExchange retry = play("k1", "{}");
+
+        StepVerifier.create(filter.filter(retry, chain)).verifyComplete();
+
+        assertEquals(1, runs.get());
+        assertEquals("1:{}", retry.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void filter_BodyOverTheLimit_PayloadTooLarge(){
+        String body = "x".repeat(CachedBodyRequest.MAX_BODY_BYTES + 1);
+
+        StepVerifier.create(filter.filter(play("k1", body), chain))
+                .verifyErrorSatisfies(e -> assertEquals(HttpStatus.PAYLOAD_TOO_LARGE,
+                        ((ResponseStatusException) e).getStatusCode()));
+
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void filter_KeyNotInCacheButMirrored_MirroredResponseReplayed(){
+        IdempotencyMirror mirror = mock(IdempotencyMirror.class);
+        when(mirrorProvider.getIfAvailable()).thenReturn(mirror);
+        when(mirror.find("k1")).thenReturn(Mono.empty());
+        ArgumentCaptor<IdempotentResponse> mirrored = ArgumentCaptor.forClass(IdempotentResponse.class);
+        when(mirror.save(mirrored.capture())).thenReturn(Mono.empty());
+        StepVerifier.create(filter.filter(play("k1", "{}"), chain)).verifyComplete();
+        when(mirror.find("k1")).thenReturn(Mono.just(mirrored.getValue()));
+        IdempotencyFilter otherInstance = new IdempotencyFilter(new IdempotencyCache(2, 3600), mirrorProvider);
+        MockServerWebExchange retry = play("k1", "{}");
+
+        StepVerifier.create(otherInstance.filter(retry, chain)).verifyComplete();
+
+        assertEquals(1, runs.get());
+        assertEquals("1:{}", retry.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void reserve_SizeLimitReached_OldestKeyEvicted(){
+        IdempotentResponse response = new IdempotentResponse("k1", "f1", 200, null, new byte[0], Instant.now());
+        assertNull(cache.reserve("k1", "f1"));
+        cache.complete("k1", response);
+        assertNull(cache.reserve("k2", "f2"));
+        assertNull(cache.reserve("k3", "f3"));
+
+        assertNull(cache.reserve("k1", "f1"), "k1 was evicted and is reserved again");
+        assertNotNull(cache.reserve("k3", "f3"));
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.cat.itacademy.s05.blackjack.web;
+
+import com.cat.itacademy.s05.blackjack.cache.TokenBuckets;
+import com.cat.itacademy.s05.blackjack.cluster.ForwardSignature;
+import com.cat.itacademy.s05.blackjack.metrics.GameMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.test.StepVerifier;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private ForwardSignature forwardSignature;
+    private RateLimitFilter filter;
+    private List<String> bodiesRead;
+
+    //Keeps the body that reaches the controller
+    private final WebFilterChain chain = exchange -> DataBufferUtils.join(exchange.getRequest().getBody())
+            .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+            .doOnNext(body -> bodiesRead.add(body))
+            .then();
+
+    @BeforeEach
+    void setUp(){
+        registry = new SimpleMeterRegistry();
+        forwardSignature = new ForwardSignature("rate-limit-test-secret");
+        filter = new RateLimitFilter(new GameMetrics(registry), forwardSignature,
+                new double[]{1, 0}, new double[]{0, 0}, new double[]{1, 3}, 1, 100);
+        bodiesRead = new ArrayList<>();
+    }
+
+    private MockServerWebExchange play(String playerId, String ip){
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/game/abc123456/play")
+                .remoteAddress(new InetSocketAddress(ip, 40000))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"play\":\"HIT\",\"playerId\":\"" + playerId + "\",\"bet\":0}"));
+    }
+
+    private HttpStatus filter(MockServerWebExchange exchange){
+        StepVerifier.create(forwardSignature.filter(exchange, checked -> filter.filter(checked, chain)))
+                .verifyComplete();
+        return (HttpStatus) exchange.getResponse().getStatusCode();
+    }
+
+    private MockServerWebExchange forward(String signedBody, String body){
+        HttpHeaders headers = new HttpHeaders();
+        forwardSignature.sign(headers, HttpMethod.POST, URI.create("/game/abc123456/play"), "http://10.0.0.9:8080",
+                signedBody.getBytes(StandardCharsets.UTF_8));
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/game/abc123456/play")
+                .remoteAddress(new InetSocketAddress("10.0.0.9", 40000))
+                .headers(headers)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body));
+    }
+
+    @Test
+    void filter_PlayerOverLimit_TooManyRequestsWithRetryAfter(){
+        assertNull(filter(play("p1", "10.0.0.1")));
+        MockServerWebExchange throttled = play("p1", "10.0.0.2");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, filter(throttled));
+        assertEquals("1", throttled.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNull(filter(play("p2", "10.0.0.1")), "Other players keep their own bucket");
+        assertEquals(2, bodiesRead.size(), "The body still reaches the controller");
+        assertEquals(1, registry.get("blackjack.requests.throttled").tag("endpoint", "PLAY").tag("limit", "player")
+                .counter().count());
+    }
+
+    @Test
+    void filter_IpOverLimit_TooManyRequestsWhateverThePlayer(){
+        for (int i = 0; i < 3; i++) assertNull(filter(play("p" + i, "10.0.0.1")));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, filter(play("p9", "10.0.0.1")));
+        assertNull(filter(play("p9", "10.0.0.2")));
+        assertEquals(1, registry.get("blackjack.requests.throttled").tag("endpoint", "PLAY").tag("limit", "ip")
+                .counter().count());
+    }
+
+    @Test
+    void filter_NewGameByName_LimitedPerPlayerName(){
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.post("/game/new").body("Ann"));
+        MockServerWebExchange again = MockServerWebExchange.from(MockServerHttpRequest.post("/game/new").body("Ann "));
+        MockServerWebExchange other = MockServerWebExchange.from(MockServerHttpRequest.post("/game/new").body("Bob"));
+
+        assertNull(filter(first));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, filter(again));
+        assertNull(filter(other));
+        assertEquals(List.of("Ann", "Bob"), bodiesRead);
+    }
+
+    @Test
+    void filter_EndpointWithoutLimits_NotLimited(){
+        for (int i = 0; i < 5; i++) {
+            MockServerWebExchange join = MockServerWebExchange.from(MockServerHttpRequest.post("/game/abc123456/join")
+                    .remoteAddress(new InetSocketAddress("10.0.0.1", 40000))
+                    .body("Ann"));
+            assertNull(filter(join));
+        }
+        assertEquals(5, bodiesRead.size());
+    }
+
+    @Test
+    void filter_ForwardHeaderSetByClient_StillLimited(){
+        assertNull(filter(play("p1", "10.0.0.1")));
+        MockServerWebExchange forged = MockServerWebExchange.from(MockServerHttpRequest.post("/game/abc123456/play")
+                .remoteAddress(new InetSocketAddress("10.0.0.2", 40000))
+                .header(ForwardSignature.FORWARDED_BY_HEADER, "http://10.0.0.9:8080")
+                .header(ForwardSignature.FORWARDED_AT_HEADER, Long.toString(System.currentTimeMillis()))
+                .header(ForwardSignature.SIGNATURE_HEADER, "00")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"play\":\"HIT\",\"playerId\":\"p1\",\"bet\":0}"));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, filter(forged));
+    }
+
+    @Test
+    void filter_SignedForward_NotLimitedAgain(){
+        assertNull(filter(play("p1", "10.0.0.1")));
+        String body = "{\"play\":\"HIT\",\"playerId\":\"p1\",\"bet\":0}";
+
+        assertNull(filter(forward(body, body)));
+        assertEquals(2, bodiesRead.size());
+        assertEquals(body, bodiesRead.get(1));
+    }
+
+    @Test
+    void filter_SignedForwardReplayedWithAnotherBody_StillLimited(){
+        assertNull(filter(play("p1", "10.0.0.1")));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, filter(forward("{\"play\":\"HIT\",\"playerId\":\"p2\",\"bet\":0}",
+                "{\"play\":\"HIT\",\"playerId\":\"p1\",\"bet\":0}")));
+    }
+
+    @Test
+    void tryAcquire_TokensSpent_RefilledAtTheRate(){
+        TokenBuckets buckets = new TokenBuckets(10, Duration.ofSeconds(10));
+        long second = Duration.ofSeconds(1).toNanos();
+
+        assertEquals(0, buckets.tryAcquire("k", 2, 2, 0));
+        assertEquals(0, buckets.tryAcquire("k", 2, 2, 0));
+        assertEquals(second / 2, buckets.tryAcquire("k", 2, 2, 0));
+        assertEquals(0, buckets.tryAcquire("k", 2, 2, second / 2));
+        assertTrue(buckets.tryAcquire("k", 2, 2, second / 2) > 0);
+    }
+
+    @Test
+    void tryAcquire_MoreKeysThanSize_LeastRecentlyUsedEvicted(){
+        TokenBuckets buckets = new TokenBuckets(64, Duration.ofSeconds(10));
+
+        for (int i = 0; i < 1000; i++) buckets.tryAcquire("k" + i, 1, 1, 0);
+
+        assertTrue(buckets.size() <= 64);
+    }
+
+    @Test
+    void tryAcquire_BucketsIdleLongerThanTimeout_Evicted(){
+        TokenBuckets buckets = new TokenBuckets(100_000, Duration.ofSeconds(1));
+        for (int i = 0; i < 1000; i++) buckets.tryAcquire("old" + i, 1, 1, 0);
+        assertEquals(1000, buckets.size());
+
+        for (int i = 0; i < 1000; i++) buckets.tryAcquire("new" + i, 1, 1, Duration.ofSeconds(2).toNanos());
+
+        assertTrue(buckets.size() < 1100, "Only the stripes not used since may keep idle buckets");
+    }
+
+}
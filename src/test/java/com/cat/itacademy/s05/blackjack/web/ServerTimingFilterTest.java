@@ -0,0 +1,69 @@
+package com.cat.itacademy.s05.blackjack.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServerTimingFilterTest {
+
+    private final ServerTimingFilter filter = new ServerTimingFilter();
+
+    private final WebFilterChain chain = exchange ->
+            ServerTiming.time(ServerTiming.Metric.DB_READ, Mono.delay(Duration.ofMillis(20)))
+                    .then(exchange.getResponse().writeWith(Mono.just(DefaultDataBufferFactory.sharedInstance
+                            .wrap("{}".getBytes(StandardCharsets.UTF_8)))));
+
+    @Test
+    void filter_GamePath_AddsServerTimingHeaderWithMongoReads(){
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/game/abc123456"));
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        String header = exchange.getResponse().getHeaders().getFirst(ServerTimingFilter.HEADER);
+        assertNotNull(header);
+        Matcher dbRead = Pattern.compile("db-read;dur=([0-9.]+)").matcher(header);
+        assertTrue(dbRead.find());
+        assertTrue(Double.parseDouble(dbRead.group(1)) >= 20, "Mongo read time is recorded");
+        assertTrue(header.contains("ser;dur="));
+        assertTrue(header.contains("app;dur="));
+    }
+
+    @Test
+    void filter_CommaDecimalLocale_DurationsWrittenWithPoint(){
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("ca-ES"));
+        try {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/game/abc123456"));
+
+            StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+            String header = exchange.getResponse().getHeaders().getFirst(ServerTimingFilter.HEADER);
+            assertTrue(header.matches("([a-z-]+;dur=[0-9]+\\.[0-9]{3};desc=\"[^\"]+\")(, [a-z-]+;dur=[0-9]+\\.[0-9]{3};" +
+                    "desc=\"[^\"]+\")*"), header);
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void filter_OtherPath_NoServerTimingHeader(){
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/swagger-ui.html"));
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(ServerTimingFilter.HEADER));
+    }
+
+}